@@ -27,6 +27,7 @@ dependencies {
     
     // MongoDB driver
     implementation("org.mongodb:mongodb-driver-sync:4.11.1")
+    implementation("org.mongodb:mongodb-driver-reactivestreams:4.11.1")
     
     testImplementation(platform("org.junit:junit-bom:5.10.0"))
     testImplementation("org.junit.jupiter:junit-jupiter")
@@ -35,4 +36,27 @@ dependencies {
 
 tasks.test {
     useJUnitPlatform()
-}
\ No newline at end of file
+}
+tasks.register<JavaExec>("loadTest") {
+    group = "application"
+    description = "Seeds cards and replays a banking workload mix against a backend"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("org.example.LoadTest")
+    args = (project.findProperty("loadTestArgs") as String?)?.split(" ") ?: emptyList()
+}
+
+tasks.register<JavaExec>("reconcile") {
+    group = "application"
+    description = "Compares cards between PostgreSQL and MongoDB and optionally repairs the target"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("org.example.Reconcile")
+    args = (project.findProperty("reconcileArgs") as String?)?.split(" ") ?: emptyList()
+}
+
+tasks.register<JavaExec>("batchJob") {
+    group = "application"
+    description = "Runs a partitioned card batch job (interest accrual or expired-card sweep)"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("org.example.BatchJobs")
+    args = (project.findProperty("batchJobArgs") as String?)?.split(" ") ?: emptyList()
+}
@@ -0,0 +1,67 @@
+package org.example;
+
+import org.example.backend.BackendLease;
+import org.example.backend.BackendRegistry;
+import org.example.batch.BatchJobResult;
+import org.example.batch.BatchJobRunner;
+import org.example.batch.CardBatchJob;
+import org.example.batch.ExpiredCardSweepJob;
+import org.example.batch.InterestAccrualJob;
+import org.example.database.DatabaseConnection;
+import org.example.database.MongoConnection;
+
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.Map;
+
+public class BatchJobs {
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: BatchJobs <postgres|mongo> <interest|expiry> [key=value ...]");
+            System.exit(1);
+        }
+        String backend = args[0];
+        Map<String, String> options = new HashMap<>();
+        for (int i = 2; i < args.length; i++) {
+            int separator = args[i].indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected key=value but got: " + args[i]);
+            }
+            options.put(args[i].substring(0, separator), args[i].substring(separator + 1));
+        }
+
+        YearMonth period = YearMonth.parse(options.getOrDefault("period", YearMonth.now().toString()));
+        CardBatchJob job = switch (args[1]) {
+            case "interest" -> new InterestAccrualJob(period.toString(),
+                                                      Double.parseDouble(options.getOrDefault("rate", "0.05")));
+            case "expiry" -> new ExpiredCardSweepJob(period);
+            default -> throw new IllegalArgumentException("Unknown job: " + args[1]);
+        };
+
+        if ("postgres".equalsIgnoreCase(backend)) {
+            DatabaseConnection.initializePostgresDatabase();
+        } else {
+            MongoConnection.initializeMongoDatabase();
+        }
+
+        BackendRegistry registry = new BackendRegistry(backend);
+        BatchJobResult result;
+        try (BackendLease lease = registry.acquire()) {
+            BatchJobRunner runner = new BatchJobRunner(
+                lease.getCardDao(),
+                Integer.parseInt(options.getOrDefault("chunk", "1000")),
+                Integer.parseInt(options.getOrDefault("parallelism", "8")),
+                Path.of(options.getOrDefault("checkpoints", "build/checkpoints")));
+
+            System.out.println("Running " + job.getName() + " on " + lease.getBackend().getDisplayName());
+            result = runner.run(job);
+        }
+        System.out.println(result);
+        if (!result.isComplete()) {
+            System.err.println("Some chunks failed; run the same command again to resume from the checkpoint");
+            System.exit(2);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package org.example;
+
+import org.example.backend.BackendLease;
+import org.example.database.DatabaseConnection;
+import org.example.database.MongoConnection;
+import org.example.loadtest.LoadGenerator;
+import org.example.loadtest.LoadTestConfig;
+
+public class LoadTest {
+
+    public static void main(String[] args) throws InterruptedException {
+        LoadTestConfig config = LoadTestConfig.fromArgs(args);
+
+        if ("postgres".equalsIgnoreCase(config.getBackend())) {
+            DatabaseConnection.initializePostgresDatabase();
+        } else {
+            MongoConnection.initializeMongoDatabase();
+        }
+
+        Main app = new Main(config.getBackend(), config.getBackendOptions());
+        try (BackendLease lease = app.getRegistry().acquire()) {
+            LoadGenerator generator = new LoadGenerator(
+                lease.getCardUserDao(), lease.getCardDao(), lease.getPanSequenceDao(), config);
+
+            System.out.println("Seeding " + config.getUsers() + " users on "
+                               + lease.getBackend().getDisplayName() + "...");
+            generator.seed();
+
+            System.out.println("Running load for " + config.getDurationSeconds() + "s...");
+            generator.run();
+            generator.report(System.out);
+        }
+    }
+}
@@ -1,51 +1,49 @@
 package org.example;
 
+import org.example.backend.BackendLease;
+import org.example.backend.BackendOptions;
+import org.example.backend.BackendRegistry;
 import org.example.database.DatabaseConnection;
+import org.example.database.MongoConnection;
 import org.example.model.Card;
 import org.example.model.CardUser;
 import org.example.dao.CardDao;
 import org.example.dao.CardUserDao;
+import org.example.dao.PanSequenceDao;
 import org.example.dao.mongo.MongoCardDao;
-import org.example.dao.mongo.MongoCardUserDao;
-import org.example.dao.postgres.PostgresCardDao;
-import org.example.dao.postgres.PostgresCardUserDao;
+import org.example.service.CardIssuanceService;
+
+import java.time.Duration;
 
 public class Main {
     
-    private CardUserDao cardUserDao;
-    private CardDao cardDao;
-    private String currentDatabase;
+    private static final String DEMO_BIN = "440043";
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+    
+    private final BackendRegistry registry;
     
     public Main(String databaseType) {
-        switchDatabase(databaseType);
+        this(databaseType, new BackendOptions());
     }
     
-    public void switchDatabase(String databaseType) {
-        if ("postgres".equalsIgnoreCase(databaseType)) {
-            this.cardUserDao = new PostgresCardUserDao();
-            this.cardDao = new PostgresCardDao();
-            this.currentDatabase = "PostgreSQL";
-            System.out.println("Switched to PostgreSQL");
-        } else if ("mongo".equalsIgnoreCase(databaseType) || "mongodb".equalsIgnoreCase(databaseType)) {
-            this.cardUserDao = new MongoCardUserDao();
-            this.cardDao = new MongoCardDao();
-            this.currentDatabase = "MongoDB";
-            System.out.println("Switched to MongoDB");
-        } else {
-            throw new IllegalArgumentException("Unknown database type: " + databaseType);
-        }
+    public Main(String databaseType, BackendOptions options) {
+        this.registry = new BackendRegistry(databaseType, options);
+        System.out.println("Using " + registry.getDefaultBackend().getDisplayName());
     }
     
-    public CardUserDao getCardUserDao() {
-        return cardUserDao;
+    public void switchDatabase(String databaseType) {
+        if (!registry.switchDefault(databaseType, DRAIN_TIMEOUT)) {
+            System.err.println("Timed out draining in-flight operations on the previous database");
+        }
+        System.out.println("Switched to " + registry.getDefaultBackend().getDisplayName());
     }
     
-    public CardDao getCardDao() {
-        return cardDao;
+    public BackendRegistry getRegistry() {
+        return registry;
     }
     
     public String getCurrentDatabase() {
-        return currentDatabase;
+        return registry.getDefaultBackend().getDisplayName();
     }
     
     public static void main(String[] args) {
@@ -53,28 +51,35 @@ public class Main {
         DatabaseConnection.initializePostgresDatabase();
         
         System.out.println("\n=== Using PostgreSQL ===");
-        Main app = new Main("postgres");
+        Main app = new Main("postgres", BackendOptions.fromArgs(args));
         demonstrateOperations(app);
         
         System.out.println("\n=== Switching to MongoDB ===");
+        MongoConnection.initializeMongoDatabase();
         app.switchDatabase("mongo");
+        new MongoCardDao().assignMissingCardIds();
         demonstrateOperations(app);
     }
     
     private static void demonstrateOperations(Main app) {
-        CardUserDao userDao = app.getCardUserDao();
-        CardDao cardDao = app.getCardDao();
+        try (BackendLease lease = app.getRegistry().acquire()) {
+            demonstrateOperations(lease.getCardUserDao(), lease.getCardDao(), lease.getPanSequenceDao());
+        }
+    }
+    
+    private static void demonstrateOperations(CardUserDao userDao, CardDao cardDao, PanSequenceDao panSequenceDao) {
+        CardIssuanceService issuanceService = new CardIssuanceService(cardDao, panSequenceDao, DEMO_BIN);
         
         CardUser user = new CardUser("Иван", "Иванов", "123456789012");
         user = userDao.create(user);
         System.out.println("Created user: " + user);
         
-        Card card = new Card(null, "1234567890123456", Card.generateCVV(), 
-                           Card.generateExpireDate(), user.getName(), user.getSurname(), 
-                           "KZT", 1000.50);
-        card = cardDao.create(card);
+        Card card = issuanceService.issue(user, "KZT", 1000.50);
         System.out.println("Created card: " + card);
         
+        userDao.findHolderWithCards(user.getIin())
+            .ifPresent(holder -> System.out.println("Holder with cards: " + holder));
+        
         System.out.println("\nAll cards:");
         cardDao.findAll().forEach(c -> System.out.println(c.getFullName() + " = " + c.getPan() + ", " + c.getCvv()));
     }
@@ -0,0 +1,33 @@
+package org.example;
+
+import org.example.backend.BackendRegistry;
+import org.example.dao.CardDao;
+import org.example.database.DatabaseConnection;
+import org.example.database.MongoConnection;
+import org.example.reconcile.CardReconciler;
+import org.example.reconcile.ReconciliationReport;
+
+import java.util.Arrays;
+
+public class Reconcile {
+
+    public static void main(String[] args) {
+        String sourceType = args.length > 0 && !"repair".equalsIgnoreCase(args[0]) ? args[0] : "postgres";
+        String targetType = "postgres".equalsIgnoreCase(sourceType) ? "mongo" : "postgres";
+        boolean repair = Arrays.stream(args).anyMatch("repair"::equalsIgnoreCase);
+
+        DatabaseConnection.initializePostgresDatabase();
+        MongoConnection.initializeMongoDatabase();
+
+        BackendRegistry registry = new BackendRegistry(sourceType);
+        CardDao source = registry.getBackend(sourceType).getCardDao();
+        CardDao target = registry.getBackend(targetType).getCardDao();
+
+        System.out.println("Reconciling " + sourceType + " -> " + targetType + (repair ? " with repair" : ""));
+        ReconciliationReport report = new CardReconciler(source, target).reconcile(repair);
+        System.out.println(report);
+        report.getMissingInTarget().forEach(pan -> System.out.println("Missing in " + targetType + ": " + pan));
+        report.getMissingInSource().forEach(pan -> System.out.println("Missing in " + sourceType + ": " + pan));
+        report.getMismatched().forEach(pan -> System.out.println("Mismatched: " + pan));
+    }
+}
@@ -0,0 +1,204 @@
+package org.example.backend;
+
+import org.example.dao.AsyncCardDao;
+import org.example.dao.AsyncCardUserDao;
+import org.example.dao.CardDao;
+import org.example.dao.CardUserDao;
+import org.example.dao.PanSequenceDao;
+import org.example.dao.bloom.BloomFilterCardDao;
+import org.example.dao.bulkhead.Bulkhead;
+import org.example.dao.bulkhead.BulkheadCardDao;
+import org.example.dao.bulkhead.BulkheadCardUserDao;
+import org.example.dao.indexed.IndexedCardDao;
+import org.example.dao.mongo.MongoCardDao;
+import org.example.dao.mongo.MongoCardUserDao;
+import org.example.dao.mongo.MongoPanSequenceDao;
+import org.example.dao.mongo.reactive.ReactiveMongoCardDao;
+import org.example.dao.mongo.reactive.ReactiveMongoCardUserDao;
+import org.example.dao.postgres.PostgresCardDao;
+import org.example.dao.postgres.PostgresCardUserDao;
+import org.example.dao.postgres.PostgresPanSequenceDao;
+import org.example.dao.search.SearchIndexedCardDao;
+import org.example.dao.search.SearchIndexedCardUserDao;
+import org.example.index.HolderSearchIndex;
+import org.example.index.OffHeapCardIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class Backend implements AutoCloseable {
+
+    public static final String POSTGRES = "postgres";
+    public static final String MONGO = "mongo";
+    public static final String MONGO_REACTIVE = "mongo-reactive";
+
+    private static final String WARM_UP_PAN = "0000000000000000";
+
+    private final String name;
+    private final String displayName;
+    private final CardUserDao cardUserDao;
+    private final CardDao cardDao;
+    private final PanSequenceDao panSequenceDao;
+    private final AsyncCardUserDao asyncCardUserDao;
+    private final AsyncCardDao asyncCardDao;
+    private final List<Runnable> loaders;
+    private final List<AutoCloseable> resources;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public Backend(String name, String displayName, CardUserDao cardUserDao, CardDao cardDao,
+                   PanSequenceDao panSequenceDao, AsyncCardUserDao asyncCardUserDao, AsyncCardDao asyncCardDao) {
+        this(name, displayName, cardUserDao, cardDao, panSequenceDao, asyncCardUserDao, asyncCardDao, List.of(), List.of());
+    }
+
+    public Backend(String name, String displayName, CardUserDao cardUserDao, CardDao cardDao,
+                   PanSequenceDao panSequenceDao, AsyncCardUserDao asyncCardUserDao, AsyncCardDao asyncCardDao,
+                   List<Runnable> loaders, List<AutoCloseable> resources) {
+        this.name = name;
+        this.displayName = displayName;
+        this.cardUserDao = cardUserDao;
+        this.cardDao = cardDao;
+        this.panSequenceDao = panSequenceDao;
+        this.asyncCardUserDao = asyncCardUserDao;
+        this.asyncCardDao = asyncCardDao;
+        this.loaders = List.copyOf(loaders);
+        this.resources = List.copyOf(resources);
+    }
+
+    public static String canonicalName(String databaseType) {
+        if (POSTGRES.equalsIgnoreCase(databaseType)) {
+            return POSTGRES;
+        } else if (MONGO.equalsIgnoreCase(databaseType) || "mongodb".equalsIgnoreCase(databaseType)) {
+            return MONGO;
+        } else if (MONGO_REACTIVE.equalsIgnoreCase(databaseType)) {
+            return MONGO_REACTIVE;
+        }
+        throw new IllegalArgumentException("Unknown database type: " + databaseType);
+    }
+
+    public static Backend of(String databaseType) {
+        return switch (canonicalName(databaseType)) {
+            case POSTGRES -> new Backend(POSTGRES, "PostgreSQL",
+                new PostgresCardUserDao(), new PostgresCardDao(), new PostgresPanSequenceDao(), null, null);
+            case MONGO -> new Backend(MONGO, "MongoDB",
+                new MongoCardUserDao(), new MongoCardDao(), new MongoPanSequenceDao(), null, null);
+            default -> new Backend(MONGO_REACTIVE, "MongoDB (reactive)",
+                new MongoCardUserDao(), new MongoCardDao(), new MongoPanSequenceDao(),
+                new ReactiveMongoCardUserDao(), new ReactiveMongoCardDao());
+        };
+    }
+
+    public static Backend of(String databaseType, BackendOptions options) {
+        Backend raw = of(databaseType);
+        List<Runnable> loaders = new ArrayList<>();
+        List<AutoCloseable> resources = new ArrayList<>();
+
+        CardDao cards = raw.cardDao;
+        CardUserDao users = raw.cardUserDao;
+        if (options.getBulkheadConcurrency() > 0) {
+            cards = new BulkheadCardDao(cards, bulkhead(raw.name + "-card-reads", options),
+                bulkhead(raw.name + "-card-money", options));
+            users = new BulkheadCardUserDao(users, bulkhead(raw.name + "-user-reads", options),
+                bulkhead(raw.name + "-user-writes", options));
+        }
+        if (options.getPanIndexCards() > 0) {
+            IndexedCardDao indexed = new IndexedCardDao(cards, new OffHeapCardIndex(options.getPanIndexCards()));
+            loaders.add(indexed::load);
+            resources.add(indexed);
+            cards = indexed;
+        }
+        if (options.getBloomFilterPans() > 0) {
+            BloomFilterCardDao bloom = new BloomFilterCardDao(cards, options.getBloomFilterPans());
+            loaders.add(bloom::rebuild);
+            cards = bloom;
+        }
+        if (options.hasHolderSearch()) {
+            HolderSearchIndex search = new HolderSearchIndex();
+            SearchIndexedCardUserDao searchUsers = new SearchIndexedCardUserDao(users, search);
+            SearchIndexedCardDao searchCards = new SearchIndexedCardDao(cards, search);
+            loaders.add(searchUsers::load);
+            loaders.add(searchCards::load);
+            users = searchUsers;
+            cards = searchCards;
+        }
+
+        return new Backend(raw.name, raw.displayName, users, cards, raw.panSequenceDao,
+            raw.asyncCardUserDao, raw.asyncCardDao, loaders, resources);
+    }
+
+    private static Bulkhead bulkhead(String name, BackendOptions options) {
+        return new Bulkhead(name, options.getBulkheadConcurrency(), options.getBulkheadQueue(),
+            options.getBulkheadWait());
+    }
+
+    public void warmUp() {
+        for (Runnable loader : loaders) {
+            try {
+                loader.run();
+            } catch (RuntimeException e) {
+                System.err.println("Error loading " + displayName + " indexes: " + e.getMessage());
+            }
+        }
+        try {
+            cardDao.existsByPan(WARM_UP_PAN);
+        } catch (RuntimeException e) {
+            System.err.println("Error warming up " + displayName + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        for (AutoCloseable resource : resources) {
+            try {
+                resource.close();
+            } catch (Exception e) {
+                System.err.println("Error closing " + displayName + ": " + e.getMessage());
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public CardUserDao getCardUserDao() {
+        return cardUserDao;
+    }
+
+    public CardDao getCardDao() {
+        return cardDao;
+    }
+
+    public PanSequenceDao getPanSequenceDao() {
+        return panSequenceDao;
+    }
+
+    public AsyncCardUserDao getAsyncCardUserDao() {
+        return asyncCardUserDao;
+    }
+
+    public AsyncCardDao getAsyncCardDao() {
+        return asyncCardDao;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    void enter() {
+        inFlight.incrementAndGet();
+    }
+
+    void exit() {
+        inFlight.decrementAndGet();
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
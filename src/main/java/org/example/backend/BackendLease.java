@@ -0,0 +1,49 @@
+package org.example.backend;
+
+import org.example.dao.AsyncCardDao;
+import org.example.dao.AsyncCardUserDao;
+import org.example.dao.CardDao;
+import org.example.dao.CardUserDao;
+import org.example.dao.PanSequenceDao;
+
+public class BackendLease implements AutoCloseable {
+
+    private final Backend backend;
+    private boolean closed;
+
+    BackendLease(Backend backend) {
+        this.backend = backend;
+    }
+
+    public Backend getBackend() {
+        return backend;
+    }
+
+    public CardUserDao getCardUserDao() {
+        return backend.getCardUserDao();
+    }
+
+    public CardDao getCardDao() {
+        return backend.getCardDao();
+    }
+
+    public PanSequenceDao getPanSequenceDao() {
+        return backend.getPanSequenceDao();
+    }
+
+    public AsyncCardUserDao getAsyncCardUserDao() {
+        return backend.getAsyncCardUserDao();
+    }
+
+    public AsyncCardDao getAsyncCardDao() {
+        return backend.getAsyncCardDao();
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            backend.exit();
+        }
+    }
+}
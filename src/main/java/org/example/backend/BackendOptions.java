@@ -0,0 +1,106 @@
+package org.example.backend;
+
+import java.time.Duration;
+
+public class BackendOptions {
+
+    private int panIndexCards = 0;
+    private long bloomFilterPans = 0;
+    private boolean holderSearch = false;
+    private int bulkheadConcurrency = 0;
+    private int bulkheadQueue = 256;
+    private Duration bulkheadWait = Duration.ofSeconds(1);
+
+    public static BackendOptions fromArgs(String[] args) {
+        BackendOptions options = new BackendOptions();
+        for (String arg : args) {
+            String option = arg.startsWith("--") ? arg.substring(2) : arg;
+            int separator = option.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected key=value but got: " + arg);
+            }
+            options.set(option.substring(0, separator), option.substring(separator + 1));
+        }
+        return options;
+    }
+
+    public void set(String key, String value) {
+        switch (key) {
+            case "pan-index" -> panIndexCards = Integer.parseInt(value);
+            case "bloom" -> bloomFilterPans = Long.parseLong(value);
+            case "search" -> holderSearch = Boolean.parseBoolean(value);
+            case "bulkhead" -> bulkheadConcurrency = Integer.parseInt(value);
+            case "bulkhead-queue" -> bulkheadQueue = Integer.parseInt(value);
+            case "bulkhead-wait" -> bulkheadWait = Duration.ofMillis(Long.parseLong(value));
+            default -> throw new IllegalArgumentException("Unknown option: " + key);
+        }
+        validate();
+    }
+
+    private void validate() {
+        if (panIndexCards < 0 || bloomFilterPans < 0 || bulkheadConcurrency < 0) {
+            throw new IllegalArgumentException("pan-index, bloom and bulkhead must not be negative");
+        }
+        if (bulkheadQueue < 0 || bulkheadWait.isNegative()) {
+            throw new IllegalArgumentException("bulkhead-queue and bulkhead-wait must not be negative");
+        }
+    }
+
+    public BackendOptions withPanIndex(int expectedCards) {
+        set("pan-index", Integer.toString(expectedCards));
+        return this;
+    }
+
+    public BackendOptions withBloomFilter(long expectedPans) {
+        set("bloom", Long.toString(expectedPans));
+        return this;
+    }
+
+    public BackendOptions withHolderSearch(boolean enabled) {
+        set("search", Boolean.toString(enabled));
+        return this;
+    }
+
+    public BackendOptions withBulkheads(int maxConcurrent, int maxQueue, Duration maxWait) {
+        set("bulkhead", Integer.toString(maxConcurrent));
+        set("bulkhead-queue", Integer.toString(maxQueue));
+        set("bulkhead-wait", Long.toString(maxWait.toMillis()));
+        return this;
+    }
+
+    public int getPanIndexCards() {
+        return panIndexCards;
+    }
+
+    public long getBloomFilterPans() {
+        return bloomFilterPans;
+    }
+
+    public boolean hasHolderSearch() {
+        return holderSearch;
+    }
+
+    public int getBulkheadConcurrency() {
+        return bulkheadConcurrency;
+    }
+
+    public int getBulkheadQueue() {
+        return bulkheadQueue;
+    }
+
+    public Duration getBulkheadWait() {
+        return bulkheadWait;
+    }
+
+    @Override
+    public String toString() {
+        return "BackendOptions{" +
+                "panIndex=" + panIndexCards +
+                ", bloom=" + bloomFilterPans +
+                ", search=" + holderSearch +
+                ", bulkhead=" + bulkheadConcurrency +
+                ", bulkheadQueue=" + bulkheadQueue +
+                ", bulkheadWait=" + bulkheadWait.toMillis() + "ms" +
+                '}';
+    }
+}
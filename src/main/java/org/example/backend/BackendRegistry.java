@@ -0,0 +1,136 @@
+package org.example.backend;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+public class BackendRegistry {
+
+    private static final long DRAIN_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Map<String, Backend> backends = new ConcurrentHashMap<>();
+    private final BackendOptions options;
+    private final AtomicReference<RoutingTable> routing;
+
+    public BackendRegistry(String defaultBackend) {
+        this(defaultBackend, new BackendOptions());
+    }
+
+    public BackendRegistry(String defaultBackend, BackendOptions options) {
+        this.options = options;
+        String name = getBackend(defaultBackend).getName();
+        this.routing = new AtomicReference<>(new RoutingTable(name, Map.of()));
+    }
+
+    public BackendRegistry(Backend defaultBackend) {
+        this.options = new BackendOptions();
+        register(defaultBackend);
+        this.routing = new AtomicReference<>(new RoutingTable(defaultBackend.getName(), Map.of()));
+    }
+
+    public void register(Backend backend) {
+        backend.warmUp();
+        backends.put(backend.getName(), backend);
+    }
+
+    public Backend getBackend(String databaseType) {
+        String name = Backend.canonicalName(databaseType);
+        Backend existing = backends.get(name);
+        if (existing != null) {
+            return existing;
+        }
+
+        Backend created = Backend.of(name, options);
+        created.warmUp();
+        Backend raced = backends.putIfAbsent(name, created);
+        if (raced != null) {
+            created.close();
+            return raced;
+        }
+        return created;
+    }
+
+    public Collection<Backend> getBackends() {
+        return backends.values();
+    }
+
+    public Backend getDefaultBackend() {
+        return backends.get(routing.get().getDefaultBackend());
+    }
+
+    public Backend getTenantBackend(String tenant) {
+        return backends.get(routing.get().resolve(tenant));
+    }
+
+    public Map<String, String> getTenantRoutes() {
+        return routing.get().getTenantRoutes();
+    }
+
+    public BackendLease acquire() {
+        return acquire(null);
+    }
+
+    public BackendLease acquire(String tenant) {
+        while (true) {
+            Backend backend = backends.get(routing.get().resolve(tenant));
+            backend.enter();
+            if (backend.getName().equals(routing.get().resolve(tenant))) {
+                return new BackendLease(backend);
+            }
+            backend.exit();
+        }
+    }
+
+    public BackendLease acquireBackend(String databaseType) {
+        Backend backend = getBackend(databaseType);
+        backend.enter();
+        return new BackendLease(backend);
+    }
+
+    public boolean switchDefault(String databaseType, Duration drainTimeout) {
+        String name = getBackend(databaseType).getName();
+        return reroute(table -> table.withDefault(name), RoutingTable::getDefaultBackend, drainTimeout);
+    }
+
+    public boolean routeTenant(String tenant, String databaseType, Duration drainTimeout) {
+        String name = getBackend(databaseType).getName();
+        return reroute(table -> table.withTenant(tenant, name), table -> table.resolve(tenant), drainTimeout);
+    }
+
+    public boolean clearTenantRoute(String tenant, Duration drainTimeout) {
+        return reroute(table -> table.withTenant(tenant, null), table -> table.resolve(tenant), drainTimeout);
+    }
+
+    private boolean reroute(UnaryOperator<RoutingTable> change, Function<RoutingTable, String> route,
+                            Duration drainTimeout) {
+        RoutingTable previous;
+        RoutingTable next;
+        do {
+            previous = routing.get();
+            next = change.apply(previous);
+        } while (!routing.compareAndSet(previous, next));
+
+        String retired = route.apply(previous);
+        if (next.routesTo(retired)) {
+            return true;
+        }
+        return drain(backends.get(retired), drainTimeout);
+    }
+
+    private boolean drain(Backend backend, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (backend.getInFlight() > 0) {
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            LockSupport.parkNanos(DRAIN_POLL_NANOS);
+        }
+        return true;
+    }
+}
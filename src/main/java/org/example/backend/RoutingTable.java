@@ -0,0 +1,48 @@
+package org.example.backend;
+
+import java.util.HashMap;
+import java.util.Map;
+
+final class RoutingTable {
+
+    private final String defaultBackend;
+    private final Map<String, String> tenantRoutes;
+
+    RoutingTable(String defaultBackend, Map<String, String> tenantRoutes) {
+        this.defaultBackend = defaultBackend;
+        this.tenantRoutes = Map.copyOf(tenantRoutes);
+    }
+
+    String resolve(String tenant) {
+        if (tenant == null) {
+            return defaultBackend;
+        }
+        return tenantRoutes.getOrDefault(tenant, defaultBackend);
+    }
+
+    boolean routesTo(String backend) {
+        return defaultBackend.equals(backend) || tenantRoutes.containsValue(backend);
+    }
+
+    String getDefaultBackend() {
+        return defaultBackend;
+    }
+
+    Map<String, String> getTenantRoutes() {
+        return tenantRoutes;
+    }
+
+    RoutingTable withDefault(String backend) {
+        return new RoutingTable(backend, tenantRoutes);
+    }
+
+    RoutingTable withTenant(String tenant, String backend) {
+        Map<String, String> routes = new HashMap<>(tenantRoutes);
+        if (backend == null) {
+            routes.remove(tenant);
+        } else {
+            routes.put(tenant, backend);
+        }
+        return new RoutingTable(defaultBackend, routes);
+    }
+}
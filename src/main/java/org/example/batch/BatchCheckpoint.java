@@ -0,0 +1,97 @@
+package org.example.batch;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.List;
+
+class BatchCheckpoint implements AutoCloseable {
+
+    private static final String HEADER_PREFIX = "# ";
+
+    private final Path path;
+    private final int maxCardId;
+    private final int chunkSize;
+    private final BitSet completed;
+    private final FileChannel channel;
+
+    private BatchCheckpoint(Path path, int maxCardId, int chunkSize, BitSet completed) throws IOException {
+        this.path = path;
+        this.maxCardId = maxCardId;
+        this.chunkSize = chunkSize;
+        this.completed = completed;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                        StandardOpenOption.APPEND);
+    }
+
+    static BatchCheckpoint open(Path path, int maxCardId, int chunkSize) throws IOException {
+        if (Files.exists(path)) {
+            return resume(path);
+        }
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        BatchCheckpoint checkpoint = new BatchCheckpoint(path, maxCardId, chunkSize, new BitSet());
+        checkpoint.append(HEADER_PREFIX + maxCardId + " " + chunkSize);
+        return checkpoint;
+    }
+
+    private static BatchCheckpoint resume(Path path) throws IOException {
+        List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        if (lines.isEmpty() || !lines.get(0).startsWith(HEADER_PREFIX)) {
+            throw new IOException("Not a batch checkpoint: " + path);
+        }
+        String[] header = lines.get(0).substring(HEADER_PREFIX.length()).split(" ");
+        BitSet completed = new BitSet();
+        for (String line : lines.subList(1, lines.size())) {
+            if (!line.isBlank()) {
+                completed.set(Integer.parseInt(line.trim()));
+            }
+        }
+        return new BatchCheckpoint(path, Integer.parseInt(header[0]), Integer.parseInt(header[1]), completed);
+    }
+
+    int getMaxCardId() {
+        return maxCardId;
+    }
+
+    int getChunkSize() {
+        return chunkSize;
+    }
+
+    int getChunkCount() {
+        return maxCardId / chunkSize + 1;
+    }
+
+    synchronized boolean isCompleted(int chunk) {
+        return completed.get(chunk);
+    }
+
+    synchronized void complete(int chunk) throws IOException {
+        append(Integer.toString(chunk));
+        completed.set(chunk);
+    }
+
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(path);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel.isOpen()) {
+            channel.close();
+        }
+    }
+
+    private void append(String line) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.batch;
+
+import java.time.Duration;
+
+public class BatchJobResult {
+
+    private final String jobName;
+    private final int chunks;
+    private final int resumedChunks;
+    private final int failedChunks;
+    private final long cardsScanned;
+    private final long cardsUpdated;
+    private final Duration elapsed;
+
+    BatchJobResult(String jobName, int chunks, int resumedChunks, int failedChunks,
+                   long cardsScanned, long cardsUpdated, Duration elapsed) {
+        this.jobName = jobName;
+        this.chunks = chunks;
+        this.resumedChunks = resumedChunks;
+        this.failedChunks = failedChunks;
+        this.cardsScanned = cardsScanned;
+        this.cardsUpdated = cardsUpdated;
+        this.elapsed = elapsed;
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    public int getResumedChunks() {
+        return resumedChunks;
+    }
+
+    public int getFailedChunks() {
+        return failedChunks;
+    }
+
+    public long getCardsScanned() {
+        return cardsScanned;
+    }
+
+    public long getCardsUpdated() {
+        return cardsUpdated;
+    }
+
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    public boolean isComplete() {
+        return failedChunks == 0;
+    }
+
+    @Override
+    public String toString() {
+        return jobName + ": chunks=" + chunks +
+               ", resumed=" + resumedChunks +
+               ", failed=" + failedChunks +
+               ", scanned=" + cardsScanned +
+               ", updated=" + cardsUpdated +
+               ", elapsed=" + elapsed.toMillis() + "ms";
+    }
+}
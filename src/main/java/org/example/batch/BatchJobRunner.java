@@ -0,0 +1,101 @@
+package org.example.batch;
+
+import org.example.dao.CardDao;
+import org.example.model.Card;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class BatchJobRunner {
+
+    private final CardDao cardDao;
+    private final int chunkSize;
+    private final int parallelism;
+    private final Path checkpointDir;
+
+    public BatchJobRunner(CardDao cardDao, int chunkSize, int parallelism, Path checkpointDir) {
+        if (chunkSize <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("chunk size and parallelism must be positive");
+        }
+        this.cardDao = cardDao;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.checkpointDir = checkpointDir;
+    }
+
+    public BatchJobResult run(CardBatchJob job) {
+        long started = System.nanoTime();
+        Path path = checkpointDir.resolve(job.getName() + ".checkpoint");
+
+        try (BatchCheckpoint checkpoint = BatchCheckpoint.open(path, cardDao.findMaxCardId(), chunkSize)) {
+            AtomicInteger resumed = new AtomicInteger();
+            AtomicInteger failed = new AtomicInteger();
+            AtomicLong scanned = new AtomicLong();
+            AtomicLong updated = new AtomicLong();
+
+            try (ExecutorService executor = Executors.newFixedThreadPool(parallelism, Thread.ofVirtual().factory())) {
+                List<Future<?>> futures = new ArrayList<>(checkpoint.getChunkCount());
+                for (int chunk = 0; chunk < checkpoint.getChunkCount(); chunk++) {
+                    if (checkpoint.isCompleted(chunk)) {
+                        resumed.incrementAndGet();
+                        continue;
+                    }
+                    int index = chunk;
+                    futures.add(executor.submit(() -> {
+                        try {
+                            if (!processChunk(job, checkpoint, index, scanned, updated)) {
+                                failed.incrementAndGet();
+                            }
+                        } catch (RuntimeException | IOException e) {
+                            System.err.println("Error processing chunk " + index + " of " + job.getName() + ": "
+                                               + e.getMessage());
+                            failed.incrementAndGet();
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while running " + job.getName(), e);
+            }
+
+            if (failed.get() == 0) {
+                checkpoint.delete();
+            }
+            return new BatchJobResult(job.getName(), checkpoint.getChunkCount(), resumed.get(), failed.get(),
+                                      scanned.get(), updated.get(), Duration.ofNanos(System.nanoTime() - started));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error accessing checkpoint " + path, e);
+        }
+    }
+
+    private boolean processChunk(CardBatchJob job, BatchCheckpoint checkpoint, int chunk,
+                                 AtomicLong scanned, AtomicLong updated) throws IOException {
+        int fromCardId = chunk * checkpoint.getChunkSize();
+        int toCardId = Math.min(fromCardId + checkpoint.getChunkSize(), checkpoint.getMaxCardId() + 1);
+
+        List<Card> cards = cardDao.findByIdRange(fromCardId, toCardId);
+        int written = cards.isEmpty() ? 0 : job.process(cardDao, cards);
+        scanned.addAndGet(cards.size());
+        if (written < 0) {
+            return false;
+        }
+        updated.addAndGet(written);
+        checkpoint.complete(chunk);
+        return true;
+    }
+}
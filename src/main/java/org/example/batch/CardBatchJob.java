@@ -0,0 +1,11 @@
+package org.example.batch;
+
+import org.example.dao.CardDao;
+import org.example.model.Card;
+
+import java.util.List;
+
+public interface CardBatchJob {
+    String getName();
+    int process(CardDao cardDao, List<Card> cards);
+}
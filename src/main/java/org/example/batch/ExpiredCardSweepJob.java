@@ -0,0 +1,51 @@
+package org.example.batch;
+
+import org.example.dao.CardDao;
+import org.example.model.Card;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ExpiredCardSweepJob implements CardBatchJob {
+
+    private static final DateTimeFormatter EXPIRY_FORMAT = DateTimeFormatter.ofPattern("yy/MM");
+
+    private final YearMonth asOf;
+
+    public ExpiredCardSweepJob(YearMonth asOf) {
+        this.asOf = asOf;
+    }
+
+    @Override
+    public String getName() {
+        return "expiry-sweep-" + asOf;
+    }
+
+    @Override
+    public int process(CardDao cardDao, List<Card> cards) {
+        List<Card> expired = new ArrayList<>();
+        for (Card card : cards) {
+            if (isExpired(card.getDateOfExpire())) {
+                card.setDateOfExpire(asOf.plusYears(1).format(EXPIRY_FORMAT));
+                card.setCvv(Card.generateCVV());
+                expired.add(card);
+            }
+        }
+        return expired.isEmpty() ? 0 : cardDao.renewCards(expired);
+    }
+
+    private boolean isExpired(String dateOfExpire) {
+        if (dateOfExpire == null) {
+            return false;
+        }
+        try {
+            return YearMonth.parse(dateOfExpire, EXPIRY_FORMAT).isBefore(asOf);
+        } catch (DateTimeParseException e) {
+            System.err.println("Skipping card with unreadable expiry date: " + dateOfExpire);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.batch;
+
+import org.example.dao.CardDao;
+import org.example.model.Card;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class InterestAccrualJob implements CardBatchJob {
+
+    private static final int MONTHS_PER_YEAR = 12;
+
+    private final String period;
+    private final double monthlyRate;
+
+    public InterestAccrualJob(String period, double annualRate) {
+        if (annualRate < 0) {
+            throw new IllegalArgumentException("annual rate must not be negative: " + annualRate);
+        }
+        this.period = period;
+        this.monthlyRate = annualRate / MONTHS_PER_YEAR;
+    }
+
+    @Override
+    public String getName() {
+        return "interest-" + period;
+    }
+
+    @Override
+    public int process(CardDao cardDao, List<Card> cards) {
+        Map<String, Double> interestByPan = new LinkedHashMap<>();
+        for (Card card : cards) {
+            if (card.getBalance() == null || card.getBalance() <= 0) {
+                continue;
+            }
+            long interestCents = Math.round(card.getBalance() * monthlyRate * 100);
+            if (interestCents > 0) {
+                interestByPan.put(card.getPan(), interestCents / 100.0);
+            }
+        }
+        return interestByPan.isEmpty() ? 0 : cardDao.accrueInterest(interestByPan, period);
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.dao;
+
+import org.example.fx.FxRateSnapshot;
+import org.example.model.Card;
+import org.reactivestreams.Publisher;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncCardDao {
+    CompletableFuture<Card> create(Card card);
+    CompletableFuture<Integer> createBatch(List<Card> cards);
+    CompletableFuture<Optional<Card>> findById(Integer cardId);
+    CompletableFuture<Optional<Card>> findByPan(String pan);
+    CompletableFuture<List<Card>> findByNameAndSurname(String name, String surname);
+    Publisher<Card> findAll();
+    CompletableFuture<Boolean> update(Card card);
+    CompletableFuture<Boolean> deleteById(Integer cardId);
+    CompletableFuture<Boolean> deleteByPan(String pan);
+    CompletableFuture<Boolean> existsByPan(String pan);
+    CompletableFuture<Boolean> transferMoney(String fromPan, String toPan, Double amount);
+    CompletableFuture<Boolean> transferMoneyWithConversion(String fromPan, String toPan, Double amount,
+                                                           FxRateSnapshot rates);
+    CompletableFuture<Boolean> transferMoneyByName(String fromName, String fromSurname,
+                                                   String toName, String toSurname, Double amount);
+    CompletableFuture<Boolean> withdrawMoney(String pan, String cvv, Double amount);
+    CompletableFuture<Boolean> depositMoney(String pan, Double amount);
+    CompletableFuture<Boolean> depositMoneyByName(String name, String surname, Double amount);
+    CompletableFuture<Boolean> enableBalanceSharding(String pan, int shards);
+    CompletableFuture<Boolean> disableBalanceSharding(String pan);
+}
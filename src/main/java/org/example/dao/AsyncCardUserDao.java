@@ -0,0 +1,19 @@
+package org.example.dao;
+
+import org.example.model.CardUser;
+import org.example.model.HolderWithCards;
+import org.reactivestreams.Publisher;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncCardUserDao {
+    CompletableFuture<CardUser> create(CardUser cardUser);
+    CompletableFuture<Optional<CardUser>> findByIin(String iin);
+    CompletableFuture<Optional<CardUser>> findByNameAndSurname(String name, String surname);
+    CompletableFuture<Optional<HolderWithCards>> findHolderWithCards(String iin);
+    Publisher<CardUser> findAll();
+    CompletableFuture<Boolean> update(CardUser cardUser);
+    CompletableFuture<Boolean> deleteByIin(String iin);
+    CompletableFuture<Boolean> existsByIin(String iin);
+}
@@ -1,25 +1,42 @@
 package org.example.dao;
 
+import org.example.fx.FxRateSnapshot;
 import org.example.model.Card;
+import org.example.model.Disbursement;
+import org.example.model.DisbursementResult;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface CardDao {
     Card create(Card card);
+    int createBatch(List<Card> cards);
     Optional<Card> findById(Integer cardId);
     Optional<Card> findByPan(String pan);
     List<Card> findByNameAndSurname(String name, String surname);
     List<Card> findAll();
+    void forEachCard(Consumer<Card> action);
+    void forEachCardInPanRange(String fromPan, String toPan, Consumer<Card> action);
+    List<Card> findByIdRange(int fromCardId, int toCardId);
+    int findMaxCardId();
     boolean update(Card card);
+    int updateBatch(List<Card> cards);
+    int accrueInterest(Map<String, Double> interestByPan, String period);
+    int renewCards(List<Card> cards);
     boolean deleteById(Integer cardId);
     boolean deleteByPan(String pan);
     boolean existsByPan(String pan);
     boolean transferMoney(String fromPan, String toPan, Double amount);
+    boolean transferMoneyWithConversion(String fromPan, String toPan, Double amount, FxRateSnapshot rates);
     boolean transferMoneyByName(String fromName, String fromSurname, 
                                 String toName, String toSurname, Double amount);
+    DisbursementResult disburse(String sourcePan, List<Disbursement> disbursements, boolean allOrNothing);
     boolean withdrawMoney(String pan, String cvv, Double amount);
     boolean depositMoney(String pan, Double amount);
     boolean depositMoneyByName(String name, String surname, Double amount);
+    boolean enableBalanceSharding(String pan, int shards);
+    boolean disableBalanceSharding(String pan);
 }
 
@@ -0,0 +1,8 @@
+package org.example.dao;
+
+import org.example.outbox.CardEventSink;
+
+public interface CardEventOutbox {
+    int drain(int batchSize, CardEventSink sink) throws Exception;
+    long pending();
+}
@@ -1,15 +1,19 @@
 package org.example.dao;
 
 import org.example.model.CardUser;
+import org.example.model.HolderWithCards;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface CardUserDao {
     CardUser create(CardUser cardUser);
     Optional<CardUser> findByIin(String iin);
     Optional<CardUser> findByNameAndSurname(String name, String surname);
+    Optional<HolderWithCards> findHolderWithCards(String iin);
     List<CardUser> findAll();
+    void forEachCardUser(Consumer<CardUser> action);
     boolean update(CardUser cardUser);
     boolean deleteByIin(String iin);
     boolean existsByIin(String iin);
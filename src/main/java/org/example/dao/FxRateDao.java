@@ -0,0 +1,8 @@
+package org.example.dao;
+
+import java.util.Map;
+
+public interface FxRateDao {
+    Map<String, Double> findAllRates();
+    boolean saveRate(String currency, Double rateToBase);
+}
@@ -0,0 +1,5 @@
+package org.example.dao;
+
+public interface PanSequenceDao {
+    long reserveBlock(String bin, int blockSize);
+}
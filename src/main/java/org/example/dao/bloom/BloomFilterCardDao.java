@@ -0,0 +1,301 @@
+package org.example.dao.bloom;
+
+import org.example.dao.CardDao;
+import org.example.fx.FxRateSnapshot;
+import org.example.index.PanBloomFilter;
+import org.example.model.Card;
+import org.example.model.Disbursement;
+import org.example.model.DisbursementResult;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+public class BloomFilterCardDao implements CardDao {
+
+    private static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+    private static final int LOOKUP_CHUNK = 1000;
+
+    private final CardDao delegate;
+    private final long expectedPans;
+    private final double falsePositiveRate;
+    private final LongAdder definiteNegatives = new LongAdder();
+    private final LongAdder possiblePositives = new LongAdder();
+    private final LongAdder staleEntries = new LongAdder();
+    private final Map<String, Integer> inFlightWrites = new ConcurrentHashMap<>();
+
+    private volatile PanBloomFilter filter;
+    private volatile PanBloomFilter rebuilding;
+
+    public BloomFilterCardDao(CardDao delegate, long expectedPans) {
+        this(delegate, expectedPans, DEFAULT_FALSE_POSITIVE_RATE);
+    }
+
+    public BloomFilterCardDao(CardDao delegate, long expectedPans, double falsePositiveRate) {
+        this.delegate = delegate;
+        this.expectedPans = expectedPans;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    public synchronized void rebuild() {
+        PanBloomFilter fresh = new PanBloomFilter(expectedPans, falsePositiveRate);
+        rebuilding = fresh;
+        try {
+            inFlightWrites.keySet().forEach(fresh::put);
+            delegate.forEachCard(card -> fresh.put(card.getPan()));
+            filter = fresh;
+            staleEntries.reset();
+        } finally {
+            rebuilding = null;
+        }
+    }
+
+    public long getDefiniteNegatives() {
+        return definiteNegatives.sum();
+    }
+
+    public long getPossiblePositives() {
+        return possiblePositives.sum();
+    }
+
+    public long getStaleEntries() {
+        return staleEntries.sum();
+    }
+
+    @Override
+    public Card create(Card card) {
+        Card created = writing(List.of(card.getPan()), () -> delegate.create(card));
+        if (created != null && !created.getPan().equals(card.getPan())) {
+            remember(created.getPan());
+        }
+        return created;
+    }
+
+    @Override
+    public int createBatch(List<Card> cards) {
+        return writing(pansOf(cards), () -> delegate.createBatch(cards));
+    }
+
+    @Override
+    public Optional<Card> findById(Integer cardId) {
+        return delegate.findById(cardId);
+    }
+
+    @Override
+    public Optional<Card> findByPan(String pan) {
+        return delegate.findByPan(pan);
+    }
+
+    @Override
+    public List<Card> findByNameAndSurname(String name, String surname) {
+        return delegate.findByNameAndSurname(name, surname);
+    }
+
+    @Override
+    public List<Card> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public void forEachCard(Consumer<Card> action) {
+        delegate.forEachCard(action);
+    }
+
+    @Override
+    public void forEachCardInPanRange(String fromPan, String toPan, Consumer<Card> action) {
+        delegate.forEachCardInPanRange(fromPan, toPan, action);
+    }
+
+    @Override
+    public List<Card> findByIdRange(int fromCardId, int toCardId) {
+        return delegate.findByIdRange(fromCardId, toCardId);
+    }
+
+    @Override
+    public int findMaxCardId() {
+        return delegate.findMaxCardId();
+    }
+
+    @Override
+    public boolean update(Card card) {
+        String previousPan = card.getCardId() != null
+            ? delegate.findById(card.getCardId()).map(Card::getPan).orElse(null)
+            : null;
+
+        boolean updated = writing(List.of(card.getPan()), () -> delegate.update(card));
+        if (updated && previousPan != null && !previousPan.equals(card.getPan())) {
+            staleEntries.increment();
+        }
+        return updated;
+    }
+
+    @Override
+    public int updateBatch(List<Card> cards) {
+        Map<Integer, String> previousPans = findPans(cards);
+        long changed = cards.stream()
+            .filter(card -> card.getCardId() != null)
+            .filter(card -> {
+                String previousPan = previousPans.get(card.getCardId());
+                return previousPan != null && !previousPan.equals(card.getPan());
+            })
+            .count();
+
+        int updated = writing(pansOf(cards), () -> delegate.updateBatch(cards));
+        if (updated > 0) {
+            staleEntries.add(Math.min(changed, updated));
+        }
+        return updated;
+    }
+
+    @Override
+    public int accrueInterest(Map<String, Double> interestByPan, String period) {
+        return delegate.accrueInterest(interestByPan, period);
+    }
+
+    @Override
+    public int renewCards(List<Card> cards) {
+        return delegate.renewCards(cards);
+    }
+
+    @Override
+    public boolean deleteById(Integer cardId) {
+        boolean deleted = delegate.deleteById(cardId);
+        if (deleted) {
+            staleEntries.increment();
+        }
+        return deleted;
+    }
+
+    @Override
+    public boolean deleteByPan(String pan) {
+        boolean deleted = delegate.deleteByPan(pan);
+        if (deleted) {
+            staleEntries.increment();
+        }
+        return deleted;
+    }
+
+    @Override
+    public boolean existsByPan(String pan) {
+        if (isDefinitelyAbsent(pan)) {
+            return false;
+        }
+        return delegate.existsByPan(pan);
+    }
+
+    @Override
+    public boolean transferMoney(String fromPan, String toPan, Double amount) {
+        return delegate.transferMoney(fromPan, toPan, amount);
+    }
+
+    @Override
+    public boolean transferMoneyWithConversion(String fromPan, String toPan, Double amount, FxRateSnapshot rates) {
+        return delegate.transferMoneyWithConversion(fromPan, toPan, amount, rates);
+    }
+
+    @Override
+    public boolean transferMoneyByName(String fromName, String fromSurname,
+                                       String toName, String toSurname, Double amount) {
+        return delegate.transferMoneyByName(fromName, fromSurname, toName, toSurname, amount);
+    }
+
+    @Override
+    public DisbursementResult disburse(String sourcePan, List<Disbursement> disbursements, boolean allOrNothing) {
+        return delegate.disburse(sourcePan, disbursements, allOrNothing);
+    }
+
+    @Override
+    public boolean withdrawMoney(String pan, String cvv, Double amount) {
+        return delegate.withdrawMoney(pan, cvv, amount);
+    }
+
+    @Override
+    public boolean depositMoney(String pan, Double amount) {
+        return delegate.depositMoney(pan, amount);
+    }
+
+    @Override
+    public boolean depositMoneyByName(String name, String surname, Double amount) {
+        return delegate.depositMoneyByName(name, surname, amount);
+    }
+
+    @Override
+    public boolean enableBalanceSharding(String pan, int shards) {
+        return delegate.enableBalanceSharding(pan, shards);
+    }
+
+    @Override
+    public boolean disableBalanceSharding(String pan) {
+        return delegate.disableBalanceSharding(pan);
+    }
+
+    private <T> T writing(List<String> pans, Supplier<T> write) {
+        pans.forEach(pan -> inFlightWrites.merge(pan, 1, Integer::sum));
+        try {
+            pans.forEach(this::remember);
+            return write.get();
+        } finally {
+            pans.forEach(pan -> inFlightWrites.computeIfPresent(pan, (key, count) -> count == 1 ? null : count - 1));
+        }
+    }
+
+    private static List<String> pansOf(List<Card> cards) {
+        return cards.stream().map(Card::getPan).toList();
+    }
+
+    private Map<Integer, String> findPans(List<Card> cards) {
+        int[] ids = cards.stream()
+            .map(Card::getCardId)
+            .filter(Objects::nonNull)
+            .mapToInt(Integer::intValue)
+            .sorted()
+            .toArray();
+        Map<Integer, String> pans = new HashMap<>();
+        int i = 0;
+        while (i < ids.length) {
+            int from = ids[i];
+            int to = (int) Math.min((long) from + LOOKUP_CHUNK, Integer.MAX_VALUE);
+            for (Card card : delegate.findByIdRange(from, to)) {
+                pans.put(card.getCardId(), card.getPan());
+            }
+            while (i < ids.length && ids[i] < to) {
+                i++;
+            }
+        }
+        return pans;
+    }
+
+    private boolean isDefinitelyAbsent(String pan) {
+        PanBloomFilter current = filter;
+        if (current == null) {
+            return false;
+        }
+        if (current.mightContain(pan)) {
+            possiblePositives.increment();
+            return false;
+        }
+        definiteNegatives.increment();
+        return true;
+    }
+
+    private void remember(String pan) {
+        PanBloomFilter current = filter;
+        if (current != null) {
+            current.put(pan);
+        }
+        PanBloomFilter pending = rebuilding;
+        if (pending != null) {
+            pending.put(pan);
+        }
+        PanBloomFilter latest = filter;
+        if (latest != null && latest != current) {
+            latest.put(pan);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package org.example.dao.bulkhead;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+public class Bulkhead {
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final long maxWaitNanos;
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxObservedWaitNanos = new AtomicLong();
+
+    public Bulkhead(String name, int maxConcurrent, int maxQueue, Duration maxWait) {
+        if (maxConcurrent <= 0 || maxQueue < 0) {
+            throw new IllegalArgumentException("Invalid bulkhead limits for " + name);
+        }
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueue = maxQueue;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    public <T> T execute(Supplier<T> operation) {
+        acquire();
+        try {
+            return operation.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    public void run(Runnable operation) {
+        execute(() -> {
+            operation.run();
+            return null;
+        });
+    }
+
+    private void acquire() {
+        if (permits.tryAcquire()) {
+            accepted.increment();
+            return;
+        }
+
+        if (waiting.incrementAndGet() > maxQueue) {
+            waiting.decrementAndGet();
+            rejected.increment();
+            throw new BulkheadFullException("Bulkhead '" + name + "' is saturated");
+        }
+
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejected.increment();
+            throw new BulkheadFullException("Interrupted while waiting for bulkhead '" + name + "'");
+        } finally {
+            waiting.decrementAndGet();
+            recordWait(System.nanoTime() - start);
+        }
+
+        if (!acquired) {
+            timedOut.increment();
+            throw new BulkheadFullException("Timed out waiting for bulkhead '" + name + "'");
+        }
+        accepted.increment();
+    }
+
+    private void recordWait(long nanos) {
+        totalWaitNanos.add(nanos);
+        maxObservedWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getActiveCount() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public int getQueueDepth() {
+        return waiting.get();
+    }
+
+    public long getAcceptedCount() {
+        return accepted.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getTimedOutCount() {
+        return timedOut.sum();
+    }
+
+    public long getTotalWaitNanos() {
+        return totalWaitNanos.sum();
+    }
+
+    public long getMaxWaitNanos() {
+        return maxObservedWaitNanos.get();
+    }
+
+    @Override
+    public String toString() {
+        return "Bulkhead{" +
+                "name='" + name + '\'' +
+                ", active=" + getActiveCount() +
+                ", queueDepth=" + getQueueDepth() +
+                ", accepted=" + getAcceptedCount() +
+                ", rejected=" + getRejectedCount() +
+                ", timedOut=" + getTimedOutCount() +
+                ", totalWaitNanos=" + getTotalWaitNanos() +
+                ", maxWaitNanos=" + getMaxWaitNanos() +
+                '}';
+    }
+}
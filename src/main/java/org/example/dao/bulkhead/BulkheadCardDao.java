@@ -0,0 +1,164 @@
+package org.example.dao.bulkhead;
+
+import org.example.dao.CardDao;
+import org.example.fx.FxRateSnapshot;
+import org.example.model.Card;
+import org.example.model.Disbursement;
+import org.example.model.DisbursementResult;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public class BulkheadCardDao implements CardDao {
+
+    private final CardDao delegate;
+    private final Bulkhead reads;
+    private final Bulkhead money;
+
+    public BulkheadCardDao(CardDao delegate, Bulkhead reads, Bulkhead money) {
+        this.delegate = delegate;
+        this.reads = reads;
+        this.money = money;
+    }
+
+    public Bulkhead getReads() {
+        return reads;
+    }
+
+    public Bulkhead getMoney() {
+        return money;
+    }
+
+    @Override
+    public Card create(Card card) {
+        return money.execute(() -> delegate.create(card));
+    }
+
+    @Override
+    public int createBatch(List<Card> cards) {
+        return money.execute(() -> delegate.createBatch(cards));
+    }
+
+    @Override
+    public Optional<Card> findById(Integer cardId) {
+        return reads.execute(() -> delegate.findById(cardId));
+    }
+
+    @Override
+    public Optional<Card> findByPan(String pan) {
+        return reads.execute(() -> delegate.findByPan(pan));
+    }
+
+    @Override
+    public List<Card> findByNameAndSurname(String name, String surname) {
+        return reads.execute(() -> delegate.findByNameAndSurname(name, surname));
+    }
+
+    @Override
+    public List<Card> findAll() {
+        return reads.execute(delegate::findAll);
+    }
+
+    @Override
+    public void forEachCard(Consumer<Card> action) {
+        reads.run(() -> delegate.forEachCard(action));
+    }
+
+    @Override
+    public void forEachCardInPanRange(String fromPan, String toPan, Consumer<Card> action) {
+        reads.run(() -> delegate.forEachCardInPanRange(fromPan, toPan, action));
+    }
+
+    @Override
+    public List<Card> findByIdRange(int fromCardId, int toCardId) {
+        return reads.execute(() -> delegate.findByIdRange(fromCardId, toCardId));
+    }
+
+    @Override
+    public int findMaxCardId() {
+        return reads.execute(delegate::findMaxCardId);
+    }
+
+    @Override
+    public boolean update(Card card) {
+        return money.execute(() -> delegate.update(card));
+    }
+
+    @Override
+    public int updateBatch(List<Card> cards) {
+        return money.execute(() -> delegate.updateBatch(cards));
+    }
+
+    @Override
+    public int accrueInterest(Map<String, Double> interestByPan, String period) {
+        return money.execute(() -> delegate.accrueInterest(interestByPan, period));
+    }
+
+    @Override
+    public int renewCards(List<Card> cards) {
+        return money.execute(() -> delegate.renewCards(cards));
+    }
+
+    @Override
+    public boolean deleteById(Integer cardId) {
+        return money.execute(() -> delegate.deleteById(cardId));
+    }
+
+    @Override
+    public boolean deleteByPan(String pan) {
+        return money.execute(() -> delegate.deleteByPan(pan));
+    }
+
+    @Override
+    public boolean existsByPan(String pan) {
+        return reads.execute(() -> delegate.existsByPan(pan));
+    }
+
+    @Override
+    public boolean transferMoney(String fromPan, String toPan, Double amount) {
+        return money.execute(() -> delegate.transferMoney(fromPan, toPan, amount));
+    }
+
+    @Override
+    public boolean transferMoneyWithConversion(String fromPan, String toPan, Double amount, FxRateSnapshot rates) {
+        return money.execute(() -> delegate.transferMoneyWithConversion(fromPan, toPan, amount, rates));
+    }
+
+    @Override
+    public boolean transferMoneyByName(String fromName, String fromSurname,
+                                       String toName, String toSurname, Double amount) {
+        return money.execute(() -> delegate.transferMoneyByName(fromName, fromSurname, toName, toSurname, amount));
+    }
+
+    @Override
+    public DisbursementResult disburse(String sourcePan, List<Disbursement> disbursements, boolean allOrNothing) {
+        return money.execute(() -> delegate.disburse(sourcePan, disbursements, allOrNothing));
+    }
+
+    @Override
+    public boolean withdrawMoney(String pan, String cvv, Double amount) {
+        return money.execute(() -> delegate.withdrawMoney(pan, cvv, amount));
+    }
+
+    @Override
+    public boolean depositMoney(String pan, Double amount) {
+        return money.execute(() -> delegate.depositMoney(pan, amount));
+    }
+
+    @Override
+    public boolean depositMoneyByName(String name, String surname, Double amount) {
+        return money.execute(() -> delegate.depositMoneyByName(name, surname, amount));
+    }
+
+    @Override
+    public boolean enableBalanceSharding(String pan, int shards) {
+        return money.execute(() -> delegate.enableBalanceSharding(pan, shards));
+    }
+
+    @Override
+    public boolean disableBalanceSharding(String pan) {
+        return money.execute(() -> delegate.disableBalanceSharding(pan));
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.dao.bulkhead;
+
+import org.example.dao.CardUserDao;
+import org.example.model.CardUser;
+import org.example.model.HolderWithCards;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public class BulkheadCardUserDao implements CardUserDao {
+
+    private final CardUserDao delegate;
+    private final Bulkhead reads;
+    private final Bulkhead writes;
+
+    public BulkheadCardUserDao(CardUserDao delegate, Bulkhead reads, Bulkhead writes) {
+        this.delegate = delegate;
+        this.reads = reads;
+        this.writes = writes;
+    }
+
+    public Bulkhead getReads() {
+        return reads;
+    }
+
+    public Bulkhead getWrites() {
+        return writes;
+    }
+
+    @Override
+    public CardUser create(CardUser cardUser) {
+        return writes.execute(() -> delegate.create(cardUser));
+    }
+
+    @Override
+    public Optional<CardUser> findByIin(String iin) {
+        return reads.execute(() -> delegate.findByIin(iin));
+    }
+
+    @Override
+    public Optional<CardUser> findByNameAndSurname(String name, String surname) {
+        return reads.execute(() -> delegate.findByNameAndSurname(name, surname));
+    }
+
+    @Override
+    public Optional<HolderWithCards> findHolderWithCards(String iin) {
+        return reads.execute(() -> delegate.findHolderWithCards(iin));
+    }
+
+    @Override
+    public List<CardUser> findAll() {
+        return reads.execute(delegate::findAll);
+    }
+
+    @Override
+    public void forEachCardUser(Consumer<CardUser> action) {
+        reads.run(() -> delegate.forEachCardUser(action));
+    }
+
+    @Override
+    public boolean update(CardUser cardUser) {
+        return writes.execute(() -> delegate.update(cardUser));
+    }
+
+    @Override
+    public boolean deleteByIin(String iin) {
+        return writes.execute(() -> delegate.deleteByIin(iin));
+    }
+
+    @Override
+    public boolean existsByIin(String iin) {
+        return reads.execute(() -> delegate.existsByIin(iin));
+    }
+}
@@ -0,0 +1,8 @@
+package org.example.dao.bulkhead;
+
+public class BulkheadFullException extends RuntimeException {
+
+    public BulkheadFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,404 @@
+package org.example.dao.indexed;
+
+import org.example.dao.CardDao;
+import org.example.fx.FxRateSnapshot;
+import org.example.index.OffHeapCardIndex;
+import org.example.model.Card;
+import org.example.model.Disbursement;
+import org.example.model.DisbursementResult;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+public class IndexedCardDao implements CardDao, AutoCloseable {
+
+    private static final int CATCH_UP_CHUNK = 1000;
+    private static final int STRIPES = 4096;
+    private static final Duration DEFAULT_MAX_STALENESS = Duration.ofMinutes(5);
+
+    private final CardDao delegate;
+    private final OffHeapCardIndex index;
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLongArray lastWrite = new AtomicLongArray(STRIPES);
+    private final Object[] stripeLocks = new Object[STRIPES];
+
+    private ScheduledExecutorService snapshots;
+    private Path snapshotPath;
+
+    public IndexedCardDao(CardDao delegate, OffHeapCardIndex index) {
+        this.delegate = delegate;
+        this.index = index;
+        for (int i = 0; i < STRIPES; i++) {
+            stripeLocks[i] = new Object();
+        }
+    }
+
+    public void load() {
+        long seen = writes.get();
+        index.clear();
+        delegate.forEachCard(card -> fill(card, seen, index::put));
+    }
+
+    public boolean loadSnapshot(Path snapshot) {
+        return loadSnapshot(snapshot, DEFAULT_MAX_STALENESS);
+    }
+
+    public boolean loadSnapshot(Path snapshot, Duration maxStaleness) {
+        if (!Files.exists(snapshot)) {
+            return false;
+        }
+
+        int marker;
+        try {
+            marker = index.restore(snapshot, maxStaleness);
+        } catch (IOException e) {
+            System.err.println("Error loading card index snapshot: " + e.getMessage());
+            return false;
+        }
+
+        int maxCardId = delegate.findMaxCardId();
+        for (long from = (long) marker + 1; from <= maxCardId; from += CATCH_UP_CHUNK) {
+            int to = (int) Math.min(from + CATCH_UP_CHUNK, (long) maxCardId + 1);
+            long seen = writes.get();
+            delegate.findByIdRange((int) from, to).forEach(card -> fill(card, seen));
+        }
+        return true;
+    }
+
+    public void saveSnapshot(Path snapshot) throws IOException {
+        int marker = delegate.findMaxCardId();
+        index.writeSnapshot(snapshot, marker);
+    }
+
+    public int reload() {
+        long seen = writes.get();
+        return index.reload(sink -> delegate.forEachCard(card -> fill(card, seen, sink)));
+    }
+
+    public synchronized void startSnapshots(Path snapshot, Duration interval) {
+        if (snapshots != null) {
+            return;
+        }
+        snapshotPath = snapshot;
+        snapshots = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("card-index-snapshot").daemon().factory());
+        snapshots.execute(() -> {
+            try {
+                reload();
+            } catch (RuntimeException e) {
+                System.err.println("Error reloading card index: " + e.getMessage());
+            }
+        });
+        snapshots.scheduleWithFixedDelay(() -> {
+            try {
+                saveSnapshot(snapshot);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Error writing card index snapshot: " + e.getMessage());
+            }
+        }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() throws InterruptedException {
+        if (snapshots != null) {
+            snapshots.shutdownNow();
+            snapshots.awaitTermination(30, TimeUnit.SECONDS);
+            snapshots = null;
+            try {
+                saveSnapshot(snapshotPath);
+            } catch (IOException e) {
+                System.err.println("Error writing card index snapshot: " + e.getMessage());
+            }
+        }
+    }
+
+    public OffHeapCardIndex getIndex() {
+        return index;
+    }
+
+    @Override
+    public Card create(Card card) {
+        long seen = writes.get();
+        Card created = delegate.create(card);
+        if (created != null) {
+            fill(created, seen);
+        }
+        return created;
+    }
+
+    @Override
+    public int createBatch(List<Card> cards) {
+        long seen = writes.get();
+        int created = delegate.createBatch(cards);
+        if (created == cards.size()) {
+            cards.forEach(card -> fill(card, seen));
+        }
+        return created;
+    }
+
+    @Override
+    public Optional<Card> findById(Integer cardId) {
+        long seen = writes.get();
+        Optional<Card> card = delegate.findById(cardId);
+        card.ifPresent(c -> fill(c, seen));
+        return card;
+    }
+
+    @Override
+    public Optional<Card> findByPan(String pan) {
+        Card cached = index.get(pan);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        long seen = writes.get();
+        Optional<Card> card = delegate.findByPan(pan);
+        card.ifPresent(c -> fill(c, seen));
+        return card;
+    }
+
+    @Override
+    public List<Card> findByNameAndSurname(String name, String surname) {
+        long seen = writes.get();
+        List<Card> cards = delegate.findByNameAndSurname(name, surname);
+        cards.forEach(card -> fill(card, seen));
+        return cards;
+    }
+
+    @Override
+    public List<Card> findAll() {
+        long seen = writes.get();
+        List<Card> cards = delegate.findAll();
+        cards.forEach(card -> fill(card, seen));
+        return cards;
+    }
+
+    @Override
+    public void forEachCard(Consumer<Card> action) {
+        delegate.forEachCard(action);
+    }
+
+    @Override
+    public void forEachCardInPanRange(String fromPan, String toPan, Consumer<Card> action) {
+        delegate.forEachCardInPanRange(fromPan, toPan, action);
+    }
+
+    @Override
+    public List<Card> findByIdRange(int fromCardId, int toCardId) {
+        return delegate.findByIdRange(fromCardId, toCardId);
+    }
+
+    @Override
+    public int findMaxCardId() {
+        return delegate.findMaxCardId();
+    }
+
+    @Override
+    public boolean update(Card card) {
+        String previousPan = card.getCardId() != null
+            ? delegate.findById(card.getCardId()).map(Card::getPan).orElse(null)
+            : null;
+
+        boolean updated = delegate.update(card);
+        if (updated) {
+            if (previousPan != null && !previousPan.equals(card.getPan())) {
+                invalidate(previousPan);
+            }
+            invalidate(card.getPan());
+        }
+        return updated;
+    }
+
+    @Override
+    public int updateBatch(List<Card> cards) {
+        Map<Integer, String> previousPans = findPans(cards);
+
+        int updated = delegate.updateBatch(cards);
+        previousPans.values().forEach(this::invalidate);
+        cards.forEach(card -> invalidate(card.getPan()));
+        return updated;
+    }
+
+    @Override
+    public int accrueInterest(Map<String, Double> interestByPan, String period) {
+        int credited = delegate.accrueInterest(interestByPan, period);
+        interestByPan.keySet().forEach(this::invalidate);
+        return credited;
+    }
+
+    @Override
+    public int renewCards(List<Card> cards) {
+        int renewed = delegate.renewCards(cards);
+        cards.forEach(card -> invalidate(card.getPan()));
+        return renewed;
+    }
+
+    @Override
+    public boolean deleteById(Integer cardId) {
+        Optional<Card> card = delegate.findById(cardId);
+        boolean deleted = delegate.deleteById(cardId);
+        if (deleted) {
+            card.ifPresent(c -> invalidate(c.getPan()));
+        }
+        return deleted;
+    }
+
+    @Override
+    public boolean deleteByPan(String pan) {
+        boolean deleted = delegate.deleteByPan(pan);
+        if (deleted) {
+            invalidate(pan);
+        }
+        return deleted;
+    }
+
+    @Override
+    public boolean existsByPan(String pan) {
+        return index.contains(pan) || delegate.existsByPan(pan);
+    }
+
+    @Override
+    public boolean transferMoney(String fromPan, String toPan, Double amount) {
+        boolean transferred = delegate.transferMoney(fromPan, toPan, amount);
+        if (transferred) {
+            invalidate(fromPan);
+            invalidate(toPan);
+        }
+        return transferred;
+    }
+
+    @Override
+    public boolean transferMoneyWithConversion(String fromPan, String toPan, Double amount, FxRateSnapshot rates) {
+        boolean transferred = delegate.transferMoneyWithConversion(fromPan, toPan, amount, rates);
+        if (transferred) {
+            invalidate(fromPan);
+            invalidate(toPan);
+        }
+        return transferred;
+    }
+
+    @Override
+    public boolean transferMoneyByName(String fromName, String fromSurname,
+                                       String toName, String toSurname, Double amount) {
+        List<Card> fromCards = findByNameAndSurname(fromName, fromSurname);
+        List<Card> toCards = findByNameAndSurname(toName, toSurname);
+
+        if (fromCards.isEmpty() || toCards.isEmpty()) {
+            return false;
+        }
+
+        return transferMoney(fromCards.get(0).getPan(), toCards.get(0).getPan(), amount);
+    }
+
+    @Override
+    public DisbursementResult disburse(String sourcePan, List<Disbursement> disbursements, boolean allOrNothing) {
+        DisbursementResult result = delegate.disburse(sourcePan, disbursements, allOrNothing);
+        if (result.countWithStatus(DisbursementResult.Status.CREDITED) > 0) {
+            invalidate(sourcePan);
+            for (DisbursementResult.Entry entry : result.getEntries()) {
+                if (entry.getStatus() == DisbursementResult.Status.CREDITED) {
+                    invalidate(entry.getDisbursement().getDestinationPan());
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean withdrawMoney(String pan, String cvv, Double amount) {
+        boolean withdrawn = delegate.withdrawMoney(pan, cvv, amount);
+        if (withdrawn) {
+            invalidate(pan);
+        }
+        return withdrawn;
+    }
+
+    @Override
+    public boolean depositMoney(String pan, Double amount) {
+        boolean deposited = delegate.depositMoney(pan, amount);
+        if (deposited) {
+            invalidate(pan);
+        }
+        return deposited;
+    }
+
+    @Override
+    public boolean depositMoneyByName(String name, String surname, Double amount) {
+        List<Card> cards = findByNameAndSurname(name, surname);
+        if (cards.isEmpty()) {
+            return false;
+        }
+        return depositMoney(cards.get(0).getPan(), amount);
+    }
+
+    @Override
+    public boolean enableBalanceSharding(String pan, int shards) {
+        return delegate.enableBalanceSharding(pan, shards);
+    }
+
+    @Override
+    public boolean disableBalanceSharding(String pan) {
+        return delegate.disableBalanceSharding(pan);
+    }
+
+    private Map<Integer, String> findPans(List<Card> cards) {
+        int[] ids = cards.stream()
+            .map(Card::getCardId)
+            .filter(Objects::nonNull)
+            .mapToInt(Integer::intValue)
+            .sorted()
+            .toArray();
+        Map<Integer, String> pans = new HashMap<>();
+        int i = 0;
+        while (i < ids.length) {
+            int from = ids[i];
+            int to = (int) Math.min((long) from + CATCH_UP_CHUNK, Integer.MAX_VALUE);
+            for (Card card : delegate.findByIdRange(from, to)) {
+                pans.put(card.getCardId(), card.getPan());
+            }
+            while (i < ids.length && ids[i] < to) {
+                i++;
+            }
+        }
+        return pans;
+    }
+
+    private void fill(Card card, long seen) {
+        fill(card, seen, index::put);
+    }
+
+    private void fill(Card card, long seen, Consumer<Card> sink) {
+        int stripe = stripeOf(card.getPan());
+        synchronized (stripeLocks[stripe]) {
+            if (lastWrite.get(stripe) <= seen) {
+                sink.accept(card);
+            }
+        }
+    }
+
+    private void invalidate(String pan) {
+        int stripe = stripeOf(pan);
+        synchronized (stripeLocks[stripe]) {
+            lastWrite.set(stripe, writes.incrementAndGet());
+            index.remove(pan);
+        }
+    }
+
+    private static int stripeOf(String pan) {
+        int hash = pan != null ? pan.hashCode() : 0;
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+}
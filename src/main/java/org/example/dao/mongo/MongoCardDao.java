@@ -1,55 +1,111 @@
 package org.example.dao.mongo;
 
+import com.mongodb.client.ClientSession;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.BulkWriteOptions;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
 import com.mongodb.client.model.Updates;
 import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.example.dao.mongo.codec.MongoCodecs;
+import org.example.dao.mongo.codec.ShardedCard;
 import org.example.database.MongoConnection;
+import org.example.fx.FxRateSnapshot;
 import org.example.model.Card;
+import org.example.model.CardEvent;
+import org.example.model.Disbursement;
+import org.example.model.DisbursementResult;
 import org.example.dao.CardDao;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 public class MongoCardDao implements CardDao {
     
+    private static final int STREAM_BATCH_SIZE = 1000;
+    private static final int BATCH_SIZE = 1000;
+    private static final MongoCardIdAllocator ID_ALLOCATOR = MongoCardIdAllocator.getInstance();
+    
     private MongoCollection<Document> getCollection() {
         MongoDatabase database = MongoConnection.getDatabase();
         return database.getCollection("cards");
     }
+    
+    private MongoCollection<Card> getCardCollection() {
+        return getCollection().withDocumentClass(Card.class).withCodecRegistry(MongoCodecs.REGISTRY);
+    }
+    
+    private MongoCollection<Document> getShardCollection() {
+        MongoDatabase database = MongoConnection.getDatabase();
+        return database.getCollection("card_balance_shards");
+    }
+    
+    private MongoCollection<Document> getEventCollection() {
+        MongoDatabase database = MongoConnection.getDatabase();
+        return database.getCollection("card_events");
+    }
+
+    public int assignMissingCardIds() {
+        int assigned = 0;
+        for (Document doc : getCollection().find(Filters.exists("cardId", false))
+                .projection(Projections.include("_id"))) {
+            getCollection().updateOne(
+                Filters.and(Filters.eq("_id", doc.get("_id")), Filters.exists("cardId", false)),
+                Updates.set("cardId", ID_ALLOCATOR.nextId())
+            );
+            assigned++;
+        }
+        return assigned;
+    }
 
     @Override
     public Card create(Card card) {
-        Document doc = new Document()
-            .append("pan", card.getPan())
-            .append("cvv", card.getCvv())
-            .append("dateOfExpire", card.getDateOfExpire())
-            .append("name", card.getName())
-            .append("surname", card.getSurname())
-            .append("currency", card.getCurrency())
-            .append("balance", card.getBalance());
-        
-        getCollection().insertOne(doc);
-        
-        if (doc.getObjectId("_id") != null) {
-            card.setCardId(doc.getObjectId("_id").hashCode());
+        card.setCardId(ID_ALLOCATOR.nextId());
+        getCardCollection().insertOne(card);
+        return card;
+    }
+
+    @Override
+    public int createBatch(List<Card> cards) {
+        if (cards.isEmpty()) {
+            return 0;
+        }
+        int[] cardIds = ID_ALLOCATOR.nextIds(cards.size());
+        for (int i = 0; i < cards.size(); i++) {
+            cards.get(i).setCardId(cardIds[i]);
         }
         
-        return card;
+        getCardCollection().insertMany(cards);
+        return cards.size();
     }
 
     @Override
     public Optional<Card> findById(Integer cardId) {
+        Card card = getCardCollection().find(Filters.eq("cardId", cardId)).first();
+        if (card != null) {
+            return Optional.of(withShardBalance(card));
+        }
         return Optional.empty();
     }
 
     @Override
     public Optional<Card> findByPan(String pan) {
-        Document doc = getCollection().find(Filters.eq("pan", pan)).first();
-        if (doc != null) {
-            return Optional.of(mapDocumentToCard(doc));
+        Card card = getCardCollection().find(Filters.eq("pan", pan)).first();
+        if (card != null) {
+            return Optional.of(withShardBalance(card));
         }
         return Optional.empty();
     }
@@ -57,13 +113,13 @@ public class MongoCardDao implements CardDao {
     @Override
     public List<Card> findByNameAndSurname(String name, String surname) {
         List<Card> cards = new ArrayList<>();
-        for (Document doc : getCollection().find(
+        for (Card card : getCardCollection().find(
             Filters.and(
                 Filters.eq("name", name),
                 Filters.eq("surname", surname)
             )
         )) {
-            cards.add(mapDocumentToCard(doc));
+            cards.add(withShardBalance(card));
         }
         return cards;
     }
@@ -71,35 +127,177 @@ public class MongoCardDao implements CardDao {
     @Override
     public List<Card> findAll() {
         List<Card> cards = new ArrayList<>();
-        for (Document doc : getCollection().find()) {
-            cards.add(mapDocumentToCard(doc));
+        for (Card card : getCardCollection().find()) {
+            cards.add(withShardBalance(card));
+        }
+        return cards;
+    }
+
+    @Override
+    public void forEachCard(Consumer<Card> action) {
+        for (Card card : getCardCollection().find().batchSize(STREAM_BATCH_SIZE)) {
+            action.accept(withShardBalance(card));
+        }
+    }
+
+    @Override
+    public void forEachCardInPanRange(String fromPan, String toPan, Consumer<Card> action) {
+        List<Bson> filters = new ArrayList<>(2);
+        if (fromPan != null) {
+            filters.add(Filters.gte("pan", fromPan));
+        }
+        if (toPan != null) {
+            filters.add(Filters.lt("pan", toPan));
+        }
+        Bson filter = filters.isEmpty() ? Filters.empty() : Filters.and(filters);
+        
+        for (Card card : getCardCollection().find(filter).sort(Sorts.ascending("pan")).batchSize(STREAM_BATCH_SIZE)) {
+            action.accept(withShardBalance(card));
+        }
+    }
+
+    @Override
+    public List<Card> findByIdRange(int fromCardId, int toCardId) {
+        List<Card> cards = new ArrayList<>();
+        for (Card card : getCardCollection().find(
+            Filters.and(
+                Filters.gte("cardId", fromCardId),
+                Filters.lt("cardId", toCardId)
+            )
+        ).sort(Sorts.ascending("cardId")).batchSize(STREAM_BATCH_SIZE)) {
+            cards.add(withShardBalance(card));
         }
         return cards;
     }
 
+    @Override
+    public int findMaxCardId() {
+        Document doc = getCollection().find(Filters.exists("cardId"))
+            .sort(Sorts.descending("cardId"))
+            .projection(Projections.include("cardId"))
+            .first();
+        return doc == null ? 0 : doc.getInteger("cardId");
+    }
+
     @Override
     public boolean update(Card card) {
-        return getCollection().updateOne(
+        return inTransaction(session -> getCollection().updateOne(
+            session,
             Filters.eq("pan", card.getPan()),
-            Updates.combine(
-                Updates.set("cvv", card.getCvv()),
-                Updates.set("dateOfExpire", card.getDateOfExpire()),
-                Updates.set("name", card.getName()),
-                Updates.set("surname", card.getSurname()),
-                Updates.set("currency", card.getCurrency()),
-                Updates.set("balance", card.getBalance())
-            )
-        ).getModifiedCount() > 0;
+            updateOf(card, shardBalance(session, card.getPan()))
+        ).getModifiedCount() > 0);
+    }
+
+    @Override
+    public int updateBatch(List<Card> cards) {
+        if (cards.isEmpty()) {
+            return 0;
+        }
+        List<String> pans = new ArrayList<>(cards.size());
+        for (Card card : cards) {
+            pans.add(card.getPan());
+        }
+        return inTransaction(session -> {
+            Map<String, Double> shardBalances = new HashMap<>();
+            for (Document shardDoc : getShardCollection().find(session, Filters.in("pan", pans))) {
+                shardBalances.merge(shardDoc.getString("pan"), shardDoc.getDouble("balance"), Double::sum);
+            }
+            
+            List<UpdateOneModel<Document>> requests = new ArrayList<>(cards.size());
+            for (Card card : cards) {
+                requests.add(new UpdateOneModel<>(
+                    Filters.eq("pan", card.getPan()),
+                    updateOf(card, shardBalances.getOrDefault(card.getPan(), 0.0))
+                ));
+            }
+            return getCollection().bulkWrite(session, requests, new BulkWriteOptions().ordered(false))
+                .getMatchedCount();
+        });
+    }
+
+    @Override
+    public int accrueInterest(Map<String, Double> interestByPan, String period) {
+        if (interestByPan.isEmpty()) {
+            return 0;
+        }
+        return inTransaction(session -> {
+            Bson notAccrued = Filters.ne("lastAccruedPeriod", period);
+            List<String> due = new ArrayList<>();
+            for (Document doc : getCollection().find(session, Filters.and(
+                    Filters.in("pan", interestByPan.keySet()), notAccrued))
+                    .projection(Projections.include("pan"))) {
+                due.add(doc.getString("pan"));
+            }
+            if (due.isEmpty()) {
+                return 0;
+            }
+            
+            List<UpdateOneModel<Document>> requests = new ArrayList<>(due.size());
+            List<CardEvent> events = new ArrayList<>(due.size());
+            for (String pan : due) {
+                double interest = interestByPan.get(pan);
+                requests.add(new UpdateOneModel<>(
+                    Filters.and(Filters.eq("pan", pan), notAccrued),
+                    Updates.combine(Updates.inc("balance", interest), Updates.set("lastAccruedPeriod", period))
+                ));
+                events.add(CardEvent.credit(pan, interest, CardEvent.Operation.INTEREST));
+            }
+            getCollection().bulkWrite(session, requests, new BulkWriteOptions().ordered(false));
+            recordEvents(session, events);
+            return events.size();
+        });
+    }
+
+    @Override
+    public int renewCards(List<Card> cards) {
+        if (cards.isEmpty()) {
+            return 0;
+        }
+        List<UpdateOneModel<Document>> requests = new ArrayList<>(cards.size());
+        for (Card card : cards) {
+            requests.add(new UpdateOneModel<>(
+                Filters.eq("pan", card.getPan()),
+                Updates.combine(
+                    Updates.set("cvv", card.getCvv()),
+                    Updates.set("dateOfExpire", card.getDateOfExpire())
+                )
+            ));
+        }
+        return getCollection().bulkWrite(requests, new BulkWriteOptions().ordered(false)).getMatchedCount();
+    }
+
+    private Bson updateOf(Card card, double shardBalance) {
+        List<Bson> updates = new ArrayList<>(7);
+        updates.add(Updates.set("cvv", card.getCvv()));
+        updates.add(Updates.set("dateOfExpire", card.getDateOfExpire()));
+        updates.add(Updates.set("name", card.getName()));
+        updates.add(Updates.set("surname", card.getSurname()));
+        updates.add(Updates.set("iin", card.getIin()));
+        updates.add(Updates.set("currency", card.getCurrency()));
+        if (card.getBalance() != null) {
+            updates.add(Updates.set("balance", card.getBalance() - shardBalance));
+        }
+        return Updates.combine(updates);
     }
 
     @Override
     public boolean deleteById(Integer cardId) {
-        return false;
+        Document doc = getCollection().find(Filters.eq("cardId", cardId))
+            .projection(Projections.include("pan"))
+            .first();
+        if (doc == null) {
+            return false;
+        }
+        return deleteByPan(doc.getString("pan"));
     }
 
     @Override
     public boolean deleteByPan(String pan) {
-        return getCollection().deleteOne(Filters.eq("pan", pan)).getDeletedCount() > 0;
+        boolean deleted = getCollection().deleteOne(Filters.eq("pan", pan)).getDeletedCount() > 0;
+        if (deleted) {
+            getShardCollection().deleteMany(Filters.eq("pan", pan));
+        }
+        return deleted;
     }
 
     @Override
@@ -109,38 +307,45 @@ public class MongoCardDao implements CardDao {
 
     @Override
     public boolean transferMoney(String fromPan, String toPan, Double amount) {
-        Optional<Card> fromCardOpt = findByPan(fromPan);
-        Optional<Card> toCardOpt = findByPan(toPan);
-        
-        if (fromCardOpt.isEmpty() || toCardOpt.isEmpty()) {
-            return false;
-        }
-        
-        Card fromCard = fromCardOpt.get();
-        Card toCard = toCardOpt.get();
-        
-        if (fromCard.getBalance() < amount) {
-            return false;
-        }
-        
-        boolean withdrawSuccess = getCollection().updateOne(
-            Filters.and(
-                Filters.eq("pan", fromPan),
-                Filters.gte("balance", amount)
-            ),
-            Updates.inc("balance", -amount)
-        ).getModifiedCount() > 0;
-        
-        if (!withdrawSuccess) {
-            return false;
-        }
-        
-        boolean depositSuccess = getCollection().updateOne(
-            Filters.eq("pan", toPan),
-            Updates.inc("balance", amount)
-        ).getModifiedCount() > 0;
-        
-        return depositSuccess;
+        return inTransaction(session -> {
+            if (!debit(session, fromPan, null, amount) || !credit(session, toPan, amount)) {
+                throw new Rollback(false);
+            }
+            recordEvents(session, List.of(
+                CardEvent.debit(fromPan, amount, CardEvent.Operation.TRANSFER),
+                CardEvent.credit(toPan, amount, CardEvent.Operation.TRANSFER)));
+            return true;
+        });
+    }
+
+    @Override
+    public boolean transferMoneyWithConversion(String fromPan, String toPan, Double amount, FxRateSnapshot rates) {
+        return inTransaction(session -> {
+            String fromCurrency = null;
+            String toCurrency = null;
+            int found = 0;
+            for (Document doc : getCollection().find(session, Filters.in("pan", fromPan, toPan))
+                    .projection(Projections.include("pan", "currency"))) {
+                found++;
+                if (fromPan.equals(doc.getString("pan"))) {
+                    fromCurrency = doc.getString("currency");
+                } else {
+                    toCurrency = doc.getString("currency");
+                }
+            }
+            if (found < 2 || !rates.supports(fromCurrency) || !rates.supports(toCurrency)) {
+                return false;
+            }
+            
+            double converted = rates.convert(amount, fromCurrency, toCurrency);
+            if (!debit(session, fromPan, null, amount) || !credit(session, toPan, converted)) {
+                throw new Rollback(false);
+            }
+            recordEvents(session, List.of(
+                CardEvent.debit(fromPan, amount, CardEvent.Operation.TRANSFER),
+                CardEvent.credit(toPan, converted, CardEvent.Operation.TRANSFER)));
+            return true;
+        });
     }
 
     @Override
@@ -156,24 +361,88 @@ public class MongoCardDao implements CardDao {
         return transferMoney(fromCards.get(0).getPan(), toCards.get(0).getPan(), amount);
     }
 
+    @Override
+    public DisbursementResult disburse(String sourcePan, List<Disbursement> disbursements, boolean allOrNothing) {
+        if (disbursements.isEmpty()) {
+            return new DisbursementResult(sourcePan, disbursements);
+        }
+        
+        return inTransaction(session -> {
+            DisbursementResult result = new DisbursementResult(sourcePan, disbursements);
+            Set<String> pans = new HashSet<>();
+            for (Disbursement disbursement : disbursements) {
+                pans.add(disbursement.getDestinationPan());
+            }
+            Set<String> existing = new HashSet<>();
+            for (Document doc : getCollection().find(session, Filters.in("pan", pans))
+                    .projection(Projections.include("pan"))) {
+                existing.add(doc.getString("pan"));
+            }
+            for (int i = 0; i < result.size(); i++) {
+                if (!existing.contains(disbursements.get(i).getDestinationPan())) {
+                    result.getEntry(i).setStatus(DisbursementResult.Status.DESTINATION_NOT_FOUND);
+                }
+            }
+            
+            double total = result.getPendingAmount();
+            boolean incomplete = result.countWithStatus(DisbursementResult.Status.PENDING) < result.size();
+            if ((incomplete && allOrNothing) || total <= 0) {
+                result.markPending(DisbursementResult.Status.ROLLED_BACK);
+                return result;
+            }
+            
+            if (!debit(session, sourcePan, null, total)) {
+                result.markPending(DisbursementResult.Status.INSUFFICIENT_FUNDS);
+                return result;
+            }
+            
+            List<DisbursementResult.Entry> chunk = new ArrayList<>(BATCH_SIZE);
+            for (DisbursementResult.Entry entry : result.getEntries()) {
+                if (entry.getStatus() != DisbursementResult.Status.PENDING) {
+                    continue;
+                }
+                chunk.add(entry);
+                if (chunk.size() == BATCH_SIZE) {
+                    creditBatch(session, chunk);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                creditBatch(session, chunk);
+            }
+            
+            double refund = total - result.getCreditedAmount();
+            if (refund > 0) {
+                if (allOrNothing) {
+                    result.markUnsettled(DisbursementResult.Status.ROLLED_BACK);
+                    throw new Rollback(result);
+                }
+                credit(session, sourcePan, refund);
+            }
+            recordEvents(session, CardEvent.ofDisbursement(result, total, refund));
+            return result;
+        });
+    }
+
     @Override
     public boolean withdrawMoney(String pan, String cvv, Double amount) {
-        return getCollection().updateOne(
-            Filters.and(
-                Filters.eq("pan", pan),
-                Filters.eq("cvv", cvv),
-                Filters.gte("balance", amount)
-            ),
-            Updates.inc("balance", -amount)
-        ).getModifiedCount() > 0;
+        return inTransaction(session -> {
+            if (!debit(session, pan, cvv, amount)) {
+                throw new Rollback(false);
+            }
+            recordEvents(session, List.of(CardEvent.debit(pan, amount, CardEvent.Operation.WITHDRAWAL)));
+            return true;
+        });
     }
 
     @Override
     public boolean depositMoney(String pan, Double amount) {
-        return getCollection().updateOne(
-            Filters.eq("pan", pan),
-            Updates.inc("balance", amount)
-        ).getModifiedCount() > 0;
+        return inTransaction(session -> {
+            if (!credit(session, pan, amount)) {
+                throw new Rollback(false);
+            }
+            recordEvents(session, List.of(CardEvent.credit(pan, amount, CardEvent.Operation.DEPOSIT)));
+            return true;
+        });
     }
 
     @Override
@@ -185,19 +454,227 @@ public class MongoCardDao implements CardDao {
         return depositMoney(cards.get(0).getPan(), amount);
     }
 
-    private Card mapDocumentToCard(Document doc) {
-        Card card = new Card();
-        if (doc.getObjectId("_id") != null) {
-            card.setCardId(doc.getObjectId("_id").hashCode());
+    @Override
+    public boolean enableBalanceSharding(String pan, int shards) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("Shard count must be positive: " + shards);
+        }
+        return getCollection().updateOne(
+            Filters.eq("pan", pan),
+            Updates.set("balanceShards", shards)
+        ).getMatchedCount() > 0;
+    }
+
+    @Override
+    public boolean disableBalanceSharding(String pan) {
+        return inTransaction(session -> {
+            boolean found = getCollection().updateOne(
+                session,
+                Filters.eq("pan", pan),
+                Updates.set("balanceShards", 0)
+            ).getMatchedCount() > 0;
+            
+            if (found) {
+                consolidate(session, pan);
+                getShardCollection().deleteMany(session, Filters.and(
+                    Filters.eq("pan", pan),
+                    Filters.eq("balance", 0.0)
+                ));
+            }
+            return found;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T inTransaction(Function<ClientSession, T> body) {
+        try (ClientSession session = MongoConnection.getClient().startSession()) {
+            return session.withTransaction(() -> body.apply(session));
+        } catch (Rollback rollback) {
+            return (T) rollback.result;
+        }
+    }
+
+    private void recordEvents(ClientSession session, List<CardEvent> events) {
+        List<Document> docs = new ArrayList<>(events.size());
+        for (CardEvent event : events) {
+            docs.add(new Document("pan", event.getPan())
+                .append("type", event.getType().name())
+                .append("amount", event.getAmount())
+                .append("operation", event.getOperation().name())
+                .append("createdAt", event.getCreatedAt()));
+        }
+        getEventCollection().insertMany(session, docs);
+    }
+
+    private void creditBatch(ClientSession session, List<DisbursementResult.Entry> chunk) {
+        List<UpdateOneModel<Document>> requests = new ArrayList<>(chunk.size());
+        for (DisbursementResult.Entry entry : chunk) {
+            requests.add(new UpdateOneModel<>(
+                Filters.eq("pan", entry.getDisbursement().getDestinationPan()),
+                Updates.inc("balance", entry.getDisbursement().getAmount())
+            ));
+        }
+        
+        int matched = getCollection().bulkWrite(session, requests, new BulkWriteOptions().ordered(false))
+            .getMatchedCount();
+        Set<String> credited = null;
+        if (matched < chunk.size()) {
+            Set<String> pans = new HashSet<>();
+            for (DisbursementResult.Entry entry : chunk) {
+                pans.add(entry.getDisbursement().getDestinationPan());
+            }
+            credited = new HashSet<>();
+            for (Document doc : getCollection().find(session, Filters.in("pan", pans))
+                    .projection(Projections.include("pan"))) {
+                credited.add(doc.getString("pan"));
+            }
+        }
+        for (DisbursementResult.Entry entry : chunk) {
+            entry.setStatus(credited == null || credited.contains(entry.getDisbursement().getDestinationPan())
+                ? DisbursementResult.Status.CREDITED
+                : DisbursementResult.Status.DESTINATION_NOT_FOUND);
+        }
+        chunk.clear();
+    }
+
+    private boolean debit(ClientSession session, String pan, String cvv, double amount) {
+        List<Bson> filters = new ArrayList<>();
+        filters.add(Filters.eq("pan", pan));
+        if (cvv != null) {
+            filters.add(Filters.eq("cvv", cvv));
+        }
+        
+        List<Bson> unsharded = new ArrayList<>(filters);
+        unsharded.add(Filters.gte("balance", amount));
+        unsharded.add(Filters.not(Filters.gt("balanceShards", 0)));
+        if (getCollection().updateOne(session, Filters.and(unsharded), Updates.inc("balance", -amount))
+                .getModifiedCount() > 0) {
+            return true;
+        }
+        
+        Document doc = getCollection().find(session, Filters.and(filters))
+            .projection(Projections.include("balanceShards"))
+            .first();
+        int shards = balanceShardsOf(doc);
+        if (shards == 0) {
+            return false;
+        }
+        
+        int shard = ThreadLocalRandom.current().nextInt(shards);
+        if (getShardCollection().updateOne(
+            session,
+            Filters.and(
+                Filters.eq("pan", pan),
+                Filters.eq("shard", shard),
+                Filters.gte("balance", amount)
+            ),
+            Updates.inc("balance", -amount)
+        ).getModifiedCount() > 0) {
+            return true;
+        }
+        
+        consolidate(session, pan);
+        return getCollection().updateOne(
+            session,
+            Filters.and(
+                Filters.eq("pan", pan),
+                Filters.gte("balance", amount)
+            ),
+            Updates.inc("balance", -amount)
+        ).getModifiedCount() > 0;
+    }
+
+    private boolean credit(ClientSession session, String pan, double amount) {
+        if (getCollection().updateOne(
+            session,
+            Filters.and(
+                Filters.eq("pan", pan),
+                Filters.not(Filters.gt("balanceShards", 0))
+            ),
+            Updates.inc("balance", amount)
+        ).getModifiedCount() > 0) {
+            return true;
+        }
+        
+        Document doc = getCollection().find(session, Filters.eq("pan", pan))
+            .projection(Projections.include("balanceShards"))
+            .first();
+        int shards = balanceShardsOf(doc);
+        if (shards == 0) {
+            return false;
+        }
+        
+        getShardCollection().updateOne(
+            session,
+            Filters.and(
+                Filters.eq("pan", pan),
+                Filters.eq("shard", ThreadLocalRandom.current().nextInt(shards))
+            ),
+            Updates.inc("balance", amount),
+            new UpdateOptions().upsert(true)
+        );
+        return true;
+    }
+
+    private void consolidate(ClientSession session, String pan) {
+        for (Document shardDoc : getShardCollection().find(session, Filters.eq("pan", pan))) {
+            double shardBalance = shardDoc.getDouble("balance");
+            if (shardBalance == 0) {
+                continue;
+            }
+            boolean drained = getShardCollection().updateOne(
+                session,
+                Filters.and(
+                    Filters.eq("pan", pan),
+                    Filters.eq("shard", shardDoc.getInteger("shard")),
+                    Filters.gte("balance", shardBalance)
+                ),
+                Updates.inc("balance", -shardBalance)
+            ).getModifiedCount() > 0;
+            
+            if (drained) {
+                getCollection().updateOne(session, Filters.eq("pan", pan), Updates.inc("balance", shardBalance));
+            }
+        }
+    }
+
+    private double shardBalance(String pan) {
+        double total = 0;
+        for (Document shardDoc : getShardCollection().find(Filters.eq("pan", pan))) {
+            total += shardDoc.getDouble("balance");
+        }
+        return total;
+    }
+
+    private double shardBalance(ClientSession session, String pan) {
+        double total = 0;
+        for (Document shardDoc : getShardCollection().find(session, Filters.eq("pan", pan))) {
+            total += shardDoc.getDouble("balance");
+        }
+        return total;
+    }
+
+    private int balanceShardsOf(Document doc) {
+        if (doc == null || doc.getInteger("balanceShards") == null) {
+            return 0;
+        }
+        return doc.getInteger("balanceShards");
+    }
+
+    private Card withShardBalance(Card card) {
+        if (card instanceof ShardedCard) {
+            double own = card.getBalance() == null ? 0 : card.getBalance();
+            card.setBalance(own + shardBalance(card.getPan()));
         }
-        card.setPan(doc.getString("pan"));
-        card.setCvv(doc.getString("cvv"));
-        card.setDateOfExpire(doc.getString("dateOfExpire"));
-        card.setName(doc.getString("name"));
-        card.setSurname(doc.getString("surname"));
-        card.setCurrency(doc.getString("currency"));
-        card.setBalance(doc.getDouble("balance"));
         return card;
     }
-}
 
+    private static class Rollback extends RuntimeException {
+        private final Object result;
+
+        private Rollback(Object result) {
+            super(null, null, false, false);
+            this.result = result;
+        }
+    }
+}
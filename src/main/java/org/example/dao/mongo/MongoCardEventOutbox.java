@@ -0,0 +1,90 @@
+package org.example.dao.mongo;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.Updates;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.example.dao.CardEventOutbox;
+import org.example.database.MongoConnection;
+import org.example.model.CardEvent;
+import org.example.outbox.CardEventSink;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public class MongoCardEventOutbox implements CardEventOutbox {
+
+    private static final Duration DEFAULT_LEASE = Duration.ofSeconds(30);
+
+    private final Duration lease;
+
+    public MongoCardEventOutbox() {
+        this(DEFAULT_LEASE);
+    }
+
+    public MongoCardEventOutbox(Duration lease) {
+        this.lease = lease;
+    }
+
+    private MongoCollection<Document> getCollection() {
+        MongoDatabase database = MongoConnection.getDatabase();
+        return database.getCollection("card_events");
+    }
+
+    @Override
+    public int drain(int batchSize, CardEventSink sink) throws Exception {
+        long now = System.currentTimeMillis();
+        Bson claimable = Filters.or(
+            Filters.exists("claimedUntil", false),
+            Filters.lt("claimedUntil", now)
+        );
+
+        List<Object> candidates = new ArrayList<>(batchSize);
+        for (Document doc : getCollection().find(claimable)
+                .projection(Projections.include("_id"))
+                .sort(Sorts.ascending("_id"))
+                .limit(batchSize)) {
+            candidates.add(doc.get("_id"));
+        }
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+
+        String token = UUID.randomUUID().toString();
+        getCollection().updateMany(
+            Filters.and(Filters.in("_id", candidates), claimable),
+            Updates.combine(Updates.set("claimedBy", token), Updates.set("claimedUntil", now + lease.toMillis()))
+        );
+
+        List<CardEvent> events = new ArrayList<>(candidates.size());
+        for (Document doc : getCollection().find(Filters.eq("claimedBy", token)).sort(Sorts.ascending("_id"))) {
+            events.add(new CardEvent(
+                doc.getObjectId("_id").toHexString(),
+                doc.getString("pan"),
+                CardEvent.Type.valueOf(doc.getString("type")),
+                doc.getDouble("amount"),
+                CardEvent.Operation.valueOf(doc.getString("operation")),
+                doc.getLong("createdAt")
+            ));
+        }
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        sink.publish(events);
+
+        getCollection().deleteMany(Filters.eq("claimedBy", token));
+        return events.size();
+    }
+
+    @Override
+    public long pending() {
+        return getCollection().countDocuments();
+    }
+}
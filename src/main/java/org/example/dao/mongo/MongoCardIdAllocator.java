@@ -0,0 +1,72 @@
+package org.example.dao.mongo;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Updates;
+import org.bson.Document;
+import org.example.database.MongoConnection;
+
+public class MongoCardIdAllocator {
+
+    private static final String COUNTER_ID = "cardId";
+    private static final int DEFAULT_BLOCK_SIZE = 100;
+    private static final MongoCardIdAllocator INSTANCE = new MongoCardIdAllocator(DEFAULT_BLOCK_SIZE);
+
+    private final int blockSize;
+    private long next;
+    private long end;
+
+    public MongoCardIdAllocator(int blockSize) {
+        this.blockSize = blockSize;
+    }
+
+    public static MongoCardIdAllocator getInstance() {
+        return INSTANCE;
+    }
+
+    private MongoCollection<Document> getCollection() {
+        MongoDatabase database = MongoConnection.getDatabase();
+        return database.getCollection("counters");
+    }
+
+    public synchronized int nextId() {
+        if (next >= end) {
+            reserve(blockSize);
+        }
+        return toCardId(next++);
+    }
+
+    public synchronized int[] nextIds(int count) {
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            if (next >= end) {
+                reserve(Math.max(blockSize, count - i));
+            }
+            ids[i] = toCardId(next++);
+        }
+        return ids;
+    }
+
+    private void reserve(int size) {
+        Document counter = getCollection().findOneAndUpdate(
+            Filters.eq("_id", COUNTER_ID),
+            Updates.inc("seq", (long) size),
+            new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER)
+        );
+        if (counter == null) {
+            throw new IllegalStateException("Could not reserve card ids");
+        }
+        end = counter.getLong("seq") + 1;
+        next = end - size;
+    }
+
+    private static int toCardId(long value) {
+        if (value > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Card id space exhausted");
+        }
+        return (int) value;
+    }
+}
@@ -2,66 +2,72 @@ package org.example.dao.mongo;
 
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Aggregates;
 import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.Updates;
 import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.example.dao.mongo.codec.MongoCodecs;
 import org.example.database.MongoConnection;
 import org.example.model.CardUser;
+import org.example.model.HolderWithCards;
 import org.example.dao.CardUserDao;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public class MongoCardUserDao implements CardUserDao {
     
+    private static final int STREAM_BATCH_SIZE = 1000;
+    
     private MongoCollection<Document> getCollection() {
         MongoDatabase database = MongoConnection.getDatabase();
         return database.getCollection("card_users");
     }
+    
+    private MongoCollection<CardUser> getCardUserCollection() {
+        return getCollection().withDocumentClass(CardUser.class).withCodecRegistry(MongoCodecs.REGISTRY);
+    }
 
     @Override
     public CardUser create(CardUser cardUser) {
-        Document doc = new Document()
-            .append("name", cardUser.getName())
-            .append("surname", cardUser.getSurname())
-            .append("iin", cardUser.getIin());
-        
-        getCollection().insertOne(doc);
+        getCardUserCollection().insertOne(cardUser);
         return cardUser;
     }
 
     @Override
     public Optional<CardUser> findByIin(String iin) {
-        Document doc = getCollection().find(Filters.eq("iin", iin)).first();
-        if (doc != null) {
-            return Optional.of(mapDocumentToCardUser(doc));
-        }
-        return Optional.empty();
+        return Optional.ofNullable(getCardUserCollection().find(Filters.eq("iin", iin)).first());
     }
 
     @Override
     public Optional<CardUser> findByNameAndSurname(String name, String surname) {
-        Document doc = getCollection().find(
+        return Optional.ofNullable(getCardUserCollection().find(
             Filters.and(
                 Filters.eq("name", name),
                 Filters.eq("surname", surname)
             )
-        ).first();
-        
-        if (doc != null) {
-            return Optional.of(mapDocumentToCardUser(doc));
-        }
-        return Optional.empty();
+        ).first());
+    }
+
+    @Override
+    public Optional<HolderWithCards> findHolderWithCards(String iin) {
+        return Optional.ofNullable(getCollection().withCodecRegistry(MongoCodecs.REGISTRY)
+            .aggregate(holderWithCardsPipeline(iin), HolderWithCards.class).first());
     }
 
     @Override
     public List<CardUser> findAll() {
-        List<CardUser> users = new ArrayList<>();
-        for (Document doc : getCollection().find()) {
-            users.add(mapDocumentToCardUser(doc));
+        return getCardUserCollection().find().into(new ArrayList<>());
+    }
+
+    @Override
+    public void forEachCardUser(Consumer<CardUser> action) {
+        for (CardUser cardUser : getCardUserCollection().find().batchSize(STREAM_BATCH_SIZE)) {
+            action.accept(cardUser);
         }
-        return users;
     }
 
     @Override
@@ -85,12 +91,21 @@ public class MongoCardUserDao implements CardUserDao {
         return getCollection().countDocuments(Filters.eq("iin", iin)) > 0;
     }
 
-    private CardUser mapDocumentToCardUser(Document doc) {
-        return new CardUser(
-            doc.getString("name"),
-            doc.getString("surname"),
-            doc.getString("iin")
+    private List<Bson> holderWithCardsPipeline(String iin) {
+        return List.of(
+            Aggregates.match(Filters.eq("iin", iin)),
+            new Document("$lookup", new Document("from", "cards")
+                .append("localField", "iin")
+                .append("foreignField", "iin")
+                .append("pipeline", List.of(
+                    new Document("$lookup", new Document("from", "card_balance_shards")
+                        .append("localField", "pan")
+                        .append("foreignField", "pan")
+                        .append("as", "balanceShardDocs")),
+                    new Document("$sort", new Document("cardId", 1))
+                ))
+                .append("as", "cards")),
+            Aggregates.limit(1)
         );
     }
 }
-
@@ -0,0 +1,39 @@
+package org.example.dao.mongo;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import org.bson.Document;
+import org.example.database.MongoConnection;
+import org.example.dao.FxRateDao;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class MongoFxRateDao implements FxRateDao {
+    
+    private MongoCollection<Document> getCollection() {
+        MongoDatabase database = MongoConnection.getDatabase();
+        return database.getCollection("fx_rates");
+    }
+
+    @Override
+    public Map<String, Double> findAllRates() {
+        Map<String, Double> rates = new HashMap<>();
+        for (Document doc : getCollection().find()) {
+            rates.put(doc.getString("currency"), doc.getDouble("rateToBase"));
+        }
+        return rates;
+    }
+
+    @Override
+    public boolean saveRate(String currency, Double rateToBase) {
+        return getCollection().updateOne(
+            Filters.eq("currency", currency),
+            Updates.set("rateToBase", rateToBase),
+            new UpdateOptions().upsert(true)
+        ).wasAcknowledged();
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.dao.mongo;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Updates;
+import org.bson.Document;
+import org.example.database.MongoConnection;
+import org.example.dao.PanSequenceDao;
+
+public class MongoPanSequenceDao implements PanSequenceDao {
+    
+    private MongoCollection<Document> getCollection() {
+        MongoDatabase database = MongoConnection.getDatabase();
+        return database.getCollection("pan_sequences");
+    }
+
+    @Override
+    public long reserveBlock(String bin, int blockSize) {
+        Document doc = getCollection().findOneAndUpdate(
+            Filters.eq("_id", bin),
+            Updates.inc("nextValue", (long) blockSize),
+            new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER)
+        );
+        
+        if (doc == null) {
+            return -1;
+        }
+        return doc.getLong("nextValue") - blockSize;
+    }
+}
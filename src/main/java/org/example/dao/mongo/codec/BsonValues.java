@@ -0,0 +1,63 @@
+package org.example.dao.mongo.codec;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+
+final class BsonValues {
+
+    private BsonValues() {
+    }
+
+    static String readString(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.NULL) {
+            reader.readNull();
+            return null;
+        }
+        return reader.readString();
+    }
+
+    static Integer readInteger(BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case INT32:
+                return reader.readInt32();
+            case INT64:
+                return Math.toIntExact(reader.readInt64());
+            case DOUBLE:
+                return (int) reader.readDouble();
+            case NULL:
+                reader.readNull();
+                return null;
+            default:
+                reader.skipValue();
+                return null;
+        }
+    }
+
+    static Double readDouble(BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case DOUBLE:
+                return reader.readDouble();
+            case INT32:
+                return (double) reader.readInt32();
+            case INT64:
+                return (double) reader.readInt64();
+            case DECIMAL128:
+                return reader.readDecimal128().bigDecimalValue().doubleValue();
+            case NULL:
+                reader.readNull();
+                return null;
+            default:
+                reader.skipValue();
+                return null;
+        }
+    }
+
+    static void writeString(BsonWriter writer, String name, String value) {
+        if (value == null) {
+            writer.writeNull(name);
+        } else {
+            writer.writeString(name, value);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package org.example.dao.mongo.codec;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.example.model.Card;
+
+public class CardCodec implements Codec<Card> {
+
+    @Override
+    public Card decode(BsonReader reader, DecoderContext decoderContext) {
+        Integer cardId = null;
+        String pan = null;
+        String cvv = null;
+        String dateOfExpire = null;
+        String name = null;
+        String surname = null;
+        String iin = null;
+        String currency = null;
+        Double balance = null;
+        int balanceShards = 0;
+        double shardTotal = 0;
+        boolean shardsEmbedded = false;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "cardId" -> cardId = BsonValues.readInteger(reader);
+                case "pan" -> pan = BsonValues.readString(reader);
+                case "cvv" -> cvv = BsonValues.readString(reader);
+                case "dateOfExpire" -> dateOfExpire = BsonValues.readString(reader);
+                case "name" -> name = BsonValues.readString(reader);
+                case "surname" -> surname = BsonValues.readString(reader);
+                case "iin" -> iin = BsonValues.readString(reader);
+                case "currency" -> currency = BsonValues.readString(reader);
+                case "balance" -> balance = BsonValues.readDouble(reader);
+                case "balanceShards" -> {
+                    Integer shards = BsonValues.readInteger(reader);
+                    balanceShards = shards == null ? 0 : shards;
+                }
+                case "balanceShardDocs" -> {
+                    shardTotal = readShardTotal(reader);
+                    shardsEmbedded = true;
+                }
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        Card card = balanceShards > 0 && !shardsEmbedded ? new ShardedCard(balanceShards) : new Card();
+        card.setCardId(cardId);
+        card.setPan(pan);
+        card.setCvv(cvv);
+        card.setDateOfExpire(dateOfExpire);
+        card.setName(name);
+        card.setSurname(surname);
+        card.setIin(iin);
+        card.setCurrency(currency);
+        card.setBalance(balanceShards > 0 && shardsEmbedded && balance != null ? balance + shardTotal : balance);
+        return card;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, Card card, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        if (card.getCardId() != null) {
+            writer.writeInt32("cardId", card.getCardId());
+        }
+        BsonValues.writeString(writer, "pan", card.getPan());
+        BsonValues.writeString(writer, "cvv", card.getCvv());
+        BsonValues.writeString(writer, "dateOfExpire", card.getDateOfExpire());
+        BsonValues.writeString(writer, "name", card.getName());
+        BsonValues.writeString(writer, "surname", card.getSurname());
+        BsonValues.writeString(writer, "iin", card.getIin());
+        BsonValues.writeString(writer, "currency", card.getCurrency());
+        if (card.getBalance() == null) {
+            writer.writeNull("balance");
+        } else {
+            writer.writeDouble("balance", card.getBalance());
+        }
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Class<Card> getEncoderClass() {
+        return Card.class;
+    }
+
+    private double readShardTotal(BsonReader reader) {
+        if (reader.getCurrentBsonType() != BsonType.ARRAY) {
+            reader.skipValue();
+            return 0;
+        }
+        double total = 0;
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            if (reader.getCurrentBsonType() != BsonType.DOCUMENT) {
+                reader.skipValue();
+                continue;
+            }
+            reader.readStartDocument();
+            while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                if ("balance".equals(reader.readName())) {
+                    Double balance = BsonValues.readDouble(reader);
+                    total += balance == null ? 0 : balance;
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.readEndDocument();
+        }
+        reader.readEndArray();
+        return total;
+    }
+}
@@ -0,0 +1,43 @@
+package org.example.dao.mongo.codec;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.example.model.CardUser;
+
+public class CardUserCodec implements Codec<CardUser> {
+
+    @Override
+    public CardUser decode(BsonReader reader, DecoderContext decoderContext) {
+        CardUser cardUser = new CardUser();
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "name" -> cardUser.setName(BsonValues.readString(reader));
+                case "surname" -> cardUser.setSurname(BsonValues.readString(reader));
+                case "iin" -> cardUser.setIin(BsonValues.readString(reader));
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return cardUser;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, CardUser cardUser, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        BsonValues.writeString(writer, "name", cardUser.getName());
+        BsonValues.writeString(writer, "surname", cardUser.getSurname());
+        BsonValues.writeString(writer, "iin", cardUser.getIin());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Class<CardUser> getEncoderClass() {
+        return CardUser.class;
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.dao.mongo.codec;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.example.model.Card;
+import org.example.model.CardUser;
+import org.example.model.HolderWithCards;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class HolderWithCardsCodec implements Codec<HolderWithCards> {
+
+    private final CardCodec cardCodec = new CardCodec();
+
+    @Override
+    public HolderWithCards decode(BsonReader reader, DecoderContext decoderContext) {
+        CardUser holder = new CardUser();
+        List<Card> cards = new ArrayList<>();
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "name" -> holder.setName(BsonValues.readString(reader));
+                case "surname" -> holder.setSurname(BsonValues.readString(reader));
+                case "iin" -> holder.setIin(BsonValues.readString(reader));
+                case "cards" -> readCards(reader, decoderContext, cards);
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return new HolderWithCards(holder, cards);
+    }
+
+    @Override
+    public void encode(BsonWriter writer, HolderWithCards value, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        BsonValues.writeString(writer, "name", value.getHolder().getName());
+        BsonValues.writeString(writer, "surname", value.getHolder().getSurname());
+        BsonValues.writeString(writer, "iin", value.getHolder().getIin());
+        writer.writeStartArray("cards");
+        for (Card card : value.getCards()) {
+            cardCodec.encode(writer, card, encoderContext);
+        }
+        writer.writeEndArray();
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Class<HolderWithCards> getEncoderClass() {
+        return HolderWithCards.class;
+    }
+
+    private void readCards(BsonReader reader, DecoderContext decoderContext, List<Card> cards) {
+        if (reader.getCurrentBsonType() != BsonType.ARRAY) {
+            reader.skipValue();
+            return;
+        }
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            if (reader.getCurrentBsonType() == BsonType.DOCUMENT) {
+                cards.add(cardCodec.decode(reader, decoderContext));
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.readEndArray();
+    }
+}
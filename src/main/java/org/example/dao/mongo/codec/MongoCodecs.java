@@ -0,0 +1,16 @@
+package org.example.dao.mongo.codec;
+
+import com.mongodb.MongoClientSettings;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+
+public final class MongoCodecs {
+
+    public static final CodecRegistry REGISTRY = CodecRegistries.fromRegistries(
+        CodecRegistries.fromCodecs(new CardCodec(), new CardUserCodec(), new HolderWithCardsCodec()),
+        MongoClientSettings.getDefaultCodecRegistry()
+    );
+
+    private MongoCodecs() {
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.dao.mongo.codec;
+
+import org.example.model.Card;
+
+public class ShardedCard extends Card {
+
+    private final int balanceShards;
+
+    public ShardedCard(int balanceShards) {
+        this.balanceShards = balanceShards;
+    }
+
+    public int getBalanceShards() {
+        return balanceShards;
+    }
+}
@@ -0,0 +1,121 @@
+package org.example.dao.mongo.reactive;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+final class Publishers {
+
+    private Publishers() {
+    }
+
+    static <T> CompletableFuture<T> first(Publisher<T> publisher) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        publisher.subscribe(new Subscriber<T>() {
+            private Subscription subscription;
+
+            @Override
+            public void onSubscribe(Subscription s) {
+                subscription = s;
+                s.request(1);
+            }
+
+            @Override
+            public void onNext(T t) {
+                if (future.complete(t)) {
+                    subscription.cancel();
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                future.completeExceptionally(t);
+            }
+
+            @Override
+            public void onComplete() {
+                future.complete(null);
+            }
+        });
+        return future;
+    }
+
+    static <T> CompletableFuture<List<T>> toList(Publisher<T> publisher) {
+        CompletableFuture<List<T>> future = new CompletableFuture<>();
+        publisher.subscribe(new Subscriber<T>() {
+            private final List<T> items = new ArrayList<>();
+
+            @Override
+            public void onSubscribe(Subscription s) {
+                s.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(T t) {
+                items.add(t);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                future.completeExceptionally(t);
+            }
+
+            @Override
+            public void onComplete() {
+                future.complete(items);
+            }
+        });
+        return future;
+    }
+
+    static <T, R> Publisher<R> map(Publisher<T> source, Function<? super T, ? extends R> mapper) {
+        return subscriber -> source.subscribe(new Subscriber<T>() {
+            private Subscription subscription;
+            private boolean done;
+
+            @Override
+            public void onSubscribe(Subscription s) {
+                subscription = s;
+                subscriber.onSubscribe(s);
+            }
+
+            @Override
+            public void onNext(T t) {
+                if (done) {
+                    return;
+                }
+                R mapped;
+                try {
+                    mapped = mapper.apply(t);
+                } catch (RuntimeException e) {
+                    done = true;
+                    subscription.cancel();
+                    subscriber.onError(e);
+                    return;
+                }
+                subscriber.onNext(mapped);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                if (!done) {
+                    done = true;
+                    subscriber.onError(t);
+                }
+            }
+
+            @Override
+            public void onComplete() {
+                if (!done) {
+                    done = true;
+                    subscriber.onComplete();
+                }
+            }
+        });
+    }
+}
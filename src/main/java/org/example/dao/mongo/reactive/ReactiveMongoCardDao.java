@@ -0,0 +1,469 @@
+package org.example.dao.mongo.reactive;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.reactivestreams.client.ClientSession;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.mongodb.reactivestreams.client.MongoDatabase;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.example.dao.AsyncCardDao;
+import org.example.dao.mongo.codec.MongoCodecs;
+import org.example.database.ReactiveMongoConnection;
+import org.example.fx.FxRateSnapshot;
+import org.example.model.Card;
+import org.example.model.CardEvent;
+import org.reactivestreams.Publisher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+public class ReactiveMongoCardDao implements AsyncCardDao {
+
+    private static final int STREAM_BATCH_SIZE = 1000;
+    private static final long TRANSACTION_TIMEOUT_MILLIS = 120_000;
+    private static final ReactiveMongoCardIdAllocator ID_ALLOCATOR = ReactiveMongoCardIdAllocator.getInstance();
+
+    private MongoCollection<Document> getCollection() {
+        MongoDatabase database = ReactiveMongoConnection.getDatabase();
+        return database.getCollection("cards");
+    }
+
+    private MongoCollection<Card> getCardCollection() {
+        MongoDatabase database = ReactiveMongoConnection.getDatabase();
+        return database.getCollection("cards", Card.class).withCodecRegistry(MongoCodecs.REGISTRY);
+    }
+
+    private MongoCollection<Document> getShardCollection() {
+        MongoDatabase database = ReactiveMongoConnection.getDatabase();
+        return database.getCollection("card_balance_shards");
+    }
+
+    private MongoCollection<Document> getEventCollection() {
+        MongoDatabase database = ReactiveMongoConnection.getDatabase();
+        return database.getCollection("card_events");
+    }
+
+    @Override
+    public CompletableFuture<Card> create(Card card) {
+        return ID_ALLOCATOR.nextId().thenCompose(cardId -> {
+            card.setCardId(cardId);
+            return Publishers.first(getCardCollection().insertOne(card));
+        }).thenApply(result -> card);
+    }
+
+    @Override
+    public CompletableFuture<Integer> createBatch(List<Card> cards) {
+        if (cards.isEmpty()) {
+            return CompletableFuture.completedFuture(0);
+        }
+        return ID_ALLOCATOR.nextIds(cards.size()).thenCompose(cardIds -> {
+            for (int i = 0; i < cards.size(); i++) {
+                cards.get(i).setCardId(cardIds[i]);
+            }
+            return Publishers.first(getCardCollection().insertMany(cards));
+        }).thenApply(result -> cards.size());
+    }
+
+    @Override
+    public CompletableFuture<Optional<Card>> findById(Integer cardId) {
+        return Publishers.first(getCardCollection().aggregate(cardPipeline(Filters.eq("cardId", cardId))).first())
+            .thenApply(Optional::ofNullable);
+    }
+
+    @Override
+    public CompletableFuture<Optional<Card>> findByPan(String pan) {
+        return Publishers.first(getCardCollection().aggregate(cardPipeline(Filters.eq("pan", pan))).first())
+            .thenApply(Optional::ofNullable);
+    }
+
+    @Override
+    public CompletableFuture<List<Card>> findByNameAndSurname(String name, String surname) {
+        Bson filter = Filters.and(
+            Filters.eq("name", name),
+            Filters.eq("surname", surname)
+        );
+        return Publishers.toList(getCardCollection().aggregate(cardPipeline(filter)));
+    }
+
+    @Override
+    public Publisher<Card> findAll() {
+        return getCardCollection().aggregate(cardPipeline(Filters.empty())).batchSize(STREAM_BATCH_SIZE);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> update(Card card) {
+        return inTransaction(session -> shardBalance(session, card.getPan()).thenCompose(shardTotal -> {
+            List<Bson> updates = new ArrayList<>(7);
+            updates.add(Updates.set("cvv", card.getCvv()));
+            updates.add(Updates.set("dateOfExpire", card.getDateOfExpire()));
+            updates.add(Updates.set("name", card.getName()));
+            updates.add(Updates.set("surname", card.getSurname()));
+            updates.add(Updates.set("iin", card.getIin()));
+            updates.add(Updates.set("currency", card.getCurrency()));
+            if (card.getBalance() != null) {
+                updates.add(Updates.set("balance", card.getBalance() - shardTotal));
+            }
+            return Publishers.first(getCollection().updateOne(
+                session,
+                Filters.eq("pan", card.getPan()),
+                Updates.combine(updates)
+            ));
+        }).thenApply(result -> result.getModifiedCount() > 0));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> deleteById(Integer cardId) {
+        return Publishers.first(getCollection().find(Filters.eq("cardId", cardId))
+                .projection(Projections.include("pan"))
+                .first())
+            .thenCompose(doc -> doc == null
+                ? CompletableFuture.completedFuture(false)
+                : deleteByPan(doc.getString("pan")));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> deleteByPan(String pan) {
+        return Publishers.first(getCollection().deleteOne(Filters.eq("pan", pan))).thenCompose(result -> {
+            if (result.getDeletedCount() == 0) {
+                return CompletableFuture.completedFuture(false);
+            }
+            return Publishers.first(getShardCollection().deleteMany(Filters.eq("pan", pan)))
+                .thenApply(ignored -> true);
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> existsByPan(String pan) {
+        return Publishers.first(getCollection().countDocuments(Filters.eq("pan", pan)))
+            .thenApply(count -> count != null && count > 0);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> transferMoney(String fromPan, String toPan, Double amount) {
+        return inTransaction(session -> debitThenCredit(session, fromPan, toPan, amount, amount));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> transferMoneyWithConversion(String fromPan, String toPan, Double amount,
+                                                                  FxRateSnapshot rates) {
+        return inTransaction(session -> Publishers.toList(getCollection().find(session, Filters.in("pan", fromPan, toPan))
+                .projection(Projections.include("pan", "currency")))
+            .thenCompose(docs -> {
+                String fromCurrency = null;
+                String toCurrency = null;
+                for (Document doc : docs) {
+                    if (fromPan.equals(doc.getString("pan"))) {
+                        fromCurrency = doc.getString("currency");
+                    } else {
+                        toCurrency = doc.getString("currency");
+                    }
+                }
+                if (docs.size() < 2 || !rates.supports(fromCurrency) || !rates.supports(toCurrency)) {
+                    return CompletableFuture.completedFuture(false);
+                }
+                return debitThenCredit(session, fromPan, toPan, amount,
+                    rates.convert(amount, fromCurrency, toCurrency));
+            }));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> transferMoneyByName(String fromName, String fromSurname,
+                                                          String toName, String toSurname, Double amount) {
+        CompletableFuture<List<Card>> fromCards = findByNameAndSurname(fromName, fromSurname);
+        CompletableFuture<List<Card>> toCards = findByNameAndSurname(toName, toSurname);
+
+        return fromCards.thenCombine(toCards, (from, to) -> from.isEmpty() || to.isEmpty()
+                ? CompletableFuture.completedFuture(false)
+                : transferMoney(from.get(0).getPan(), to.get(0).getPan(), amount))
+            .thenCompose(result -> result);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> withdrawMoney(String pan, String cvv, Double amount) {
+        return inTransaction(session -> debit(session, pan, cvv, amount).thenCompose(debited -> {
+            if (!debited) {
+                throw new Rollback(false);
+            }
+            return recordEvents(session, List.of(CardEvent.debit(pan, amount, CardEvent.Operation.WITHDRAWAL)));
+        }).thenApply(ignored -> true));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> depositMoney(String pan, Double amount) {
+        return inTransaction(session -> credit(session, pan, amount).thenCompose(credited -> {
+            if (!credited) {
+                throw new Rollback(false);
+            }
+            return recordEvents(session, List.of(CardEvent.credit(pan, amount, CardEvent.Operation.DEPOSIT)));
+        }).thenApply(ignored -> true));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> depositMoneyByName(String name, String surname, Double amount) {
+        return findByNameAndSurname(name, surname).thenCompose(cards -> cards.isEmpty()
+            ? CompletableFuture.completedFuture(false)
+            : depositMoney(cards.get(0).getPan(), amount));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> enableBalanceSharding(String pan, int shards) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("Shard count must be positive: " + shards);
+        }
+        return Publishers.first(getCollection().updateOne(
+            Filters.eq("pan", pan),
+            Updates.set("balanceShards", shards)
+        )).thenApply(result -> result.getMatchedCount() > 0);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> disableBalanceSharding(String pan) {
+        return inTransaction(session -> Publishers.first(getCollection().updateOne(
+            session,
+            Filters.eq("pan", pan),
+            Updates.set("balanceShards", 0)
+        )).thenCompose(result -> {
+            if (result.getMatchedCount() == 0) {
+                return CompletableFuture.completedFuture(false);
+            }
+            return consolidate(session, pan)
+                .thenCompose(ignored -> Publishers.first(getShardCollection().deleteMany(session, Filters.and(
+                    Filters.eq("pan", pan),
+                    Filters.eq("balance", 0.0)
+                ))))
+                .thenApply(ignored -> true);
+        }));
+    }
+
+    private <T> CompletableFuture<T> inTransaction(Function<ClientSession, CompletableFuture<T>> body) {
+        return Publishers.first(ReactiveMongoConnection.getClient().startSession()).thenCompose(session -> {
+            long deadline = System.currentTimeMillis() + TRANSACTION_TIMEOUT_MILLIS;
+            return attempt(session, body, deadline).whenComplete((result, error) -> session.close());
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> attempt(ClientSession session, Function<ClientSession, CompletableFuture<T>> body,
+                                             long deadline) {
+        session.startTransaction();
+        CompletableFuture<T> applied;
+        try {
+            applied = body.apply(session);
+        } catch (RuntimeException e) {
+            applied = CompletableFuture.failedFuture(e);
+        }
+        return applied
+            .exceptionallyCompose(error -> abort(session).thenCompose(ignored -> CompletableFuture.<T>failedFuture(error)))
+            .thenCompose(result -> commit(session, deadline).thenApply(ignored -> result))
+            .exceptionallyCompose(error -> {
+                Throwable cause = unwrap(error);
+                if (cause instanceof Rollback rollback) {
+                    return CompletableFuture.completedFuture((T) rollback.result);
+                }
+                if (hasErrorLabel(cause, MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL)
+                        && System.currentTimeMillis() < deadline) {
+                    return attempt(session, body, deadline);
+                }
+                return CompletableFuture.failedFuture(cause);
+            });
+    }
+
+    private CompletableFuture<Void> commit(ClientSession session, long deadline) {
+        return Publishers.first(session.commitTransaction()).exceptionallyCompose(error -> {
+            Throwable cause = unwrap(error);
+            if (hasErrorLabel(cause, MongoException.UNKNOWN_TRANSACTION_COMMIT_RESULT_LABEL)
+                    && System.currentTimeMillis() < deadline) {
+                return commit(session, deadline);
+            }
+            return CompletableFuture.failedFuture(cause);
+        });
+    }
+
+    private CompletableFuture<Void> abort(ClientSession session) {
+        if (!session.hasActiveTransaction()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return Publishers.first(session.abortTransaction()).exceptionally(ignored -> null);
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    private static boolean hasErrorLabel(Throwable error, String label) {
+        return error instanceof MongoException mongoError && mongoError.hasErrorLabel(label);
+    }
+
+    private CompletableFuture<Void> recordEvents(ClientSession session, List<CardEvent> events) {
+        List<Document> docs = new ArrayList<>(events.size());
+        for (CardEvent event : events) {
+            docs.add(new Document("pan", event.getPan())
+                .append("type", event.getType().name())
+                .append("amount", event.getAmount())
+                .append("operation", event.getOperation().name())
+                .append("createdAt", event.getCreatedAt()));
+        }
+        return Publishers.first(getEventCollection().insertMany(session, docs)).thenApply(ignored -> null);
+    }
+
+    private CompletableFuture<Boolean> debitThenCredit(ClientSession session, String fromPan, String toPan,
+                                                       double debitAmount, double creditAmount) {
+        return debit(session, fromPan, null, debitAmount)
+            .thenCompose(debited -> debited
+                ? credit(session, toPan, creditAmount)
+                : CompletableFuture.completedFuture(false))
+            .thenCompose(moved -> {
+                if (!moved) {
+                    throw new Rollback(false);
+                }
+                return recordEvents(session, List.of(
+                    CardEvent.debit(fromPan, debitAmount, CardEvent.Operation.TRANSFER),
+                    CardEvent.credit(toPan, creditAmount, CardEvent.Operation.TRANSFER)));
+            })
+            .thenApply(ignored -> true);
+    }
+
+    private CompletableFuture<Boolean> debit(ClientSession session, String pan, String cvv, double amount) {
+        List<Bson> filters = new ArrayList<>();
+        filters.add(Filters.eq("pan", pan));
+        if (cvv != null) {
+            filters.add(Filters.eq("cvv", cvv));
+        }
+
+        List<Bson> unsharded = new ArrayList<>(filters);
+        unsharded.add(Filters.gte("balance", amount));
+        unsharded.add(Filters.not(Filters.gt("balanceShards", 0)));
+
+        return Publishers.first(getCollection().updateOne(session, Filters.and(unsharded), Updates.inc("balance", -amount)))
+            .thenCompose(result -> {
+                if (result.getModifiedCount() > 0) {
+                    return CompletableFuture.completedFuture(true);
+                }
+                return balanceShardsOf(session, Filters.and(filters)).thenCompose(shards -> {
+                    if (shards == 0) {
+                        return CompletableFuture.completedFuture(false);
+                    }
+                    return debitShard(session, pan, amount, shards);
+                });
+            });
+    }
+
+    private CompletableFuture<Boolean> debitShard(ClientSession session, String pan, double amount, int shards) {
+        Bson shardFilter = Filters.and(
+            Filters.eq("pan", pan),
+            Filters.eq("shard", ThreadLocalRandom.current().nextInt(shards)),
+            Filters.gte("balance", amount)
+        );
+        return Publishers.first(getShardCollection().updateOne(session, shardFilter, Updates.inc("balance", -amount)))
+            .thenCompose(result -> {
+                if (result.getModifiedCount() > 0) {
+                    return CompletableFuture.completedFuture(true);
+                }
+                return consolidate(session, pan).thenCompose(ignored -> Publishers.first(getCollection().updateOne(
+                    session,
+                    Filters.and(
+                        Filters.eq("pan", pan),
+                        Filters.gte("balance", amount)
+                    ),
+                    Updates.inc("balance", -amount)
+                ))).thenApply(debited -> debited.getModifiedCount() > 0);
+            });
+    }
+
+    private CompletableFuture<Boolean> credit(ClientSession session, String pan, double amount) {
+        Bson unsharded = Filters.and(
+            Filters.eq("pan", pan),
+            Filters.not(Filters.gt("balanceShards", 0))
+        );
+        return Publishers.first(getCollection().updateOne(session, unsharded, Updates.inc("balance", amount)))
+            .thenCompose(result -> {
+                if (result.getModifiedCount() > 0) {
+                    return CompletableFuture.completedFuture(true);
+                }
+                return balanceShardsOf(session, Filters.eq("pan", pan)).thenCompose(shards -> {
+                    if (shards == 0) {
+                        return CompletableFuture.completedFuture(false);
+                    }
+                    return Publishers.first(getShardCollection().updateOne(
+                        session,
+                        Filters.and(
+                            Filters.eq("pan", pan),
+                            Filters.eq("shard", ThreadLocalRandom.current().nextInt(shards))
+                        ),
+                        Updates.inc("balance", amount),
+                        new UpdateOptions().upsert(true)
+                    )).thenApply(ignored -> true);
+                });
+            });
+    }
+
+    private CompletableFuture<Void> consolidate(ClientSession session, String pan) {
+        return Publishers.toList(getShardCollection().find(session, Filters.eq("pan", pan))).thenCompose(shardDocs -> {
+            CompletableFuture<Void> drained = CompletableFuture.completedFuture(null);
+            for (Document shardDoc : shardDocs) {
+                double shardBalance = shardDoc.getDouble("balance");
+                if (shardBalance == 0) {
+                    continue;
+                }
+                drained = drained.thenCompose(ignored -> Publishers.first(getShardCollection().updateOne(
+                    session,
+                    Filters.and(
+                        Filters.eq("pan", pan),
+                        Filters.eq("shard", shardDoc.getInteger("shard")),
+                        Filters.gte("balance", shardBalance)
+                    ),
+                    Updates.inc("balance", -shardBalance)
+                ))).thenCompose(result -> result.getModifiedCount() > 0
+                    ? Publishers.first(getCollection().updateOne(
+                        session, Filters.eq("pan", pan), Updates.inc("balance", shardBalance)))
+                        .thenApply(ignored -> (Void) null)
+                    : CompletableFuture.completedFuture(null));
+            }
+            return drained;
+        });
+    }
+
+    private CompletableFuture<Double> shardBalance(ClientSession session, String pan) {
+        return Publishers.toList(getShardCollection().find(session, Filters.eq("pan", pan))).thenApply(shardDocs -> {
+            double total = 0;
+            for (Document shardDoc : shardDocs) {
+                total += shardDoc.getDouble("balance");
+            }
+            return total;
+        });
+    }
+
+    private CompletableFuture<Integer> balanceShardsOf(ClientSession session, Bson filter) {
+        return Publishers.first(getCollection().find(session, filter).projection(Projections.include("balanceShards")).first())
+            .thenApply(doc -> doc == null || doc.getInteger("balanceShards") == null ? 0 : doc.getInteger("balanceShards"));
+    }
+
+    private List<Bson> cardPipeline(Bson filter) {
+        return List.of(
+            Aggregates.match(filter),
+            Aggregates.lookup("card_balance_shards", "pan", "pan", "balanceShardDocs")
+        );
+    }
+
+    private static class Rollback extends RuntimeException {
+        private final Object result;
+
+        private Rollback(Object result) {
+            super(null, null, false, false);
+            this.result = result;
+        }
+    }
+}
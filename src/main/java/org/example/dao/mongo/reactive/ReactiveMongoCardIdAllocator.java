@@ -0,0 +1,89 @@
+package org.example.dao.mongo.reactive;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Updates;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.mongodb.reactivestreams.client.MongoDatabase;
+import org.bson.Document;
+import org.example.database.ReactiveMongoConnection;
+
+import java.util.concurrent.CompletableFuture;
+
+class ReactiveMongoCardIdAllocator {
+
+    private static final String COUNTER_ID = "cardId";
+    private static final int DEFAULT_BLOCK_SIZE = 100;
+    private static final ReactiveMongoCardIdAllocator INSTANCE = new ReactiveMongoCardIdAllocator(DEFAULT_BLOCK_SIZE);
+
+    private final int blockSize;
+    private long next;
+    private long end;
+
+    ReactiveMongoCardIdAllocator(int blockSize) {
+        this.blockSize = blockSize;
+    }
+
+    static ReactiveMongoCardIdAllocator getInstance() {
+        return INSTANCE;
+    }
+
+    private MongoCollection<Document> getCollection() {
+        MongoDatabase database = ReactiveMongoConnection.getDatabase();
+        return database.getCollection("counters");
+    }
+
+    CompletableFuture<Integer> nextId() {
+        return nextIds(1).thenApply(ids -> ids[0]);
+    }
+
+    CompletableFuture<int[]> nextIds(int count) {
+        int[] ids = new int[count];
+        int taken = 0;
+        synchronized (this) {
+            while (taken < count && next < end) {
+                ids[taken++] = (int) next++;
+            }
+        }
+        if (taken == count) {
+            return CompletableFuture.completedFuture(ids);
+        }
+
+        int from = taken;
+        int size = Math.max(blockSize, count - taken);
+        return reserve(size).thenApply(first -> {
+            long value = first;
+            for (int i = from; i < count; i++) {
+                ids[i] = toCardId(value++);
+            }
+            synchronized (this) {
+                if (next >= end) {
+                    next = value;
+                    end = first + size;
+                }
+            }
+            return ids;
+        });
+    }
+
+    private CompletableFuture<Long> reserve(int size) {
+        return Publishers.first(getCollection().findOneAndUpdate(
+            Filters.eq("_id", COUNTER_ID),
+            Updates.inc("seq", (long) size),
+            new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER)
+        )).thenApply(counter -> {
+            if (counter == null) {
+                throw new IllegalStateException("Could not reserve card ids");
+            }
+            return counter.getLong("seq") + 1 - size;
+        });
+    }
+
+    private static int toCardId(long value) {
+        if (value > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Card id space exhausted");
+        }
+        return (int) value;
+    }
+}
@@ -0,0 +1,112 @@
+package org.example.dao.mongo.reactive;
+
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Updates;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.mongodb.reactivestreams.client.MongoDatabase;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.example.dao.AsyncCardUserDao;
+import org.example.dao.mongo.codec.MongoCodecs;
+import org.example.database.ReactiveMongoConnection;
+import org.example.model.CardUser;
+import org.example.model.HolderWithCards;
+import org.reactivestreams.Publisher;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+public class ReactiveMongoCardUserDao implements AsyncCardUserDao {
+
+    private static final int STREAM_BATCH_SIZE = 1000;
+
+    private MongoCollection<Document> getCollection() {
+        MongoDatabase database = ReactiveMongoConnection.getDatabase();
+        return database.getCollection("card_users");
+    }
+
+    private MongoCollection<CardUser> getCardUserCollection() {
+        MongoDatabase database = ReactiveMongoConnection.getDatabase();
+        return database.getCollection("card_users", CardUser.class).withCodecRegistry(MongoCodecs.REGISTRY);
+    }
+
+    private MongoCollection<HolderWithCards> getHolderWithCardsCollection() {
+        MongoDatabase database = ReactiveMongoConnection.getDatabase();
+        return database.getCollection("card_users", HolderWithCards.class).withCodecRegistry(MongoCodecs.REGISTRY);
+    }
+
+    @Override
+    public CompletableFuture<CardUser> create(CardUser cardUser) {
+        return Publishers.first(getCardUserCollection().insertOne(cardUser)).thenApply(result -> cardUser);
+    }
+
+    @Override
+    public CompletableFuture<Optional<CardUser>> findByIin(String iin) {
+        return Publishers.first(getCardUserCollection().find(Filters.eq("iin", iin)).first())
+            .thenApply(Optional::ofNullable);
+    }
+
+    @Override
+    public CompletableFuture<Optional<CardUser>> findByNameAndSurname(String name, String surname) {
+        return Publishers.first(getCardUserCollection().find(
+            Filters.and(
+                Filters.eq("name", name),
+                Filters.eq("surname", surname)
+            )
+        ).first()).thenApply(Optional::ofNullable);
+    }
+
+    @Override
+    public CompletableFuture<Optional<HolderWithCards>> findHolderWithCards(String iin) {
+        return Publishers.first(getHolderWithCardsCollection().aggregate(holderWithCardsPipeline(iin)).first())
+            .thenApply(Optional::ofNullable);
+    }
+
+    @Override
+    public Publisher<CardUser> findAll() {
+        return getCardUserCollection().find().batchSize(STREAM_BATCH_SIZE);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> update(CardUser cardUser) {
+        return Publishers.first(getCollection().updateOne(
+            Filters.eq("iin", cardUser.getIin()),
+            Updates.combine(
+                Updates.set("name", cardUser.getName()),
+                Updates.set("surname", cardUser.getSurname())
+            )
+        )).thenApply(result -> result.getModifiedCount() > 0);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> deleteByIin(String iin) {
+        return Publishers.first(getCollection().deleteOne(Filters.eq("iin", iin)))
+            .thenApply(result -> result.getDeletedCount() > 0);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> existsByIin(String iin) {
+        return Publishers.first(getCollection().countDocuments(Filters.eq("iin", iin)))
+            .thenApply(count -> count != null && count > 0);
+    }
+
+    private List<Bson> holderWithCardsPipeline(String iin) {
+        return List.of(
+            Aggregates.match(Filters.eq("iin", iin)),
+            new Document("$lookup", new Document("from", "cards")
+                .append("localField", "iin")
+                .append("foreignField", "iin")
+                .append("pipeline", List.of(
+                    new Document("$lookup", new Document("from", "card_balance_shards")
+                        .append("localField", "pan")
+                        .append("foreignField", "pan")
+                        .append("as", "balanceShardDocs")),
+                    new Document("$sort", new Document("cardId", 1))
+                ))
+                .append("as", "cards")),
+            Aggregates.limit(1)
+        );
+    }
+}
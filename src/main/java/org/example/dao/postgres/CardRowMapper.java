@@ -0,0 +1,49 @@
+package org.example.dao.postgres;
+
+import org.example.model.Card;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+final class CardRowMapper {
+
+    private final int cardId;
+    private final int pan;
+    private final int cvv;
+    private final int dateOfExpire;
+    private final int name;
+    private final int surname;
+    private final int iin;
+    private final int currency;
+    private final int balance;
+
+    private CardRowMapper(ResultSet rs) throws SQLException {
+        this.cardId = rs.findColumn("card_id");
+        this.pan = rs.findColumn("pan");
+        this.cvv = rs.findColumn("cvv");
+        this.dateOfExpire = rs.findColumn("date_of_expire");
+        this.name = rs.findColumn("name");
+        this.surname = rs.findColumn("surname");
+        this.iin = rs.findColumn("iin");
+        this.currency = rs.findColumn("currency");
+        this.balance = rs.findColumn("balance");
+    }
+
+    static CardRowMapper of(ResultSet rs) throws SQLException {
+        return new CardRowMapper(rs);
+    }
+
+    Card map(ResultSet rs) throws SQLException {
+        return new Card(
+            rs.getInt(cardId),
+            rs.getString(pan),
+            rs.getString(cvv),
+            rs.getString(dateOfExpire),
+            rs.getString(name),
+            rs.getString(surname),
+            rs.getString(iin),
+            rs.getString(currency),
+            rs.getDouble(balance)
+        );
+    }
+}
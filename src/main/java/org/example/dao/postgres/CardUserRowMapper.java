@@ -0,0 +1,35 @@
+package org.example.dao.postgres;
+
+import org.example.model.CardUser;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+final class CardUserRowMapper {
+
+    private final int name;
+    private final int surname;
+    private final int iin;
+
+    private CardUserRowMapper(ResultSet rs, String prefix) throws SQLException {
+        this.name = rs.findColumn(prefix + "name");
+        this.surname = rs.findColumn(prefix + "surname");
+        this.iin = rs.findColumn(prefix + "iin");
+    }
+
+    static CardUserRowMapper of(ResultSet rs) throws SQLException {
+        return new CardUserRowMapper(rs, "");
+    }
+
+    static CardUserRowMapper of(ResultSet rs, String prefix) throws SQLException {
+        return new CardUserRowMapper(rs, prefix);
+    }
+
+    CardUser map(ResultSet rs) throws SQLException {
+        return new CardUser(
+            rs.getString(name),
+            rs.getString(surname),
+            rs.getString(iin)
+        );
+    }
+}
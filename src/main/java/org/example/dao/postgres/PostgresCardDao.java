@@ -1,24 +1,63 @@
 package org.example.dao.postgres;
 
+import org.example.database.ConnectionProvider;
 import org.example.database.DatabaseConnection;
+import org.example.fx.FxRateSnapshot;
 import org.example.model.Card;
+import org.example.model.CardEvent;
+import org.example.model.Disbursement;
+import org.example.model.DisbursementResult;
 import org.example.dao.CardDao;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
 
 public class PostgresCardDao implements CardDao {
 
+    private static final int STREAM_FETCH_SIZE = 1000;
+    private static final int BATCH_SIZE = 1000;
+    static final String CARD_COLUMNS =
+        "c.card_id, c.pan, c.cvv, c.date_of_expire, c.name, c.surname, c.iin, c.currency, " +
+        "CASE WHEN c.balance_shards > 0 THEN c.balance + COALESCE(" +
+        "(SELECT SUM(s.balance) FROM card_balance_shards s WHERE s.pan = c.pan), 0) " +
+        "ELSE c.balance END AS balance";
+    private static final String CARD_SELECT = "SELECT " + CARD_COLUMNS + " FROM cards c";
+
+    private static final String UPDATE_SQL =
+        "UPDATE cards SET pan = ?, cvv = ?, date_of_expire = ?, name = ?, " +
+        "surname = ?, iin = ?, currency = ?, balance = COALESCE(? - COALESCE(" +
+        "(SELECT SUM(s.balance) FROM card_balance_shards s WHERE s.pan = cards.pan), 0), balance) " +
+        "WHERE card_id = ?";
+
+    private final ConnectionProvider connectionProvider;
+
+    public PostgresCardDao() {
+        this(DatabaseConnection::getPostgresConnection);
+    }
+
+    public PostgresCardDao(ConnectionProvider connectionProvider) {
+        this.connectionProvider = connectionProvider;
+    }
+
     @Override
     public Card create(Card card) {
-        String sql = "INSERT INTO cards (pan, cvv, date_of_expire, name, surname, currency, balance) " +
-                     "VALUES (?, ?, ?, ?, ?, ?, ?) RETURNING card_id";
-        try (Connection conn = DatabaseConnection.getPostgresConnection();
+        String sql = "INSERT INTO cards (pan, cvv, date_of_expire, name, surname, iin, currency, balance) " +
+                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?) RETURNING card_id";
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, card.getPan());
@@ -26,8 +65,9 @@ public class PostgresCardDao implements CardDao {
             pstmt.setString(3, card.getDateOfExpire());
             pstmt.setString(4, card.getName());
             pstmt.setString(5, card.getSurname());
-            pstmt.setString(6, card.getCurrency());
-            pstmt.setDouble(7, card.getBalance());
+            pstmt.setString(6, card.getIin());
+            pstmt.setString(7, card.getCurrency());
+            pstmt.setDouble(8, card.getBalance());
             
             ResultSet rs = pstmt.executeQuery();
             if (rs.next()) {
@@ -41,20 +81,63 @@ public class PostgresCardDao implements CardDao {
         }
     }
 
+    @Override
+    public int createBatch(List<Card> cards) {
+        if (cards.isEmpty()) {
+            return 0;
+        }
+        String sql = "INSERT INTO cards (pan, cvv, date_of_expire, name, surname, iin, currency, balance) " +
+                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        try (Connection conn = connectionProvider.getConnection()) {
+            conn.setAutoCommit(false);
+            
+            try (PreparedStatement pstmt = conn.prepareStatement(sql, new String[] {"card_id"})) {
+                for (Card card : cards) {
+                    pstmt.setString(1, card.getPan());
+                    pstmt.setString(2, card.getCvv());
+                    pstmt.setString(3, card.getDateOfExpire());
+                    pstmt.setString(4, card.getName());
+                    pstmt.setString(5, card.getSurname());
+                    pstmt.setString(6, card.getIin());
+                    pstmt.setString(7, card.getCurrency());
+                    pstmt.setDouble(8, card.getBalance());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+                
+                try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                    int i = 0;
+                    while (keys.next() && i < cards.size()) {
+                        cards.get(i++).setCardId(keys.getInt(1));
+                    }
+                }
+                
+                conn.commit();
+                return cards.size();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error creating cards: " + e.getMessage());
+            return 0;
+        }
+    }
+
     @Override
     public Optional<Card> findById(Integer cardId) {
-        String sql = "SELECT * FROM cards WHERE card_id = ?";
+        String sql = CARD_SELECT + " WHERE c.card_id = ?";
         return findCardByQuery(sql, cardId);
     }
 
     @Override
     public Optional<Card> findByPan(String pan) {
-        String sql = "SELECT * FROM cards WHERE pan = ?";
+        String sql = CARD_SELECT + " WHERE c.pan = ?";
         return findCardByQuery(sql, pan);
     }
 
     private Optional<Card> findCardByQuery(String sql, Object param) {
-        try (Connection conn = DatabaseConnection.getPostgresConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             if (param instanceof Integer) {
@@ -65,7 +148,7 @@ public class PostgresCardDao implements CardDao {
             
             ResultSet rs = pstmt.executeQuery();
             if (rs.next()) {
-                return Optional.of(mapResultSetToCard(rs));
+                return Optional.of(CardRowMapper.of(rs).map(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error finding card: " + e.getMessage());
@@ -76,16 +159,17 @@ public class PostgresCardDao implements CardDao {
     @Override
     public List<Card> findByNameAndSurname(String name, String surname) {
         List<Card> cards = new ArrayList<>();
-        String sql = "SELECT * FROM cards WHERE name = ? AND surname = ?";
-        try (Connection conn = DatabaseConnection.getPostgresConnection();
+        String sql = CARD_SELECT + " WHERE c.name = ? AND c.surname = ?";
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, name);
             pstmt.setString(2, surname);
             ResultSet rs = pstmt.executeQuery();
+            CardRowMapper mapper = CardRowMapper.of(rs);
             
             while (rs.next()) {
-                cards.add(mapResultSetToCard(rs));
+                cards.add(mapper.map(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error finding cards by name: " + e.getMessage());
@@ -96,13 +180,14 @@ public class PostgresCardDao implements CardDao {
     @Override
     public List<Card> findAll() {
         List<Card> cards = new ArrayList<>();
-        String sql = "SELECT * FROM cards";
-        try (Connection conn = DatabaseConnection.getPostgresConnection();
+        String sql = CARD_SELECT;
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql);
              ResultSet rs = pstmt.executeQuery()) {
             
+            CardRowMapper mapper = CardRowMapper.of(rs);
             while (rs.next()) {
-                cards.add(mapResultSetToCard(rs));
+                cards.add(mapper.map(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error finding all cards: " + e.getMessage());
@@ -111,21 +196,105 @@ public class PostgresCardDao implements CardDao {
     }
 
     @Override
-    public boolean update(Card card) {
-        String sql = "UPDATE cards SET pan = ?, cvv = ?, date_of_expire = ?, name = ?, " +
-                     "surname = ?, currency = ?, balance = ? WHERE card_id = ?";
-        try (Connection conn = DatabaseConnection.getPostgresConnection();
+    public void forEachCard(Consumer<Card> action) {
+        String sql = CARD_SELECT;
+        try (Connection conn = connectionProvider.getConnection()) {
+            conn.setAutoCommit(false);
+            
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setFetchSize(STREAM_FETCH_SIZE);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    CardRowMapper mapper = CardRowMapper.of(rs);
+                    while (rs.next()) {
+                        action.accept(mapper.map(rs));
+                    }
+                }
+            } finally {
+                conn.rollback();
+            }
+        } catch (SQLException e) {
+            System.err.println("Error streaming cards: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void forEachCardInPanRange(String fromPan, String toPan, Consumer<Card> action) {
+        StringBuilder sql = new StringBuilder(CARD_SELECT).append(" WHERE TRUE");
+        if (fromPan != null) {
+            sql.append(" AND c.pan >= ?");
+        }
+        if (toPan != null) {
+            sql.append(" AND c.pan < ?");
+        }
+        sql.append(" ORDER BY c.pan");
+        
+        try (Connection conn = connectionProvider.getConnection()) {
+            conn.setAutoCommit(false);
+            
+            try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+                int index = 1;
+                if (fromPan != null) {
+                    pstmt.setString(index++, fromPan);
+                }
+                if (toPan != null) {
+                    pstmt.setString(index, toPan);
+                }
+                pstmt.setFetchSize(STREAM_FETCH_SIZE);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    CardRowMapper mapper = CardRowMapper.of(rs);
+                    while (rs.next()) {
+                        action.accept(mapper.map(rs));
+                    }
+                }
+            } finally {
+                conn.rollback();
+            }
+        } catch (SQLException e) {
+            System.err.println("Error streaming cards by PAN range: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public List<Card> findByIdRange(int fromCardId, int toCardId) {
+        List<Card> cards = new ArrayList<>();
+        String sql = CARD_SELECT + " WHERE c.card_id >= ? AND c.card_id < ? ORDER BY c.card_id";
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
-            pstmt.setString(1, card.getPan());
-            pstmt.setString(2, card.getCvv());
-            pstmt.setString(3, card.getDateOfExpire());
-            pstmt.setString(4, card.getName());
-            pstmt.setString(5, card.getSurname());
-            pstmt.setString(6, card.getCurrency());
-            pstmt.setDouble(7, card.getBalance());
-            pstmt.setInt(8, card.getCardId());
+            pstmt.setInt(1, fromCardId);
+            pstmt.setInt(2, toCardId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                CardRowMapper mapper = CardRowMapper.of(rs);
+                while (rs.next()) {
+                    cards.add(mapper.map(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error finding cards by id range: " + e.getMessage());
+        }
+        return cards;
+    }
+
+    @Override
+    public int findMaxCardId() {
+        String sql = "SELECT COALESCE(MAX(card_id), 0) FROM cards";
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException e) {
+            System.err.println("Error finding max card id: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    @Override
+    public boolean update(Card card) {
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(UPDATE_SQL)) {
             
+            bindUpdate(pstmt, card);
             return pstmt.executeUpdate() > 0;
         } catch (SQLException e) {
             System.err.println("Error updating card: " + e.getMessage());
@@ -133,10 +302,158 @@ public class PostgresCardDao implements CardDao {
         }
     }
 
+    @Override
+    public int updateBatch(List<Card> cards) {
+        if (cards.isEmpty()) {
+            return 0;
+        }
+        try (Connection conn = connectionProvider.getConnection()) {
+            conn.setAutoCommit(false);
+            
+            try (PreparedStatement pstmt = conn.prepareStatement(UPDATE_SQL)) {
+                for (Card card : cards) {
+                    bindUpdate(pstmt, card);
+                    pstmt.addBatch();
+                }
+                int updated = 0;
+                for (int count : pstmt.executeBatch()) {
+                    if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+                        updated++;
+                    }
+                }
+                conn.commit();
+                return updated;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error updating cards: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    @Override
+    public int accrueInterest(Map<String, Double> interestByPan, String period) {
+        if (interestByPan.isEmpty()) {
+            return 0;
+        }
+        String sql = "UPDATE cards SET balance = balance + ?, last_accrued_period = ? " +
+                     "WHERE pan = ? AND last_accrued_period IS DISTINCT FROM ?";
+        try (Connection conn = connectionProvider.getConnection()) {
+            conn.setAutoCommit(false);
+            
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                List<Map.Entry<String, Double>> entries = new ArrayList<>(interestByPan.entrySet());
+                for (Map.Entry<String, Double> entry : entries) {
+                    pstmt.setDouble(1, entry.getValue());
+                    pstmt.setString(2, period);
+                    pstmt.setString(3, entry.getKey());
+                    pstmt.setString(4, period);
+                    pstmt.addBatch();
+                }
+                
+                int[] counts = pstmt.executeBatch();
+                List<CardEvent> events = new ArrayList<>();
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] > 0) {
+                        events.add(CardEvent.credit(entries.get(i).getKey(), entries.get(i).getValue(),
+                                                    CardEvent.Operation.INTEREST));
+                    }
+                }
+                if (!events.isEmpty()) {
+                    recordEvents(conn, events);
+                }
+                conn.commit();
+                return events.size();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error accruing interest: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    @Override
+    public int renewCards(List<Card> cards) {
+        if (cards.isEmpty()) {
+            return 0;
+        }
+        try (Connection conn = connectionProvider.getConnection()) {
+            conn.setAutoCommit(false);
+            
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "UPDATE cards SET cvv = ?, date_of_expire = ? WHERE pan = ?")) {
+                for (Card card : cards) {
+                    pstmt.setString(1, card.getCvv());
+                    pstmt.setString(2, card.getDateOfExpire());
+                    pstmt.setString(3, card.getPan());
+                    pstmt.addBatch();
+                }
+                int renewed = 0;
+                for (int count : pstmt.executeBatch()) {
+                    if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+                        renewed++;
+                    }
+                }
+                conn.commit();
+                return renewed;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error renewing cards: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    Map<String, String> findAccrualPeriods(Connection conn, Collection<String> pans) throws SQLException {
+        Map<String, String> periods = new HashMap<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT pan, last_accrued_period FROM cards WHERE pan = ANY(?) AND last_accrued_period IS NOT NULL")) {
+            pstmt.setArray(1, conn.createArrayOf("varchar", pans.toArray()));
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                periods.put(rs.getString("pan"), rs.getString("last_accrued_period"));
+            }
+        }
+        return periods;
+    }
+
+    void restoreAccrualPeriods(Connection conn, Map<String, String> periods) throws SQLException {
+        if (periods.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "UPDATE cards SET last_accrued_period = ? WHERE pan = ?")) {
+            for (Map.Entry<String, String> entry : periods.entrySet()) {
+                pstmt.setString(1, entry.getValue());
+                pstmt.setString(2, entry.getKey());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    private void bindUpdate(PreparedStatement pstmt, Card card) throws SQLException {
+        pstmt.setString(1, card.getPan());
+        pstmt.setString(2, card.getCvv());
+        pstmt.setString(3, card.getDateOfExpire());
+        pstmt.setString(4, card.getName());
+        pstmt.setString(5, card.getSurname());
+        pstmt.setString(6, card.getIin());
+        pstmt.setString(7, card.getCurrency());
+        pstmt.setObject(8, card.getBalance(), Types.DOUBLE);
+        pstmt.setInt(9, card.getCardId());
+    }
+
     @Override
     public boolean deleteById(Integer cardId) {
         String sql = "DELETE FROM cards WHERE card_id = ?";
-        try (Connection conn = DatabaseConnection.getPostgresConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, cardId);
@@ -150,7 +467,7 @@ public class PostgresCardDao implements CardDao {
     @Override
     public boolean deleteByPan(String pan) {
         String sql = "DELETE FROM cards WHERE pan = ?";
-        try (Connection conn = DatabaseConnection.getPostgresConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, pan);
@@ -164,7 +481,7 @@ public class PostgresCardDao implements CardDao {
     @Override
     public boolean existsByPan(String pan) {
         String sql = "SELECT 1 FROM cards WHERE pan = ?";
-        try (Connection conn = DatabaseConnection.getPostgresConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, pan);
@@ -178,31 +495,67 @@ public class PostgresCardDao implements CardDao {
 
     @Override
     public boolean transferMoney(String fromPan, String toPan, Double amount) {
-        try (Connection conn = DatabaseConnection.getPostgresConnection()) {
+        try (Connection conn = connectionProvider.getConnection()) {
             conn.setAutoCommit(false);
             
             try {
-                String withdrawSql = "UPDATE cards SET balance = balance - ? WHERE pan = ? AND balance >= ?";
-                try (PreparedStatement pstmt = conn.prepareStatement(withdrawSql)) {
-                    pstmt.setDouble(1, amount);
-                    pstmt.setString(2, fromPan);
-                    pstmt.setDouble(3, amount);
-                    if (pstmt.executeUpdate() == 0) {
-                        conn.rollback();
-                        return false;
-                    }
+                if (!debit(conn, fromPan, null, amount) || !credit(conn, toPan, amount)) {
+                    conn.rollback();
+                    return false;
                 }
                 
-                String depositSql = "UPDATE cards SET balance = balance + ? WHERE pan = ?";
-                try (PreparedStatement pstmt = conn.prepareStatement(depositSql)) {
-                    pstmt.setDouble(1, amount);
+                recordEvents(conn, List.of(
+                    CardEvent.debit(fromPan, amount, CardEvent.Operation.TRANSFER),
+                    CardEvent.credit(toPan, amount, CardEvent.Operation.TRANSFER)));
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error transferring money: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public boolean transferMoneyWithConversion(String fromPan, String toPan, Double amount, FxRateSnapshot rates) {
+        try (Connection conn = connectionProvider.getConnection()) {
+            conn.setAutoCommit(false);
+            
+            try {
+                String fromCurrency = null;
+                String toCurrency = null;
+                int found = 0;
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "SELECT pan, currency FROM cards WHERE pan IN (?, ?)")) {
+                    pstmt.setString(1, fromPan);
                     pstmt.setString(2, toPan);
-                    if (pstmt.executeUpdate() == 0) {
-                        conn.rollback();
-                        return false;
+                    ResultSet rs = pstmt.executeQuery();
+                    while (rs.next()) {
+                        found++;
+                        if (rs.getString("pan").equals(fromPan)) {
+                            fromCurrency = rs.getString("currency");
+                        } else {
+                            toCurrency = rs.getString("currency");
+                        }
                     }
                 }
+                if (found < 2 || !rates.supports(fromCurrency) || !rates.supports(toCurrency)) {
+                    conn.rollback();
+                    return false;
+                }
                 
+                double converted = rates.convert(amount, fromCurrency, toCurrency);
+                if (!debit(conn, fromPan, null, amount) || !credit(conn, toPan, converted)) {
+                    conn.rollback();
+                    return false;
+                }
+                
+                recordEvents(conn, List.of(
+                    CardEvent.debit(fromPan, amount, CardEvent.Operation.TRANSFER),
+                    CardEvent.credit(toPan, converted, CardEvent.Operation.TRANSFER)));
                 conn.commit();
                 return true;
             } catch (SQLException e) {
@@ -229,17 +582,81 @@ public class PostgresCardDao implements CardDao {
     }
 
     @Override
-    public boolean withdrawMoney(String pan, String cvv, Double amount) {
-        String sql = "UPDATE cards SET balance = balance - ? WHERE pan = ? AND cvv = ? AND balance >= ?";
-        try (Connection conn = DatabaseConnection.getPostgresConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    public DisbursementResult disburse(String sourcePan, List<Disbursement> disbursements, boolean allOrNothing) {
+        DisbursementResult result = new DisbursementResult(sourcePan, disbursements);
+        if (disbursements.isEmpty()) {
+            return result;
+        }
+        
+        try (Connection conn = connectionProvider.getConnection()) {
+            conn.setAutoCommit(false);
             
-            pstmt.setDouble(1, amount);
-            pstmt.setString(2, pan);
-            pstmt.setString(3, cvv);
-            pstmt.setDouble(4, amount);
+            try {
+                Set<String> existing = findExistingPans(conn, disbursements);
+                for (int i = 0; i < result.size(); i++) {
+                    if (!existing.contains(disbursements.get(i).getDestinationPan())) {
+                        result.getEntry(i).setStatus(DisbursementResult.Status.DESTINATION_NOT_FOUND);
+                    }
+                }
+                
+                double total = result.getPendingAmount();
+                boolean incomplete = result.countWithStatus(DisbursementResult.Status.PENDING) < result.size();
+                if ((incomplete && allOrNothing) || total <= 0) {
+                    conn.rollback();
+                    result.markPending(DisbursementResult.Status.ROLLED_BACK);
+                    return result;
+                }
+                
+                if (!debit(conn, sourcePan, null, total)) {
+                    conn.rollback();
+                    result.markPending(DisbursementResult.Status.INSUFFICIENT_FUNDS);
+                    return result;
+                }
+                
+                creditBatch(conn, result);
+                
+                double refund = total - result.getCreditedAmount();
+                if (refund > 0) {
+                    if (allOrNothing) {
+                        conn.rollback();
+                        result.markUnsettled(DisbursementResult.Status.ROLLED_BACK);
+                        return result;
+                    }
+                    credit(conn, sourcePan, refund);
+                }
+                
+                recordEvents(conn, CardEvent.ofDisbursement(result, total, refund));
+                conn.commit();
+                return result;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error disbursing money: " + e.getMessage());
+            result.markUnsettled(DisbursementResult.Status.FAILED);
+            return result;
+        }
+    }
+
+    @Override
+    public boolean withdrawMoney(String pan, String cvv, Double amount) {
+        try (Connection conn = connectionProvider.getConnection()) {
+            conn.setAutoCommit(false);
             
-            return pstmt.executeUpdate() > 0;
+            try {
+                if (!debit(conn, pan, cvv, amount)) {
+                    conn.rollback();
+                    return false;
+                }
+                
+                recordEvents(conn, List.of(CardEvent.debit(pan, amount, CardEvent.Operation.WITHDRAWAL)));
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
         } catch (SQLException e) {
             System.err.println("Error withdrawing money: " + e.getMessage());
             return false;
@@ -248,14 +665,22 @@ public class PostgresCardDao implements CardDao {
 
     @Override
     public boolean depositMoney(String pan, Double amount) {
-        String sql = "UPDATE cards SET balance = balance + ? WHERE pan = ?";
-        try (Connection conn = DatabaseConnection.getPostgresConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setDouble(1, amount);
-            pstmt.setString(2, pan);
+        try (Connection conn = connectionProvider.getConnection()) {
+            conn.setAutoCommit(false);
             
-            return pstmt.executeUpdate() > 0;
+            try {
+                if (!credit(conn, pan, amount)) {
+                    conn.rollback();
+                    return false;
+                }
+                
+                recordEvents(conn, List.of(CardEvent.credit(pan, amount, CardEvent.Operation.DEPOSIT)));
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
         } catch (SQLException e) {
             System.err.println("Error depositing money: " + e.getMessage());
             return false;
@@ -271,17 +696,330 @@ public class PostgresCardDao implements CardDao {
         return depositMoney(cards.get(0).getPan(), amount);
     }
 
-    private Card mapResultSetToCard(ResultSet rs) throws SQLException {
-        Card card = new Card();
-        card.setCardId(rs.getInt("card_id"));
-        card.setPan(rs.getString("pan"));
-        card.setCvv(rs.getString("cvv"));
-        card.setDateOfExpire(rs.getString("date_of_expire"));
-        card.setName(rs.getString("name"));
-        card.setSurname(rs.getString("surname"));
-        card.setCurrency(rs.getString("currency"));
-        card.setBalance(rs.getDouble("balance"));
-        return card;
+    @Override
+    public boolean enableBalanceSharding(String pan, int shards) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("Shard count must be positive: " + shards);
+        }
+        try (Connection conn = connectionProvider.getConnection()) {
+            conn.setAutoCommit(false);
+            
+            try {
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "UPDATE cards SET balance_shards = ? WHERE pan = ?")) {
+                    pstmt.setInt(1, shards);
+                    pstmt.setString(2, pan);
+                    if (pstmt.executeUpdate() == 0) {
+                        conn.rollback();
+                        return false;
+                    }
+                }
+                
+                String insertSql = "INSERT INTO card_balance_shards (pan, shard, balance) VALUES (?, ?, 0) " +
+                                   "ON CONFLICT (pan, shard) DO NOTHING";
+                try (PreparedStatement pstmt = conn.prepareStatement(insertSql)) {
+                    for (int shard = 0; shard < shards; shard++) {
+                        pstmt.setString(1, pan);
+                        pstmt.setInt(2, shard);
+                        pstmt.addBatch();
+                    }
+                    pstmt.executeBatch();
+                }
+                
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error enabling balance sharding: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public boolean disableBalanceSharding(String pan) {
+        try (Connection conn = connectionProvider.getConnection()) {
+            conn.setAutoCommit(false);
+            
+            try {
+                double shardTotal = lockShards(conn, pan);
+                String sql = "UPDATE cards SET balance = balance + ?, balance_shards = 0 WHERE pan = ?";
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setDouble(1, shardTotal);
+                    pstmt.setString(2, pan);
+                    if (pstmt.executeUpdate() == 0) {
+                        conn.rollback();
+                        return false;
+                    }
+                }
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "DELETE FROM card_balance_shards WHERE pan = ?")) {
+                    pstmt.setString(1, pan);
+                    pstmt.executeUpdate();
+                }
+                
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error disabling balance sharding: " + e.getMessage());
+            return false;
+        }
+    }
+
+    boolean debit(Connection conn, String pan, String cvv, double amount) throws SQLException {
+        String sql = "UPDATE cards SET balance = balance - ? " +
+                     "WHERE pan = ? AND balance >= ? AND balance_shards = 0" +
+                     (cvv != null ? " AND cvv = ?" : "");
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setDouble(1, amount);
+            pstmt.setString(2, pan);
+            pstmt.setDouble(3, amount);
+            if (cvv != null) {
+                pstmt.setString(4, cvv);
+            }
+            if (pstmt.executeUpdate() > 0) {
+                return true;
+            }
+        }
+        
+        int shards = findBalanceShards(conn, pan, cvv);
+        if (shards == 0) {
+            return false;
+        }
+        
+        String shardSql = "UPDATE card_balance_shards SET balance = balance - ? " +
+                          "WHERE pan = ? AND shard = ? AND balance >= ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(shardSql)) {
+            pstmt.setDouble(1, amount);
+            pstmt.setString(2, pan);
+            pstmt.setInt(3, ThreadLocalRandom.current().nextInt(shards));
+            pstmt.setDouble(4, amount);
+            if (pstmt.executeUpdate() > 0) {
+                return true;
+            }
+        }
+        
+        return consolidateAndDebit(conn, pan, amount);
+    }
+
+    boolean credit(Connection conn, String pan, double amount) throws SQLException {
+        String sql = "UPDATE cards SET balance = balance + ? WHERE pan = ? AND balance_shards = 0";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setDouble(1, amount);
+            pstmt.setString(2, pan);
+            if (pstmt.executeUpdate() > 0) {
+                return true;
+            }
+        }
+        
+        String shardSql = "UPDATE card_balance_shards s SET balance = s.balance + ? FROM cards c " +
+                          "WHERE c.pan = ? AND s.pan = c.pan AND s.shard = ? % NULLIF(c.balance_shards, 0)";
+        try (PreparedStatement pstmt = conn.prepareStatement(shardSql)) {
+            pstmt.setDouble(1, amount);
+            pstmt.setString(2, pan);
+            pstmt.setInt(3, ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE));
+            return pstmt.executeUpdate() > 0;
+        }
+    }
+
+    void lockPans(Connection conn, Collection<String> pans) throws SQLException {
+        for (String lockSql : new String[] {
+                "SELECT pan FROM cards WHERE pan = ANY(?) ORDER BY pan FOR UPDATE",
+                "SELECT pan FROM card_balance_shards WHERE pan = ANY(?) ORDER BY pan, shard FOR UPDATE"}) {
+            try (PreparedStatement pstmt = conn.prepareStatement(lockSql)) {
+                pstmt.setArray(1, conn.createArrayOf("varchar", pans.toArray()));
+                pstmt.executeQuery().close();
+            }
+        }
+    }
+
+    List<Card> lockCards(Connection conn, Collection<String> pans) throws SQLException {
+        lockPans(conn, pans);
+        
+        List<Card> cards = new ArrayList<>(pans.size());
+        try (PreparedStatement pstmt = conn.prepareStatement(CARD_SELECT + " WHERE c.pan = ANY(?)")) {
+            pstmt.setArray(1, conn.createArrayOf("varchar", pans.toArray()));
+            ResultSet rs = pstmt.executeQuery();
+            CardRowMapper mapper = CardRowMapper.of(rs);
+            while (rs.next()) {
+                cards.add(mapper.map(rs));
+            }
+        }
+        return cards;
+    }
+
+    List<Card> findByHolder(String iin) {
+        List<Card> cards = new ArrayList<>();
+        String sql = CARD_SELECT + " WHERE c.iin = ? ORDER BY c.card_id";
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setString(1, iin);
+            ResultSet rs = pstmt.executeQuery();
+            CardRowMapper mapper = CardRowMapper.of(rs);
+            
+            while (rs.next()) {
+                cards.add(mapper.map(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error finding cards by holder: " + e.getMessage());
+        }
+        return cards;
+    }
+
+    void insertWithIds(Connection conn, List<Card> cards, boolean skipExisting) throws SQLException {
+        String sql = "INSERT INTO cards (card_id, pan, cvv, date_of_expire, name, surname, iin, currency, balance) " +
+                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)" + (skipExisting ? " ON CONFLICT (pan) DO NOTHING" : "");
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (Card card : cards) {
+                pstmt.setInt(1, card.getCardId());
+                pstmt.setString(2, card.getPan());
+                pstmt.setString(3, card.getCvv());
+                pstmt.setString(4, card.getDateOfExpire());
+                pstmt.setString(5, card.getName());
+                pstmt.setString(6, card.getSurname());
+                pstmt.setString(7, card.getIin());
+                pstmt.setString(8, card.getCurrency());
+                pstmt.setDouble(9, card.getBalance());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    int deleteByPans(Connection conn, Collection<String> pans) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM cards WHERE pan = ANY(?)")) {
+            pstmt.setArray(1, conn.createArrayOf("varchar", pans.toArray()));
+            return pstmt.executeUpdate();
+        }
+    }
+
+    Set<String> findExistingPans(Connection conn, List<Disbursement> disbursements) throws SQLException {
+        Set<String> pans = new HashSet<>();
+        for (Disbursement disbursement : disbursements) {
+            pans.add(disbursement.getDestinationPan());
+        }
+        
+        Set<String> existing = new HashSet<>();
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT pan FROM cards WHERE pan = ANY(?)")) {
+            pstmt.setArray(1, conn.createArrayOf("varchar", pans.toArray()));
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                existing.add(rs.getString("pan"));
+            }
+        }
+        return existing;
+    }
+
+    void recordEvents(Connection conn, List<CardEvent> events) throws SQLException {
+        String sql = "INSERT INTO card_events (pan, event_type, amount, operation) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (CardEvent event : events) {
+                pstmt.setString(1, event.getPan());
+                pstmt.setString(2, event.getType().name());
+                pstmt.setDouble(3, event.getAmount());
+                pstmt.setString(4, event.getOperation().name());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    private void creditBatch(Connection conn, DisbursementResult result) throws SQLException {
+        String sql = "UPDATE cards SET balance = balance + ? WHERE pan = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            List<DisbursementResult.Entry> chunk = new ArrayList<>(BATCH_SIZE);
+            for (DisbursementResult.Entry entry : result.getEntries()) {
+                if (entry.getStatus() != DisbursementResult.Status.PENDING) {
+                    continue;
+                }
+                pstmt.setDouble(1, entry.getDisbursement().getAmount());
+                pstmt.setString(2, entry.getDisbursement().getDestinationPan());
+                pstmt.addBatch();
+                chunk.add(entry);
+                
+                if (chunk.size() == BATCH_SIZE) {
+                    applyBatch(pstmt, chunk);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                applyBatch(pstmt, chunk);
+            }
+        }
+    }
+
+    private void applyBatch(PreparedStatement pstmt, List<DisbursementResult.Entry> chunk) throws SQLException {
+        int[] counts = pstmt.executeBatch();
+        for (int i = 0; i < chunk.size(); i++) {
+            boolean applied = counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO;
+            chunk.get(i).setStatus(applied
+                ? DisbursementResult.Status.CREDITED
+                : DisbursementResult.Status.DESTINATION_NOT_FOUND);
+        }
+        chunk.clear();
+    }
+
+    private int findBalanceShards(Connection conn, String pan, String cvv) throws SQLException {
+        String sql = "SELECT balance_shards FROM cards WHERE pan = ?" + (cvv != null ? " AND cvv = ?" : "");
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, pan);
+            if (cvv != null) {
+                pstmt.setString(2, cvv);
+            }
+            ResultSet rs = pstmt.executeQuery();
+            return rs.next() ? rs.getInt("balance_shards") : 0;
+        }
+    }
+
+    private boolean consolidateAndDebit(Connection conn, String pan, double amount) throws SQLException {
+        double cardBalance;
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT balance FROM cards WHERE pan = ? FOR UPDATE")) {
+            pstmt.setString(1, pan);
+            ResultSet rs = pstmt.executeQuery();
+            if (!rs.next()) {
+                return false;
+            }
+            cardBalance = rs.getDouble("balance");
+        }
+        
+        double total = cardBalance + lockShards(conn, pan);
+        if (total < amount) {
+            return false;
+        }
+        
+        String shardSql = "UPDATE card_balance_shards SET balance = CASE WHEN shard = 0 THEN ? ELSE 0 END " +
+                          "WHERE pan = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(shardSql)) {
+            pstmt.setDouble(1, total - amount);
+            pstmt.setString(2, pan);
+            pstmt.executeUpdate();
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "UPDATE cards SET balance = 0 WHERE pan = ?")) {
+            pstmt.setString(1, pan);
+            pstmt.executeUpdate();
+        }
+        return true;
+    }
+
+    private double lockShards(Connection conn, String pan) throws SQLException {
+        double total = 0;
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT balance FROM card_balance_shards WHERE pan = ? ORDER BY shard FOR UPDATE")) {
+            pstmt.setString(1, pan);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                total += rs.getDouble("balance");
+            }
+        }
+        return total;
     }
 }
 
@@ -0,0 +1,90 @@
+package org.example.dao.postgres;
+
+import org.example.dao.CardEventOutbox;
+import org.example.database.ConnectionProvider;
+import org.example.database.DatabaseConnection;
+import org.example.model.CardEvent;
+import org.example.outbox.CardEventSink;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PostgresCardEventOutbox implements CardEventOutbox {
+
+    private static final String CLAIM_SQL =
+        "SELECT event_id, pan, event_type, amount, operation, created_at FROM card_events " +
+        "ORDER BY event_id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private final ConnectionProvider connectionProvider;
+
+    public PostgresCardEventOutbox() {
+        this(DatabaseConnection::getPostgresConnection);
+    }
+
+    public PostgresCardEventOutbox(ConnectionProvider connectionProvider) {
+        this.connectionProvider = connectionProvider;
+    }
+
+    @Override
+    public int drain(int batchSize, CardEventSink sink) throws Exception {
+        try (Connection conn = connectionProvider.getConnection()) {
+            conn.setAutoCommit(false);
+
+            try {
+                List<CardEvent> events = new ArrayList<>(batchSize);
+                List<Long> eventIds = new ArrayList<>(batchSize);
+                try (PreparedStatement pstmt = conn.prepareStatement(CLAIM_SQL)) {
+                    pstmt.setInt(1, batchSize);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            long eventId = rs.getLong("event_id");
+                            eventIds.add(eventId);
+                            events.add(new CardEvent(
+                                Long.toString(eventId),
+                                rs.getString("pan"),
+                                CardEvent.Type.valueOf(rs.getString("event_type")),
+                                rs.getDouble("amount"),
+                                CardEvent.Operation.valueOf(rs.getString("operation")),
+                                rs.getTimestamp("created_at").getTime()
+                            ));
+                        }
+                    }
+                }
+                if (events.isEmpty()) {
+                    conn.rollback();
+                    return 0;
+                }
+
+                sink.publish(events);
+
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "DELETE FROM card_events WHERE event_id = ANY(?)")) {
+                    pstmt.setArray(1, conn.createArrayOf("bigint", eventIds.toArray()));
+                    pstmt.executeUpdate();
+                }
+                conn.commit();
+                return events.size();
+            } catch (Exception e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public long pending() {
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT COUNT(*) FROM card_events");
+             ResultSet rs = pstmt.executeQuery()) {
+            
+            return rs.next() ? rs.getLong(1) : 0;
+        } catch (SQLException e) {
+            System.err.println("Error counting card events: " + e.getMessage());
+            return 0;
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package org.example.dao.postgres;
 
+import org.example.database.ConnectionProvider;
 import org.example.database.DatabaseConnection;
+import org.example.model.Card;
 import org.example.model.CardUser;
+import org.example.model.HolderWithCards;
 import org.example.dao.CardUserDao;
 
 import java.sql.Connection;
@@ -9,15 +12,34 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public class PostgresCardUserDao implements CardUserDao {
 
+    private static final int STREAM_FETCH_SIZE = 1000;
+    private static final String HOLDER_WITH_CARDS_SELECT =
+        "SELECT u.name AS holder_name, u.surname AS holder_surname, u.iin AS holder_iin, " +
+        PostgresCardDao.CARD_COLUMNS + " " +
+        "FROM card_users u LEFT JOIN cards c ON c.iin = u.iin " +
+        "WHERE u.iin = ? ORDER BY c.card_id";
+
+    private final ConnectionProvider connectionProvider;
+
+    public PostgresCardUserDao() {
+        this(DatabaseConnection::getPostgresConnection);
+    }
+
+    public PostgresCardUserDao(ConnectionProvider connectionProvider) {
+        this.connectionProvider = connectionProvider;
+    }
+
     @Override
     public CardUser create(CardUser cardUser) {
         String sql = "INSERT INTO card_users (name, surname, iin) VALUES (?, ?, ?)";
-        try (Connection conn = DatabaseConnection.getPostgresConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, cardUser.getName());
@@ -34,19 +56,15 @@ public class PostgresCardUserDao implements CardUserDao {
 
     @Override
     public Optional<CardUser> findByIin(String iin) {
-        String sql = "SELECT * FROM card_users WHERE iin = ?";
-        try (Connection conn = DatabaseConnection.getPostgresConnection();
+        String sql = "SELECT name, surname, iin FROM card_users WHERE iin = ?";
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, iin);
             ResultSet rs = pstmt.executeQuery();
             
             if (rs.next()) {
-                return Optional.of(new CardUser(
-                    rs.getString("name"),
-                    rs.getString("surname"),
-                    rs.getString("iin")
-                ));
+                return Optional.of(CardUserRowMapper.of(rs).map(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error finding card user: " + e.getMessage());
@@ -56,8 +74,8 @@ public class PostgresCardUserDao implements CardUserDao {
 
     @Override
     public Optional<CardUser> findByNameAndSurname(String name, String surname) {
-        String sql = "SELECT * FROM card_users WHERE name = ? AND surname = ?";
-        try (Connection conn = DatabaseConnection.getPostgresConnection();
+        String sql = "SELECT name, surname, iin FROM card_users WHERE name = ? AND surname = ?";
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, name);
@@ -65,11 +83,7 @@ public class PostgresCardUserDao implements CardUserDao {
             ResultSet rs = pstmt.executeQuery();
             
             if (rs.next()) {
-                return Optional.of(new CardUser(
-                    rs.getString("name"),
-                    rs.getString("surname"),
-                    rs.getString("iin")
-                ));
+                return Optional.of(CardUserRowMapper.of(rs).map(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error finding card user: " + e.getMessage());
@@ -77,20 +91,43 @@ public class PostgresCardUserDao implements CardUserDao {
         return Optional.empty();
     }
 
+    @Override
+    public Optional<HolderWithCards> findHolderWithCards(String iin) {
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(HOLDER_WITH_CARDS_SELECT)) {
+            
+            pstmt.setString(1, iin);
+            ResultSet rs = pstmt.executeQuery();
+            if (!rs.next()) {
+                return Optional.empty();
+            }
+            
+            CardUser holder = CardUserRowMapper.of(rs, "holder_").map(rs);
+            List<Card> cards = new ArrayList<>();
+            CardRowMapper mapper = CardRowMapper.of(rs);
+            do {
+                if (rs.getString("pan") != null) {
+                    cards.add(mapper.map(rs));
+                }
+            } while (rs.next());
+            return Optional.of(new HolderWithCards(holder, cards));
+        } catch (SQLException e) {
+            System.err.println("Error finding card user with cards: " + e.getMessage());
+        }
+        return Optional.empty();
+    }
+
     @Override
     public List<CardUser> findAll() {
         List<CardUser> users = new ArrayList<>();
-        String sql = "SELECT * FROM card_users";
-        try (Connection conn = DatabaseConnection.getPostgresConnection();
+        String sql = "SELECT name, surname, iin FROM card_users";
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql);
              ResultSet rs = pstmt.executeQuery()) {
             
+            CardUserRowMapper mapper = CardUserRowMapper.of(rs);
             while (rs.next()) {
-                users.add(new CardUser(
-                    rs.getString("name"),
-                    rs.getString("surname"),
-                    rs.getString("iin")
-                ));
+                users.add(mapper.map(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error finding all card users: " + e.getMessage());
@@ -98,10 +135,32 @@ public class PostgresCardUserDao implements CardUserDao {
         return users;
     }
 
+    @Override
+    public void forEachCardUser(Consumer<CardUser> action) {
+        String sql = "SELECT name, surname, iin FROM card_users";
+        try (Connection conn = connectionProvider.getConnection()) {
+            conn.setAutoCommit(false);
+            
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setFetchSize(STREAM_FETCH_SIZE);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    CardUserRowMapper mapper = CardUserRowMapper.of(rs);
+                    while (rs.next()) {
+                        action.accept(mapper.map(rs));
+                    }
+                }
+            } finally {
+                conn.rollback();
+            }
+        } catch (SQLException e) {
+            System.err.println("Error streaming card users: " + e.getMessage());
+        }
+    }
+
     @Override
     public boolean update(CardUser cardUser) {
         String sql = "UPDATE card_users SET name = ?, surname = ? WHERE iin = ?";
-        try (Connection conn = DatabaseConnection.getPostgresConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, cardUser.getName());
@@ -118,7 +177,7 @@ public class PostgresCardUserDao implements CardUserDao {
     @Override
     public boolean deleteByIin(String iin) {
         String sql = "DELETE FROM card_users WHERE iin = ?";
-        try (Connection conn = DatabaseConnection.getPostgresConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, iin);
@@ -132,7 +191,7 @@ public class PostgresCardUserDao implements CardUserDao {
     @Override
     public boolean existsByIin(String iin) {
         String sql = "SELECT 1 FROM card_users WHERE iin = ?";
-        try (Connection conn = DatabaseConnection.getPostgresConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, iin);
@@ -143,5 +202,38 @@ public class PostgresCardUserDao implements CardUserDao {
             return false;
         }
     }
-}
 
+    List<CardUser> lockUsers(Connection conn, Collection<String> iins) throws SQLException {
+        List<CardUser> users = new ArrayList<>(iins.size());
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT name, surname, iin FROM card_users WHERE iin = ANY(?) FOR UPDATE")) {
+            pstmt.setArray(1, conn.createArrayOf("varchar", iins.toArray()));
+            ResultSet rs = pstmt.executeQuery();
+            CardUserRowMapper mapper = CardUserRowMapper.of(rs);
+            while (rs.next()) {
+                users.add(mapper.map(rs));
+            }
+        }
+        return users;
+    }
+
+    void insertAll(Connection conn, List<CardUser> users) throws SQLException {
+        String sql = "INSERT INTO card_users (name, surname, iin) VALUES (?, ?, ?) ON CONFLICT (iin) DO NOTHING";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (CardUser user : users) {
+                pstmt.setString(1, user.getName());
+                pstmt.setString(2, user.getSurname());
+                pstmt.setString(3, user.getIin());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    int deleteByIins(Connection conn, Collection<String> iins) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM card_users WHERE iin = ANY(?)")) {
+            pstmt.setArray(1, conn.createArrayOf("varchar", iins.toArray()));
+            return pstmt.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.dao.postgres;
+
+import org.example.database.DatabaseConnection;
+import org.example.dao.FxRateDao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+public class PostgresFxRateDao implements FxRateDao {
+
+    @Override
+    public Map<String, Double> findAllRates() {
+        Map<String, Double> rates = new HashMap<>();
+        String sql = "SELECT currency, rate_to_base FROM fx_rates";
+        try (Connection conn = DatabaseConnection.getPostgresConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            
+            while (rs.next()) {
+                rates.put(rs.getString("currency"), rs.getDouble("rate_to_base"));
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Error loading FX rates: " + e.getMessage(), e);
+        }
+        return rates;
+    }
+
+    @Override
+    public boolean saveRate(String currency, Double rateToBase) {
+        String sql = "INSERT INTO fx_rates (currency, rate_to_base) VALUES (?, ?) " +
+                     "ON CONFLICT (currency) DO UPDATE SET rate_to_base = EXCLUDED.rate_to_base";
+        try (Connection conn = DatabaseConnection.getPostgresConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setString(1, currency);
+            pstmt.setDouble(2, rateToBase);
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("Error saving FX rate: " + e.getMessage());
+            return false;
+        }
+    }
+}
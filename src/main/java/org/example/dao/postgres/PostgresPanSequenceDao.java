@@ -0,0 +1,33 @@
+package org.example.dao.postgres;
+
+import org.example.database.DatabaseConnection;
+import org.example.dao.PanSequenceDao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+public class PostgresPanSequenceDao implements PanSequenceDao {
+
+    @Override
+    public long reserveBlock(String bin, int blockSize) {
+        String sql = "INSERT INTO pan_sequences (bin, next_value) VALUES (?, ?) " +
+                     "ON CONFLICT (bin) DO UPDATE SET next_value = pan_sequences.next_value + EXCLUDED.next_value " +
+                     "RETURNING next_value";
+        try (Connection conn = DatabaseConnection.getPostgresConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setString(1, bin);
+            pstmt.setLong(2, blockSize);
+            
+            ResultSet rs = pstmt.executeQuery();
+            if (rs.next()) {
+                return rs.getLong("next_value") - blockSize;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error reserving PAN block: " + e.getMessage());
+        }
+        return -1;
+    }
+}
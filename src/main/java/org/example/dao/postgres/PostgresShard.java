@@ -0,0 +1,58 @@
+package org.example.dao.postgres;
+
+import org.example.database.ConnectionProvider;
+import org.example.database.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+public class PostgresShard {
+
+    private final String name;
+    private final String url;
+    private final ConnectionProvider connectionProvider;
+    private final PostgresCardDao cardDao;
+    private final PostgresCardUserDao cardUserDao;
+    private final PostgresCardEventOutbox eventOutbox;
+
+    public PostgresShard(String name, String url) {
+        this.name = name;
+        this.url = url;
+        this.connectionProvider = DatabaseConnection.postgresConnectionProvider(url);
+        this.cardDao = new PostgresCardDao(connectionProvider);
+        this.cardUserDao = new PostgresCardUserDao(connectionProvider);
+        this.eventOutbox = new PostgresCardEventOutbox(connectionProvider);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public PostgresCardEventOutbox getEventOutbox() {
+        return eventOutbox;
+    }
+
+    Connection getConnection() throws SQLException {
+        return connectionProvider.getConnection();
+    }
+
+    PostgresCardDao getCardDao() {
+        return cardDao;
+    }
+
+    PostgresCardUserDao getCardUserDao() {
+        return cardUserDao;
+    }
+
+    @Override
+    public String toString() {
+        return "PostgresShard{" +
+                "name='" + name + '\'' +
+                ", url='" + url + '\'' +
+                '}';
+    }
+}
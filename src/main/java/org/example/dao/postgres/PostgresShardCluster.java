@@ -0,0 +1,318 @@
+package org.example.dao.postgres;
+
+import org.example.database.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+public class PostgresShardCluster implements AutoCloseable {
+
+    private static final int VIRTUAL_NODES = 128;
+    private static final String CARD_ID_SEQUENCE = "sharded_card_ids";
+    private static final String STATE_PREPARING = "PREPARING";
+    private static final String STATE_COMMIT = "COMMIT";
+    private static final String STATE_ABORT = "ABORT";
+    private static final int MIGRATION_ATTEMPTS = 5;
+    private static final long MIGRATION_BACKOFF_MILLIS = 200;
+
+    private final List<ShardMigration> migrations = new CopyOnWriteArrayList<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final PostgresShard coordinator;
+
+    private volatile ShardRing ring;
+    private volatile ShardRing previousRing;
+
+    public PostgresShardCluster(List<PostgresShard> shards) {
+        this.ring = new ShardRing(shards, VIRTUAL_NODES);
+        this.coordinator = shards.get(0);
+    }
+
+    public static PostgresShardCluster fromUrls(List<String> urls) {
+        List<PostgresShard> shards = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            shards.add(new PostgresShard("shard-" + i, urls.get(i)));
+        }
+        return new PostgresShardCluster(shards);
+    }
+
+    public void initialize() {
+        for (PostgresShard shard : ring.getShards()) {
+            DatabaseConnection.initializePostgresDatabase(shard.getUrl(), false);
+        }
+        try (Connection conn = coordinator.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE SEQUENCE IF NOT EXISTS " + CARD_ID_SEQUENCE);
+        } catch (SQLException e) {
+            System.err.println("Error creating card id sequence: " + e.getMessage());
+            return;
+        }
+        long maxCardId = 0;
+        for (long max : scatter(this::maxCardId)) {
+            maxCardId = Math.max(maxCardId, max);
+        }
+        try (Connection conn = coordinator.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                 "SELECT setval('" + CARD_ID_SEQUENCE + "', GREATEST(?, (SELECT last_value FROM " +
+                 CARD_ID_SEQUENCE + ")))")) {
+            pstmt.setLong(1, Math.max(maxCardId, 1));
+            pstmt.executeQuery();
+        } catch (SQLException e) {
+            System.err.println("Error aligning card id sequence: " + e.getMessage());
+        }
+    }
+
+    public List<PostgresShard> getShards() {
+        return ring.getShards();
+    }
+
+    public boolean isRebalancing() {
+        return previousRing != null;
+    }
+
+    public synchronized void addShard(PostgresShard shard) {
+        if (previousRing != null) {
+            throw new IllegalStateException("Previous rebalancing is unfinished, call finishRebalancing() first");
+        }
+        DatabaseConnection.initializePostgresDatabase(shard.getUrl(), false);
+
+        List<PostgresShard> shards = new ArrayList<>(ring.getShards());
+        shards.add(shard);
+        ShardRing target = new ShardRing(shards, VIRTUAL_NODES);
+
+        previousRing = ring;
+        ring = target;
+        finishRebalancing();
+    }
+
+    public synchronized void finishRebalancing() {
+        ShardRing previous = previousRing;
+        if (previous == null) {
+            return;
+        }
+        boolean complete = true;
+        for (PostgresShard source : previous.getShards()) {
+            for (ShardMigration migration : migrations) {
+                complete &= migration.migrate(source, ring);
+            }
+        }
+        if (!complete) {
+            throw new IllegalStateException("Some rows were not moved, call finishRebalancing() to retry");
+        }
+        previousRing = null;
+    }
+
+    public int recoverInDoubtTransactions() {
+        int resolved = 0;
+        Set<String> decided = new HashSet<>();
+        Set<String> pending = new HashSet<>();
+        boolean allShardsChecked = true;
+        for (PostgresShard shard : ring.getShards()) {
+            try (Connection conn = shard.getConnection()) {
+                Map<String, Boolean> gids = new LinkedHashMap<>();
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "SELECT gid, prepared < now() - interval '1 minute' AS stale FROM pg_prepared_xacts " +
+                        "WHERE gid LIKE ? AND database = current_database()")) {
+                    pstmt.setString(1, ShardTransaction.GID_PREFIX + "%");
+                    ResultSet rs = pstmt.executeQuery();
+                    while (rs.next()) {
+                        gids.put(rs.getString("gid"), rs.getBoolean("stale"));
+                    }
+                }
+                for (Map.Entry<String, Boolean> entry : gids.entrySet()) {
+                    String gid = entry.getKey();
+                    String transactionId = gid.substring(ShardTransaction.GID_PREFIX.length(), gid.lastIndexOf('_'));
+                    if (!entry.getValue()) {
+                        pending.add(transactionId);
+                        continue;
+                    }
+                    String state = resolveDecision(transactionId);
+                    boolean commit = STATE_COMMIT.equals(state);
+                    try (Statement stmt = conn.createStatement()) {
+                        stmt.execute((commit ? "COMMIT PREPARED '" : "ROLLBACK PREPARED '") + gid + "'");
+                    }
+                    if (state != null) {
+                        decided.add(transactionId);
+                    }
+                    resolved++;
+                }
+            } catch (SQLException e) {
+                allShardsChecked = false;
+                System.err.println("Error recovering transactions on " + shard.getName() + ": " + e.getMessage());
+            }
+        }
+        if (allShardsChecked) {
+            decided.removeAll(pending);
+            decided.forEach(this::forgetDecision);
+        }
+        return resolved;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    PostgresShard owner(String key) {
+        return ring.owner(key);
+    }
+
+    List<PostgresShard> candidates(String key) {
+        PostgresShard owner = ring.owner(key);
+        ShardRing previous = previousRing;
+        if (previous == null) {
+            return List.of(owner);
+        }
+        PostgresShard previousOwner = previous.owner(key);
+        return previousOwner == owner ? List.of(owner) : List.of(owner, previousOwner);
+    }
+
+    <T> List<T> scatter(Function<PostgresShard, T> query) {
+        List<Future<T>> futures = new ArrayList<>();
+        for (PostgresShard shard : ring.getShards()) {
+            futures.add(executor.submit(() -> query.apply(shard)));
+        }
+        List<T> results = new ArrayList<>(futures.size());
+        for (Future<T> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while querying shards", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Shard query failed", e.getCause());
+            }
+        }
+        return results;
+    }
+
+    void register(ShardMigration migration) {
+        migrations.add(migration);
+    }
+
+    boolean migrateInBatches(List<String> keys, int batchSize, String description, BatchMigration migration) {
+        boolean complete = true;
+        for (int i = 0; i < keys.size(); i += batchSize) {
+            List<String> batch = keys.subList(i, Math.min(i + batchSize, keys.size()));
+            if (!migrateBatch(batch, description, migration)) {
+                complete = false;
+            }
+        }
+        return complete;
+    }
+
+    int[] nextCardIds(int count) throws SQLException {
+        int[] ids = new int[count];
+        try (Connection conn = coordinator.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                 "SELECT nextval('" + CARD_ID_SEQUENCE + "') FROM generate_series(1, ?)")) {
+            pstmt.setInt(1, count);
+            ResultSet rs = pstmt.executeQuery();
+            int i = 0;
+            while (rs.next() && i < count) {
+                ids[i++] = Math.toIntExact(rs.getLong(1));
+            }
+        }
+        return ids;
+    }
+
+    void recordPreparing(String transactionId) throws SQLException {
+        try (Connection conn = coordinator.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                 "INSERT INTO shard_transaction_decisions (transaction_id, state) VALUES (?, ?)")) {
+            pstmt.setString(1, transactionId);
+            pstmt.setString(2, STATE_PREPARING);
+            pstmt.executeUpdate();
+        }
+    }
+
+    boolean recordCommitDecision(String transactionId) throws SQLException {
+        try (Connection conn = coordinator.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                 "UPDATE shard_transaction_decisions SET state = ?, decided_at = now() " +
+                 "WHERE transaction_id = ? AND state = ?")) {
+            pstmt.setString(1, STATE_COMMIT);
+            pstmt.setString(2, transactionId);
+            pstmt.setString(3, STATE_PREPARING);
+            return pstmt.executeUpdate() > 0;
+        }
+    }
+
+    void forgetDecision(String transactionId) {
+        try (Connection conn = coordinator.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                 "DELETE FROM shard_transaction_decisions WHERE transaction_id = ?")) {
+            pstmt.setString(1, transactionId);
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("Error removing decision for " + transactionId + ": " + e.getMessage());
+        }
+    }
+
+    private String resolveDecision(String transactionId) throws SQLException {
+        try (Connection conn = coordinator.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                 "UPDATE shard_transaction_decisions SET state = CASE " +
+                 "WHEN state = ? THEN ? ELSE state END " +
+                 "WHERE transaction_id = ? RETURNING state")) {
+            pstmt.setString(1, STATE_PREPARING);
+            pstmt.setString(2, STATE_ABORT);
+            pstmt.setString(3, transactionId);
+            ResultSet rs = pstmt.executeQuery();
+            return rs.next() ? rs.getString("state") : null;
+        }
+    }
+
+    private boolean migrateBatch(List<String> batch, String description, BatchMigration migration) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                migration.migrate(batch);
+                return true;
+            } catch (SQLException e) {
+                System.err.println("Error migrating " + description + " (attempt " + attempt + "): " + e.getMessage());
+                if (attempt == MIGRATION_ATTEMPTS) {
+                    return false;
+                }
+            }
+            try {
+                Thread.sleep(MIGRATION_BACKOFF_MILLIS * attempt);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    private long maxCardId(PostgresShard shard) {
+        try (Connection conn = shard.getConnection();
+             Statement stmt = conn.createStatement()) {
+            ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(card_id), 0) FROM cards");
+            return rs.next() ? rs.getLong(1) : 0;
+        } catch (SQLException e) {
+            System.err.println("Error reading max card id on " + shard.getName() + ": " + e.getMessage());
+            return 0;
+        }
+    }
+
+    interface ShardMigration {
+        boolean migrate(PostgresShard source, ShardRing target);
+    }
+
+    interface BatchMigration {
+        void migrate(List<String> batch) throws SQLException;
+    }
+}
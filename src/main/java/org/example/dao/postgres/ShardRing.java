@@ -0,0 +1,62 @@
+package org.example.dao.postgres;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+final class ShardRing {
+
+    private final List<PostgresShard> shards;
+    private final long[] points;
+    private final PostgresShard[] owners;
+
+    ShardRing(List<PostgresShard> shards, int virtualNodes) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("A shard ring needs at least one shard");
+        }
+        this.shards = Collections.unmodifiableList(new ArrayList<>(shards));
+
+        long[][] entries = new long[shards.size() * virtualNodes][];
+        int n = 0;
+        for (int s = 0; s < shards.size(); s++) {
+            for (int v = 0; v < virtualNodes; v++) {
+                entries[n++] = new long[] {hash(shards.get(s).getName() + "#" + v), s};
+            }
+        }
+        Arrays.sort(entries, (a, b) -> Long.compare(a[0], b[0]));
+
+        this.points = new long[entries.length];
+        this.owners = new PostgresShard[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            points[i] = entries[i][0];
+            owners[i] = shards.get((int) entries[i][1]);
+        }
+    }
+
+    PostgresShard owner(String key) {
+        int index = Arrays.binarySearch(points, hash(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    List<PostgresShard> getShards() {
+        return shards;
+    }
+
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,150 @@
+package org.example.dao.postgres;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+final class ShardTransaction implements AutoCloseable {
+
+    static final String GID_PREFIX = "shardtx_";
+
+    private static final long LOCK_TIMEOUT_MILLIS = 5000;
+
+    private final PostgresShardCluster cluster;
+    private final String transactionId = UUID.randomUUID().toString().replace("-", "");
+    private final Map<PostgresShard, Connection> connections = new LinkedHashMap<>();
+    private final List<Connection> prepared = new ArrayList<>();
+    private boolean finished;
+
+    ShardTransaction(PostgresShardCluster cluster) {
+        this.cluster = cluster;
+    }
+
+    Connection connection(PostgresShard shard) throws SQLException {
+        Connection conn = connections.get(shard);
+        if (conn == null) {
+            conn = shard.getConnection();
+            conn.setAutoCommit(false);
+            connections.put(shard, conn);
+            execute(conn, "SET LOCAL lock_timeout = " + LOCK_TIMEOUT_MILLIS);
+        }
+        return conn;
+    }
+
+    void lockInOrder(Map<PostgresShard, ? extends Collection<String>> pans) throws SQLException {
+        List<PostgresShard> shards = new ArrayList<>(pans.keySet());
+        shards.sort(Comparator.comparing(PostgresShard::getName));
+        for (PostgresShard shard : shards) {
+            shard.getCardDao().lockPans(connection(shard), pans.get(shard));
+        }
+    }
+
+    void commit() throws SQLException {
+        if (connections.size() <= 1) {
+            for (Connection conn : connections.values()) {
+                conn.commit();
+            }
+            finished = true;
+            return;
+        }
+
+        try {
+            cluster.recordPreparing(transactionId);
+            int participant = 0;
+            for (Connection conn : connections.values()) {
+                execute(conn, "PREPARE TRANSACTION '" + gid(participant++) + "'");
+                prepared.add(conn);
+            }
+        } catch (SQLException e) {
+            abort();
+            throw e;
+        }
+
+        boolean decided;
+        try {
+            decided = cluster.recordCommitDecision(transactionId);
+        } catch (SQLException e) {
+            finished = true;
+            System.err.println("Commit decision for shard transaction " + transactionId +
+                               " is unknown, left for recovery: " + e.getMessage());
+            throw e;
+        }
+        if (!decided) {
+            abort();
+            throw new SQLException("Shard transaction " + transactionId + " was aborted by recovery");
+        }
+
+        finished = true;
+        boolean complete = true;
+        int participant = 0;
+        for (Connection conn : connections.values()) {
+            try {
+                conn.setAutoCommit(true);
+                execute(conn, "COMMIT PREPARED '" + gid(participant) + "'");
+            } catch (SQLException e) {
+                complete = false;
+                System.err.println("Error committing prepared transaction " + gid(participant) +
+                                   ", left for recovery: " + e.getMessage());
+            }
+            participant++;
+        }
+        if (complete) {
+            cluster.forgetDecision(transactionId);
+        }
+    }
+
+    private void abort() {
+        rollback();
+        cluster.forgetDecision(transactionId);
+    }
+
+    void rollback() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        int participant = 0;
+        for (Connection conn : connections.values()) {
+            try {
+                if (prepared.contains(conn)) {
+                    conn.setAutoCommit(true);
+                    execute(conn, "ROLLBACK PREPARED '" + gid(participant) + "'");
+                } else {
+                    conn.rollback();
+                }
+            } catch (SQLException e) {
+                System.err.println("Error rolling back shard transaction " + gid(participant) + ": " + e.getMessage());
+            }
+            participant++;
+        }
+    }
+
+    @Override
+    public void close() {
+        rollback();
+        for (Connection conn : connections.values()) {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                System.err.println("Error closing shard connection: " + e.getMessage());
+            }
+        }
+    }
+
+    private String gid(int participant) {
+        return GID_PREFIX + transactionId + "_" + participant;
+    }
+
+    private static void execute(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,566 @@
+package org.example.dao.postgres;
+
+import org.example.dao.CardDao;
+import org.example.fx.FxRateSnapshot;
+import org.example.model.Card;
+import org.example.model.CardEvent;
+import org.example.model.Disbursement;
+import org.example.model.DisbursementResult;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+public class ShardedPostgresCardDao implements CardDao {
+
+    private static final int STREAM_FETCH_SIZE = 1000;
+    private static final int MIGRATION_BATCH_SIZE = 500;
+
+    private final PostgresShardCluster cluster;
+
+    public ShardedPostgresCardDao(PostgresShardCluster cluster) {
+        this.cluster = cluster;
+        cluster.register(this::migrate);
+    }
+
+    @Override
+    public Card create(Card card) {
+        List<PostgresShard> candidates = cluster.candidates(card.getPan());
+        for (int i = 1; i < candidates.size(); i++) {
+            if (candidates.get(i).getCardDao().existsByPan(card.getPan())) {
+                System.err.println("Error creating card: PAN " + card.getPan() + " already exists");
+                return null;
+            }
+        }
+
+        PostgresShard owner = candidates.get(0);
+        try (Connection conn = owner.getConnection()) {
+            card.setCardId(cluster.nextCardIds(1)[0]);
+            owner.getCardDao().insertWithIds(conn, List.of(card), false);
+            return card;
+        } catch (SQLException e) {
+            System.err.println("Error creating card: " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public int createBatch(List<Card> cards) {
+        if (cards.isEmpty()) {
+            return 0;
+        }
+        Map<PostgresShard, List<Card>> byOwner = new HashMap<>();
+        try {
+            int[] cardIds = cluster.nextCardIds(cards.size());
+            for (int i = 0; i < cards.size(); i++) {
+                Card card = cards.get(i);
+                card.setCardId(cardIds[i]);
+                byOwner.computeIfAbsent(cluster.owner(card.getPan()), shard -> new ArrayList<>()).add(card);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error allocating card ids: " + e.getMessage());
+            return 0;
+        }
+
+        int created = 0;
+        for (int count : cluster.scatter(shard -> insertBatch(shard, byOwner.getOrDefault(shard, List.of())))) {
+            created += count;
+        }
+        return created;
+    }
+
+    @Override
+    public Optional<Card> findById(Integer cardId) {
+        for (Optional<Card> card : cluster.scatter(shard -> shard.getCardDao().findById(cardId))) {
+            if (card.isPresent()) {
+                return card;
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<Card> findByPan(String pan) {
+        for (PostgresShard shard : cluster.candidates(pan)) {
+            Optional<Card> card = shard.getCardDao().findByPan(pan);
+            if (card.isPresent()) {
+                return card;
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public List<Card> findByNameAndSurname(String name, String surname) {
+        List<Card> cards = new ArrayList<>();
+        for (List<Card> shardCards : cluster.scatter(shard -> shard.getCardDao().findByNameAndSurname(name, surname))) {
+            cards.addAll(shardCards);
+        }
+        return cards;
+    }
+
+    @Override
+    public List<Card> findAll() {
+        List<Card> cards = new ArrayList<>();
+        for (List<Card> shardCards : cluster.scatter(shard -> shard.getCardDao().findAll())) {
+            cards.addAll(shardCards);
+        }
+        return cards;
+    }
+
+    @Override
+    public void forEachCard(Consumer<Card> action) {
+        for (PostgresShard shard : cluster.getShards()) {
+            shard.getCardDao().forEachCard(action);
+        }
+    }
+
+    @Override
+    public void forEachCardInPanRange(String fromPan, String toPan, Consumer<Card> action) {
+        for (PostgresShard shard : cluster.getShards()) {
+            shard.getCardDao().forEachCardInPanRange(fromPan, toPan, action);
+        }
+    }
+
+    @Override
+    public List<Card> findByIdRange(int fromCardId, int toCardId) {
+        List<Card> cards = new ArrayList<>();
+        for (List<Card> shardCards : cluster.scatter(shard -> shard.getCardDao().findByIdRange(fromCardId, toCardId))) {
+            cards.addAll(shardCards);
+        }
+        cards.sort(Comparator.comparing(Card::getCardId));
+        return cards;
+    }
+
+    @Override
+    public int findMaxCardId() {
+        int max = 0;
+        for (int shardMax : cluster.scatter(shard -> shard.getCardDao().findMaxCardId())) {
+            max = Math.max(max, shardMax);
+        }
+        return max;
+    }
+
+    @Override
+    public boolean update(Card card) {
+        return onOwner(card.getPan(), dao -> dao.update(card));
+    }
+
+    @Override
+    public int updateBatch(List<Card> cards) {
+        if (cluster.isRebalancing()) {
+            int updated = 0;
+            for (Card card : cards) {
+                if (update(card)) {
+                    updated++;
+                }
+            }
+            return updated;
+        }
+
+        Map<PostgresShard, List<Card>> byOwner = new HashMap<>();
+        for (Card card : cards) {
+            byOwner.computeIfAbsent(cluster.owner(card.getPan()), shard -> new ArrayList<>()).add(card);
+        }
+        int updated = 0;
+        for (int count : cluster.scatter(shard -> shard.getCardDao().updateBatch(byOwner.getOrDefault(shard, List.of())))) {
+            updated += count;
+        }
+        return updated;
+    }
+
+    @Override
+    public int accrueInterest(Map<String, Double> interestByPan, String period) {
+        if (cluster.isRebalancing()) {
+            int credited = 0;
+            for (Map.Entry<String, Double> entry : interestByPan.entrySet()) {
+                for (PostgresShard shard : cluster.candidates(entry.getKey())) {
+                    int count = shard.getCardDao().accrueInterest(Map.of(entry.getKey(), entry.getValue()), period);
+                    if (count < 0) {
+                        return -1;
+                    }
+                    credited += count;
+                }
+            }
+            return credited;
+        }
+
+        Map<PostgresShard, Map<String, Double>> byOwner = new HashMap<>();
+        for (Map.Entry<String, Double> entry : interestByPan.entrySet()) {
+            byOwner.computeIfAbsent(cluster.owner(entry.getKey()), shard -> new HashMap<>())
+                .put(entry.getKey(), entry.getValue());
+        }
+        return sumOrFail(cluster.scatter(
+            shard -> shard.getCardDao().accrueInterest(byOwner.getOrDefault(shard, Map.of()), period)));
+    }
+
+    @Override
+    public int renewCards(List<Card> cards) {
+        if (cluster.isRebalancing()) {
+            int renewed = 0;
+            for (Card card : cards) {
+                for (PostgresShard shard : cluster.candidates(card.getPan())) {
+                    int count = shard.getCardDao().renewCards(List.of(card));
+                    if (count < 0) {
+                        return -1;
+                    }
+                    renewed += count;
+                }
+            }
+            return renewed;
+        }
+
+        Map<PostgresShard, List<Card>> byOwner = new HashMap<>();
+        for (Card card : cards) {
+            byOwner.computeIfAbsent(cluster.owner(card.getPan()), shard -> new ArrayList<>()).add(card);
+        }
+        return sumOrFail(cluster.scatter(
+            shard -> shard.getCardDao().renewCards(byOwner.getOrDefault(shard, List.of()))));
+    }
+
+    private static int sumOrFail(List<Integer> counts) {
+        int total = 0;
+        for (int count : counts) {
+            if (count < 0) {
+                return -1;
+            }
+            total += count;
+        }
+        return total;
+    }
+
+    @Override
+    public boolean deleteById(Integer cardId) {
+        return findById(cardId).map(card -> deleteByPan(card.getPan())).orElse(false);
+    }
+
+    @Override
+    public boolean deleteByPan(String pan) {
+        return onOwner(pan, dao -> dao.deleteByPan(pan));
+    }
+
+    @Override
+    public boolean existsByPan(String pan) {
+        return onOwner(pan, dao -> dao.existsByPan(pan));
+    }
+
+    @Override
+    public boolean transferMoney(String fromPan, String toPan, Double amount) {
+        PostgresShard fromShard = locate(fromPan);
+        PostgresShard toShard = locate(toPan);
+        if (fromShard == null || toShard == null) {
+            return false;
+        }
+        if (fromShard == toShard) {
+            return fromShard.getCardDao().transferMoney(fromPan, toPan, amount);
+        }
+        return transferAcrossShards(fromShard, fromPan, amount, toShard, toPan, amount);
+    }
+
+    @Override
+    public boolean transferMoneyWithConversion(String fromPan, String toPan, Double amount, FxRateSnapshot rates) {
+        PostgresShard fromShard = locate(fromPan);
+        PostgresShard toShard = locate(toPan);
+        if (fromShard == null || toShard == null) {
+            return false;
+        }
+        if (fromShard == toShard) {
+            return fromShard.getCardDao().transferMoneyWithConversion(fromPan, toPan, amount, rates);
+        }
+
+        Optional<Card> fromCard = fromShard.getCardDao().findByPan(fromPan);
+        Optional<Card> toCard = toShard.getCardDao().findByPan(toPan);
+        if (fromCard.isEmpty() || toCard.isEmpty()) {
+            return false;
+        }
+        String fromCurrency = fromCard.get().getCurrency();
+        String toCurrency = toCard.get().getCurrency();
+        if (!rates.supports(fromCurrency) || !rates.supports(toCurrency)) {
+            return false;
+        }
+        return transferAcrossShards(fromShard, fromPan, amount, toShard, toPan,
+                                    rates.convert(amount, fromCurrency, toCurrency));
+    }
+
+    @Override
+    public boolean transferMoneyByName(String fromName, String fromSurname,
+                                       String toName, String toSurname, Double amount) {
+        List<Card> fromCards = findByNameAndSurname(fromName, fromSurname);
+        List<Card> toCards = findByNameAndSurname(toName, toSurname);
+
+        if (fromCards.isEmpty() || toCards.isEmpty()) {
+            return false;
+        }
+
+        return transferMoney(fromCards.get(0).getPan(), toCards.get(0).getPan(), amount);
+    }
+
+    @Override
+    public DisbursementResult disburse(String sourcePan, List<Disbursement> disbursements, boolean allOrNothing) {
+        PostgresShard sourceShard = locate(sourcePan);
+        if (sourceShard == null) {
+            DisbursementResult result = new DisbursementResult(sourcePan, disbursements);
+            result.markPending(DisbursementResult.Status.INSUFFICIENT_FUNDS);
+            return result;
+        }
+
+        Map<PostgresShard, List<Disbursement>> byShard = new LinkedHashMap<>();
+        for (Disbursement disbursement : disbursements) {
+            byShard.computeIfAbsent(cluster.owner(disbursement.getDestinationPan()), shard -> new ArrayList<>())
+                .add(disbursement);
+        }
+        if (byShard.isEmpty() || (byShard.size() == 1 && byShard.containsKey(sourceShard) && !cluster.isRebalancing())) {
+            return sourceShard.getCardDao().disburse(sourcePan, disbursements, allOrNothing);
+        }
+        return disburseAcrossShards(sourceShard, sourcePan, disbursements, byShard, allOrNothing);
+    }
+
+    @Override
+    public boolean withdrawMoney(String pan, String cvv, Double amount) {
+        return onOwner(pan, dao -> dao.withdrawMoney(pan, cvv, amount));
+    }
+
+    @Override
+    public boolean depositMoney(String pan, Double amount) {
+        return onOwner(pan, dao -> dao.depositMoney(pan, amount));
+    }
+
+    @Override
+    public boolean depositMoneyByName(String name, String surname, Double amount) {
+        List<Card> cards = findByNameAndSurname(name, surname);
+        if (cards.isEmpty()) {
+            return false;
+        }
+        return depositMoney(cards.get(0).getPan(), amount);
+    }
+
+    @Override
+    public boolean enableBalanceSharding(String pan, int shards) {
+        return onOwner(pan, dao -> dao.enableBalanceSharding(pan, shards));
+    }
+
+    @Override
+    public boolean disableBalanceSharding(String pan) {
+        return onOwner(pan, dao -> dao.disableBalanceSharding(pan));
+    }
+
+    private boolean onOwner(String pan, Predicate<PostgresCardDao> operation) {
+        List<PostgresShard> candidates = cluster.candidates(pan);
+        for (PostgresShard shard : candidates) {
+            if (operation.test(shard.getCardDao())) {
+                return true;
+            }
+        }
+        return candidates.size() > 1 && operation.test(candidates.get(0).getCardDao());
+    }
+
+    private PostgresShard locate(String pan) {
+        List<PostgresShard> candidates = cluster.candidates(pan);
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        for (PostgresShard shard : candidates) {
+            if (shard.getCardDao().existsByPan(pan)) {
+                return shard;
+            }
+        }
+        return null;
+    }
+
+    private int insertBatch(PostgresShard shard, List<Card> cards) {
+        if (cards.isEmpty()) {
+            return 0;
+        }
+        try (Connection conn = shard.getConnection()) {
+            conn.setAutoCommit(false);
+
+            try {
+                shard.getCardDao().insertWithIds(conn, cards, false);
+                conn.commit();
+                return cards.size();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error creating cards on " + shard.getName() + ": " + e.getMessage());
+            return 0;
+        }
+    }
+
+    private boolean transferAcrossShards(PostgresShard fromShard, String fromPan, double debited,
+                                         PostgresShard toShard, String toPan, double credited) {
+        try (ShardTransaction tx = new ShardTransaction(cluster)) {
+            tx.lockInOrder(Map.of(fromShard, List.of(fromPan), toShard, List.of(toPan)));
+            if (!fromShard.getCardDao().debit(tx.connection(fromShard), fromPan, null, debited)
+                    || !toShard.getCardDao().credit(tx.connection(toShard), toPan, credited)) {
+                tx.rollback();
+                return false;
+            }
+
+            fromShard.getCardDao().recordEvents(tx.connection(fromShard),
+                List.of(CardEvent.debit(fromPan, debited, CardEvent.Operation.TRANSFER)));
+            toShard.getCardDao().recordEvents(tx.connection(toShard),
+                List.of(CardEvent.credit(toPan, credited, CardEvent.Operation.TRANSFER)));
+            tx.commit();
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error transferring money across shards: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private DisbursementResult disburseAcrossShards(PostgresShard sourceShard, String sourcePan,
+                                                    List<Disbursement> disbursements,
+                                                    Map<PostgresShard, List<Disbursement>> byShard,
+                                                    boolean allOrNothing) {
+        DisbursementResult result = new DisbursementResult(sourcePan, disbursements);
+        if (disbursements.isEmpty()) {
+            return result;
+        }
+
+        try (ShardTransaction tx = new ShardTransaction(cluster)) {
+            Map<String, PostgresShard> destinations = new HashMap<>();
+            for (Map.Entry<PostgresShard, List<Disbursement>> entry : byShard.entrySet()) {
+                for (PostgresShard shard : cluster.candidates(entry.getValue().get(0).getDestinationPan())) {
+                    Set<String> existing = shard.getCardDao().findExistingPans(tx.connection(shard), entry.getValue());
+                    for (String pan : existing) {
+                        destinations.putIfAbsent(pan, shard);
+                    }
+                }
+            }
+            for (int i = 0; i < result.size(); i++) {
+                if (!destinations.containsKey(disbursements.get(i).getDestinationPan())) {
+                    result.getEntry(i).setStatus(DisbursementResult.Status.DESTINATION_NOT_FOUND);
+                }
+            }
+
+            Map<PostgresShard, Set<String>> participants = new HashMap<>();
+            participants.computeIfAbsent(sourceShard, shard -> new HashSet<>()).add(sourcePan);
+            for (Map.Entry<String, PostgresShard> entry : destinations.entrySet()) {
+                participants.computeIfAbsent(entry.getValue(), shard -> new HashSet<>()).add(entry.getKey());
+            }
+            tx.lockInOrder(participants);
+
+            double total = result.getPendingAmount();
+            boolean incomplete = result.countWithStatus(DisbursementResult.Status.PENDING) < result.size();
+            if ((incomplete && allOrNothing) || total <= 0) {
+                tx.rollback();
+                result.markPending(DisbursementResult.Status.ROLLED_BACK);
+                return result;
+            }
+
+            if (!sourceShard.getCardDao().debit(tx.connection(sourceShard), sourcePan, null, total)) {
+                tx.rollback();
+                result.markPending(DisbursementResult.Status.INSUFFICIENT_FUNDS);
+                return result;
+            }
+
+            for (DisbursementResult.Entry entry : result.getEntries()) {
+                if (entry.getStatus() != DisbursementResult.Status.PENDING) {
+                    continue;
+                }
+                Disbursement disbursement = entry.getDisbursement();
+                PostgresShard shard = destinations.get(disbursement.getDestinationPan());
+                boolean credited = shard.getCardDao().credit(
+                    tx.connection(shard), disbursement.getDestinationPan(), disbursement.getAmount());
+                entry.setStatus(credited
+                    ? DisbursementResult.Status.CREDITED
+                    : DisbursementResult.Status.DESTINATION_NOT_FOUND);
+            }
+
+            double refund = total - result.getCreditedAmount();
+            if (refund > 0) {
+                if (allOrNothing) {
+                    tx.rollback();
+                    result.markUnsettled(DisbursementResult.Status.ROLLED_BACK);
+                    return result;
+                }
+                sourceShard.getCardDao().credit(tx.connection(sourceShard), sourcePan, refund);
+            }
+
+            Map<PostgresShard, List<CardEvent>> events = new HashMap<>();
+            for (CardEvent event : CardEvent.ofDisbursement(result, total, refund)) {
+                PostgresShard shard = event.getType() == CardEvent.Type.CREDIT
+                    && event.getOperation() == CardEvent.Operation.DISBURSEMENT
+                    ? destinations.get(event.getPan())
+                    : sourceShard;
+                events.computeIfAbsent(shard, s -> new ArrayList<>()).add(event);
+            }
+            for (Map.Entry<PostgresShard, List<CardEvent>> entry : events.entrySet()) {
+                entry.getKey().getCardDao().recordEvents(tx.connection(entry.getKey()), entry.getValue());
+            }
+            tx.commit();
+            return result;
+        } catch (SQLException e) {
+            System.err.println("Error disbursing money across shards: " + e.getMessage());
+            result.markUnsettled(DisbursementResult.Status.FAILED);
+            return result;
+        }
+    }
+
+    private boolean migrate(PostgresShard source, ShardRing target) {
+        List<String> moving = new ArrayList<>();
+        try (Connection conn = source.getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement pstmt = conn.prepareStatement("SELECT pan FROM cards")) {
+                pstmt.setFetchSize(STREAM_FETCH_SIZE);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        String pan = rs.getString("pan");
+                        if (target.owner(pan) != source) {
+                            moving.add(pan);
+                        }
+                    }
+                }
+            } finally {
+                conn.rollback();
+            }
+        } catch (SQLException e) {
+            System.err.println("Error scanning cards on " + source.getName() + ": " + e.getMessage());
+            return false;
+        }
+
+        return cluster.migrateInBatches(moving, MIGRATION_BATCH_SIZE, "cards from " + source.getName(), batch -> {
+            try (ShardTransaction tx = new ShardTransaction(cluster)) {
+                Connection sourceConn = tx.connection(source);
+                List<Card> cards = source.getCardDao().lockCards(sourceConn, batch);
+                Map<String, String> accrualPeriods = source.getCardDao().findAccrualPeriods(sourceConn, batch);
+
+                Map<PostgresShard, List<Card>> byOwner = new HashMap<>();
+                for (Card card : cards) {
+                    byOwner.computeIfAbsent(target.owner(card.getPan()), shard -> new ArrayList<>()).add(card);
+                }
+                for (Map.Entry<PostgresShard, List<Card>> entry : byOwner.entrySet()) {
+                    Connection targetConn = tx.connection(entry.getKey());
+                    entry.getKey().getCardDao().insertWithIds(targetConn, entry.getValue(), true);
+
+                    Map<String, String> periods = new HashMap<>();
+                    for (Card card : entry.getValue()) {
+                        String period = accrualPeriods.get(card.getPan());
+                        if (period != null) {
+                            periods.put(card.getPan(), period);
+                        }
+                    }
+                    entry.getKey().getCardDao().restoreAccrualPeriods(targetConn, periods);
+                }
+                source.getCardDao().deleteByPans(sourceConn, batch);
+
+                tx.commit();
+            }
+        });
+    }
+}
@@ -0,0 +1,164 @@
+package org.example.dao.postgres;
+
+import org.example.dao.CardUserDao;
+import org.example.model.Card;
+import org.example.model.CardUser;
+import org.example.model.HolderWithCards;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+public class ShardedPostgresCardUserDao implements CardUserDao {
+
+    private static final int STREAM_FETCH_SIZE = 1000;
+    private static final int MIGRATION_BATCH_SIZE = 500;
+
+    private final PostgresShardCluster cluster;
+
+    public ShardedPostgresCardUserDao(PostgresShardCluster cluster) {
+        this.cluster = cluster;
+        cluster.register(this::migrate);
+    }
+
+    @Override
+    public CardUser create(CardUser cardUser) {
+        List<PostgresShard> candidates = cluster.candidates(cardUser.getIin());
+        for (int i = 1; i < candidates.size(); i++) {
+            if (candidates.get(i).getCardUserDao().existsByIin(cardUser.getIin())) {
+                System.err.println("Error creating card user: IIN " + cardUser.getIin() + " already exists");
+                return null;
+            }
+        }
+        return candidates.get(0).getCardUserDao().create(cardUser);
+    }
+
+    @Override
+    public Optional<CardUser> findByIin(String iin) {
+        for (PostgresShard shard : cluster.candidates(iin)) {
+            Optional<CardUser> user = shard.getCardUserDao().findByIin(iin);
+            if (user.isPresent()) {
+                return user;
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<CardUser> findByNameAndSurname(String name, String surname) {
+        for (Optional<CardUser> user : cluster.scatter(
+                shard -> shard.getCardUserDao().findByNameAndSurname(name, surname))) {
+            if (user.isPresent()) {
+                return user;
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<HolderWithCards> findHolderWithCards(String iin) {
+        Optional<CardUser> holder = findByIin(iin);
+        if (holder.isEmpty()) {
+            return Optional.empty();
+        }
+        
+        List<Card> cards = new ArrayList<>();
+        for (List<Card> shardCards : cluster.scatter(shard -> shard.getCardDao().findByHolder(iin))) {
+            cards.addAll(shardCards);
+        }
+        cards.sort(Comparator.comparing(Card::getCardId));
+        return Optional.of(new HolderWithCards(holder.get(), cards));
+    }
+
+    @Override
+    public List<CardUser> findAll() {
+        List<CardUser> users = new ArrayList<>();
+        for (List<CardUser> shardUsers : cluster.scatter(shard -> shard.getCardUserDao().findAll())) {
+            users.addAll(shardUsers);
+        }
+        return users;
+    }
+
+    @Override
+    public void forEachCardUser(Consumer<CardUser> action) {
+        for (PostgresShard shard : cluster.getShards()) {
+            shard.getCardUserDao().forEachCardUser(action);
+        }
+    }
+
+    @Override
+    public boolean update(CardUser cardUser) {
+        return onOwner(cardUser.getIin(), dao -> dao.update(cardUser));
+    }
+
+    @Override
+    public boolean deleteByIin(String iin) {
+        return onOwner(iin, dao -> dao.deleteByIin(iin));
+    }
+
+    @Override
+    public boolean existsByIin(String iin) {
+        return onOwner(iin, dao -> dao.existsByIin(iin));
+    }
+
+    private boolean onOwner(String iin, Predicate<PostgresCardUserDao> operation) {
+        List<PostgresShard> candidates = cluster.candidates(iin);
+        for (PostgresShard shard : candidates) {
+            if (operation.test(shard.getCardUserDao())) {
+                return true;
+            }
+        }
+        return candidates.size() > 1 && operation.test(candidates.get(0).getCardUserDao());
+    }
+
+    private boolean migrate(PostgresShard source, ShardRing target) {
+        List<String> moving = new ArrayList<>();
+        try (Connection conn = source.getConnection()) {
+            conn.setAutoCommit(false);
+            
+            try (PreparedStatement pstmt = conn.prepareStatement("SELECT iin FROM card_users")) {
+                pstmt.setFetchSize(STREAM_FETCH_SIZE);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        String iin = rs.getString("iin");
+                        if (target.owner(iin) != source) {
+                            moving.add(iin);
+                        }
+                    }
+                }
+            } finally {
+                conn.rollback();
+            }
+        } catch (SQLException e) {
+            System.err.println("Error scanning card users on " + source.getName() + ": " + e.getMessage());
+            return false;
+        }
+
+        return cluster.migrateInBatches(moving, MIGRATION_BATCH_SIZE, "card users from " + source.getName(), batch -> {
+            try (ShardTransaction tx = new ShardTransaction(cluster)) {
+                Connection sourceConn = tx.connection(source);
+                List<CardUser> users = source.getCardUserDao().lockUsers(sourceConn, batch);
+            
+                Map<PostgresShard, List<CardUser>> byOwner = new HashMap<>();
+                for (CardUser user : users) {
+                    byOwner.computeIfAbsent(target.owner(user.getIin()), shard -> new ArrayList<>()).add(user);
+                }
+                for (Map.Entry<PostgresShard, List<CardUser>> entry : byOwner.entrySet()) {
+                    entry.getKey().getCardUserDao().insertAll(tx.connection(entry.getKey()), entry.getValue());
+                }
+                source.getCardUserDao().deleteByIins(sourceConn, batch);
+            
+                tx.commit();
+            }
+        });
+    }
+}
@@ -0,0 +1,209 @@
+package org.example.dao.search;
+
+import org.example.dao.CardDao;
+import org.example.fx.FxRateSnapshot;
+import org.example.index.HolderSearchIndex;
+import org.example.model.Card;
+import org.example.model.Disbursement;
+import org.example.model.DisbursementResult;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public class SearchIndexedCardDao implements CardDao {
+
+    private final CardDao delegate;
+    private final HolderSearchIndex index;
+
+    public SearchIndexedCardDao(CardDao delegate, HolderSearchIndex index) {
+        this.delegate = delegate;
+        this.index = index;
+    }
+
+    public void load() {
+        delegate.forEachCard(index::putCard);
+        index.compact();
+    }
+
+    public HolderSearchIndex getIndex() {
+        return index;
+    }
+
+    @Override
+    public Card create(Card card) {
+        Card created = delegate.create(card);
+        if (created != null) {
+            index.putCard(created);
+        }
+        return created;
+    }
+
+    @Override
+    public int createBatch(List<Card> cards) {
+        int created = delegate.createBatch(cards);
+        if (created == cards.size()) {
+            cards.forEach(index::putCard);
+        } else if (created > 0) {
+            cards.forEach(card -> refresh(card.getPan()));
+        }
+        return created;
+    }
+
+    @Override
+    public Optional<Card> findById(Integer cardId) {
+        return delegate.findById(cardId);
+    }
+
+    @Override
+    public Optional<Card> findByPan(String pan) {
+        return delegate.findByPan(pan);
+    }
+
+    @Override
+    public List<Card> findByNameAndSurname(String name, String surname) {
+        return delegate.findByNameAndSurname(name, surname);
+    }
+
+    @Override
+    public List<Card> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public void forEachCard(Consumer<Card> action) {
+        delegate.forEachCard(action);
+    }
+
+    @Override
+    public void forEachCardInPanRange(String fromPan, String toPan, Consumer<Card> action) {
+        delegate.forEachCardInPanRange(fromPan, toPan, action);
+    }
+
+    @Override
+    public List<Card> findByIdRange(int fromCardId, int toCardId) {
+        return delegate.findByIdRange(fromCardId, toCardId);
+    }
+
+    @Override
+    public int findMaxCardId() {
+        return delegate.findMaxCardId();
+    }
+
+    @Override
+    public boolean update(Card card) {
+        String previousPan = card.getCardId() != null
+            ? delegate.findById(card.getCardId()).map(Card::getPan).orElse(null)
+            : null;
+
+        boolean updated = delegate.update(card);
+        if (updated) {
+            if (previousPan != null && !previousPan.equals(card.getPan())) {
+                index.removeCard(previousPan);
+            }
+            index.putCard(card);
+        }
+        return updated;
+    }
+
+    @Override
+    public int updateBatch(List<Card> cards) {
+        int updated = delegate.updateBatch(cards);
+        if (updated == cards.size()) {
+            cards.forEach(index::putCard);
+        } else if (updated > 0) {
+            cards.forEach(card -> refresh(card.getPan()));
+        }
+        return updated;
+    }
+
+    @Override
+    public int accrueInterest(Map<String, Double> interestByPan, String period) {
+        return delegate.accrueInterest(interestByPan, period);
+    }
+
+    @Override
+    public int renewCards(List<Card> cards) {
+        return delegate.renewCards(cards);
+    }
+
+    @Override
+    public boolean deleteById(Integer cardId) {
+        Optional<Card> card = delegate.findById(cardId);
+        boolean deleted = delegate.deleteById(cardId);
+        if (deleted) {
+            card.ifPresent(c -> index.removeCard(c.getPan()));
+        }
+        return deleted;
+    }
+
+    @Override
+    public boolean deleteByPan(String pan) {
+        boolean deleted = delegate.deleteByPan(pan);
+        if (deleted) {
+            index.removeCard(pan);
+        }
+        return deleted;
+    }
+
+    @Override
+    public boolean existsByPan(String pan) {
+        return delegate.existsByPan(pan);
+    }
+
+    @Override
+    public boolean transferMoney(String fromPan, String toPan, Double amount) {
+        return delegate.transferMoney(fromPan, toPan, amount);
+    }
+
+    @Override
+    public boolean transferMoneyWithConversion(String fromPan, String toPan, Double amount, FxRateSnapshot rates) {
+        return delegate.transferMoneyWithConversion(fromPan, toPan, amount, rates);
+    }
+
+    @Override
+    public boolean transferMoneyByName(String fromName, String fromSurname,
+                                       String toName, String toSurname, Double amount) {
+        return delegate.transferMoneyByName(fromName, fromSurname, toName, toSurname, amount);
+    }
+
+    @Override
+    public DisbursementResult disburse(String sourcePan, List<Disbursement> disbursements, boolean allOrNothing) {
+        return delegate.disburse(sourcePan, disbursements, allOrNothing);
+    }
+
+    @Override
+    public boolean withdrawMoney(String pan, String cvv, Double amount) {
+        return delegate.withdrawMoney(pan, cvv, amount);
+    }
+
+    @Override
+    public boolean depositMoney(String pan, Double amount) {
+        return delegate.depositMoney(pan, amount);
+    }
+
+    @Override
+    public boolean depositMoneyByName(String name, String surname, Double amount) {
+        return delegate.depositMoneyByName(name, surname, amount);
+    }
+
+    @Override
+    public boolean enableBalanceSharding(String pan, int shards) {
+        return delegate.enableBalanceSharding(pan, shards);
+    }
+
+    @Override
+    public boolean disableBalanceSharding(String pan) {
+        return delegate.disableBalanceSharding(pan);
+    }
+
+    private void refresh(String pan) {
+        Optional<Card> card = delegate.findByPan(pan);
+        if (card.isPresent()) {
+            index.putCard(card.get());
+        } else {
+            index.removeCard(pan);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package org.example.dao.search;
+
+import org.example.dao.CardUserDao;
+import org.example.index.HolderSearchIndex;
+import org.example.model.CardUser;
+import org.example.model.HolderWithCards;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public class SearchIndexedCardUserDao implements CardUserDao {
+
+    private final CardUserDao delegate;
+    private final HolderSearchIndex index;
+
+    public SearchIndexedCardUserDao(CardUserDao delegate, HolderSearchIndex index) {
+        this.delegate = delegate;
+        this.index = index;
+    }
+
+    public void load() {
+        delegate.forEachCardUser(index::putHolder);
+        index.compact();
+    }
+
+    public HolderSearchIndex getIndex() {
+        return index;
+    }
+
+    @Override
+    public CardUser create(CardUser cardUser) {
+        CardUser created = delegate.create(cardUser);
+        if (created != null) {
+            index.putHolder(created);
+        }
+        return created;
+    }
+
+    @Override
+    public Optional<CardUser> findByIin(String iin) {
+        return delegate.findByIin(iin);
+    }
+
+    @Override
+    public Optional<CardUser> findByNameAndSurname(String name, String surname) {
+        return delegate.findByNameAndSurname(name, surname);
+    }
+
+    @Override
+    public Optional<HolderWithCards> findHolderWithCards(String iin) {
+        return delegate.findHolderWithCards(iin);
+    }
+
+    @Override
+    public List<CardUser> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public void forEachCardUser(Consumer<CardUser> action) {
+        delegate.forEachCardUser(action);
+    }
+
+    @Override
+    public boolean update(CardUser cardUser) {
+        boolean updated = delegate.update(cardUser);
+        if (updated) {
+            index.putHolder(cardUser);
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean deleteByIin(String iin) {
+        boolean deleted = delegate.deleteByIin(iin);
+        if (deleted) {
+            index.removeHolder(iin);
+        }
+        return deleted;
+    }
+
+    @Override
+    public boolean existsByIin(String iin) {
+        return delegate.existsByIin(iin);
+    }
+}
@@ -0,0 +1,9 @@
+package org.example.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+@FunctionalInterface
+public interface ConnectionProvider {
+    Connection getConnection() throws SQLException;
+}
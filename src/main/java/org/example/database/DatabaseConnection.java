@@ -5,7 +5,7 @@ import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class DatabaseConnection {
-    private static final String POSTGRES_URL = "jdbc:postgresql://localhost:5432/banking_system";
+    private static final String POSTGRES_URL = "jdbc:postgresql://localhost:5432/banking_system?reWriteBatchedInserts=true";
     private static final String POSTGRES_USER = "postgres";
     private static final String POSTGRES_PASSWORD = "";
 
@@ -13,23 +13,36 @@ public class DatabaseConnection {
         return DriverManager.getConnection(POSTGRES_URL, POSTGRES_USER, POSTGRES_PASSWORD);
     }
 
+    public static ConnectionProvider postgresConnectionProvider(String url) {
+        return () -> DriverManager.getConnection(url, POSTGRES_USER, POSTGRES_PASSWORD);
+    }
+
     public static void initializePostgresDatabase() {
-        try (Connection conn = DriverManager.getConnection(
-                "jdbc:postgresql://localhost:5432/postgres", POSTGRES_USER, POSTGRES_PASSWORD)) {
+        initializePostgresDatabase(POSTGRES_URL);
+    }
+
+    public static void initializePostgresDatabase(String url) {
+        initializePostgresDatabase(url, true);
+    }
+
+    public static void initializePostgresDatabase(String url, boolean holderForeignKey) {
+        String serverUrl = url.substring(0, url.lastIndexOf('/') + 1) + "postgres";
+        String databaseName = databaseName(url);
+        try (Connection conn = DriverManager.getConnection(serverUrl, POSTGRES_USER, POSTGRES_PASSWORD)) {
             
             conn.createStatement().executeUpdate(
-                "SELECT 1 FROM pg_database WHERE datname = 'banking_system'"
+                "SELECT 1 FROM pg_database WHERE datname = '" + databaseName + "'"
             );
             
             try {
-                conn.createStatement().executeUpdate("CREATE DATABASE banking_system");
+                conn.createStatement().executeUpdate("CREATE DATABASE " + databaseName);
             } catch (SQLException e) {
             }
         } catch (SQLException e) {
             System.err.println("Error initializing database: " + e.getMessage());
         }
 
-        try (Connection conn = getPostgresConnection()) {
+        try (Connection conn = DriverManager.getConnection(url, POSTGRES_USER, POSTGRES_PASSWORD)) {
             conn.createStatement().executeUpdate(
                 "CREATE TABLE IF NOT EXISTS card_users (" +
                 "name VARCHAR(100) NOT NULL, " +
@@ -46,8 +59,83 @@ public class DatabaseConnection {
                 "date_of_expire VARCHAR(5) NOT NULL, " +
                 "name VARCHAR(100) NOT NULL, " +
                 "surname VARCHAR(100) NOT NULL, " +
+                "iin VARCHAR(20), " +
                 "currency VARCHAR(10), " +
-                "balance DECIMAL(15, 2) NOT NULL" +
+                "balance DECIMAL(15, 2) NOT NULL, " +
+                "balance_shards INT NOT NULL DEFAULT 0, " +
+                "last_accrued_period VARCHAR(7)" +
+                ")"
+            );
+
+            conn.createStatement().executeUpdate(
+                "ALTER TABLE cards ADD COLUMN IF NOT EXISTS balance_shards INT NOT NULL DEFAULT 0"
+            );
+
+            conn.createStatement().executeUpdate(
+                "ALTER TABLE cards ADD COLUMN IF NOT EXISTS iin VARCHAR(20)"
+            );
+
+            conn.createStatement().executeUpdate(
+                "ALTER TABLE cards ADD COLUMN IF NOT EXISTS last_accrued_period VARCHAR(7)"
+            );
+
+            conn.createStatement().executeUpdate(
+                "CREATE INDEX IF NOT EXISTS idx_cards_iin ON cards (iin)"
+            );
+
+            if (holderForeignKey) {
+                try {
+                    conn.createStatement().executeUpdate(
+                        "ALTER TABLE cards ADD CONSTRAINT cards_iin_fkey FOREIGN KEY (iin) " +
+                        "REFERENCES card_users(iin) ON UPDATE CASCADE ON DELETE SET NULL"
+                    );
+                } catch (SQLException e) {
+                }
+            }
+
+            conn.createStatement().executeUpdate(
+                "CREATE TABLE IF NOT EXISTS card_balance_shards (" +
+                "pan VARCHAR(16) NOT NULL REFERENCES cards(pan) ON UPDATE CASCADE ON DELETE CASCADE, " +
+                "shard INT NOT NULL, " +
+                "balance DECIMAL(15, 2) NOT NULL DEFAULT 0, " +
+                "PRIMARY KEY (pan, shard)" +
+                ")"
+            );
+
+            conn.createStatement().executeUpdate(
+                "CREATE TABLE IF NOT EXISTS pan_sequences (" +
+                "bin VARCHAR(8) PRIMARY KEY, " +
+                "next_value BIGINT NOT NULL" +
+                ")"
+            );
+
+            conn.createStatement().executeUpdate(
+                "CREATE TABLE IF NOT EXISTS fx_rates (" +
+                "currency VARCHAR(10) PRIMARY KEY, " +
+                "rate_to_base DECIMAL(20, 10) NOT NULL" +
+                ")"
+            );
+
+            conn.createStatement().executeUpdate(
+                "CREATE TABLE IF NOT EXISTS shard_transaction_decisions (" +
+                "transaction_id VARCHAR(64) PRIMARY KEY, " +
+                "state VARCHAR(10) NOT NULL DEFAULT 'COMMIT', " +
+                "decided_at TIMESTAMP NOT NULL DEFAULT now()" +
+                ")"
+            );
+
+            conn.createStatement().executeUpdate(
+                "ALTER TABLE shard_transaction_decisions ADD COLUMN IF NOT EXISTS state VARCHAR(10) NOT NULL DEFAULT 'COMMIT'"
+            );
+
+            conn.createStatement().executeUpdate(
+                "CREATE TABLE IF NOT EXISTS card_events (" +
+                "event_id BIGSERIAL PRIMARY KEY, " +
+                "pan VARCHAR(16) NOT NULL, " +
+                "event_type VARCHAR(10) NOT NULL, " +
+                "amount DECIMAL(15, 2) NOT NULL, " +
+                "operation VARCHAR(20) NOT NULL, " +
+                "created_at TIMESTAMP NOT NULL DEFAULT now()" +
                 ")"
             );
 
@@ -56,4 +144,10 @@ public class DatabaseConnection {
             System.err.println("Error creating tables: " + e.getMessage());
         }
     }
+
+    private static String databaseName(String url) {
+        String path = url.substring(url.lastIndexOf('/') + 1);
+        int query = path.indexOf('?');
+        return query < 0 ? path : path.substring(0, query);
+    }
 }
@@ -0,0 +1,86 @@
+package org.example.fx;
+
+import org.example.dao.FxRateDao;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+public class FxRateProvider implements AutoCloseable {
+
+    private final FxRateDao fxRateDao;
+    private final String baseCurrency;
+    private final AtomicReference<FxRateSnapshot> snapshot;
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    private volatile long lastRefreshNanos;
+    private ScheduledExecutorService scheduler;
+
+    public FxRateProvider(FxRateDao fxRateDao, String baseCurrency) {
+        this.fxRateDao = fxRateDao;
+        this.baseCurrency = baseCurrency;
+        this.snapshot = new AtomicReference<>(FxRateSnapshot.empty(baseCurrency));
+    }
+
+    public FxRateSnapshot current() {
+        return snapshot.get();
+    }
+
+    public boolean refresh() {
+        long start = System.nanoTime();
+        try {
+            Map<String, Double> rates = fxRateDao.findAllRates();
+            snapshot.set(new FxRateSnapshot(baseCurrency, rates, Instant.now()));
+            refreshes.increment();
+            return true;
+        } catch (RuntimeException e) {
+            failures.increment();
+            System.err.println("Error refreshing FX rates: " + e.getMessage());
+            return false;
+        } finally {
+            lastRefreshNanos = System.nanoTime() - start;
+        }
+    }
+
+    public synchronized void startAutoRefresh(Duration period) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "fx-rate-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::refresh, 0, period.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public Duration getStaleness() {
+        return Duration.between(snapshot.get().getLoadedAt(), Instant.now());
+    }
+
+    public long getLastRefreshNanos() {
+        return lastRefreshNanos;
+    }
+
+    public long getRefreshCount() {
+        return refreshes.sum();
+    }
+
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+}
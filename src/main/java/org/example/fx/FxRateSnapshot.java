@@ -0,0 +1,75 @@
+package org.example.fx;
+
+import java.time.Instant;
+import java.util.Map;
+
+public final class FxRateSnapshot {
+
+    private final String baseCurrency;
+    private final Map<String, Double> ratesToBase;
+    private final Instant loadedAt;
+
+    public FxRateSnapshot(String baseCurrency, Map<String, Double> ratesToBase, Instant loadedAt) {
+        this.baseCurrency = baseCurrency;
+        this.ratesToBase = Map.copyOf(ratesToBase);
+        this.loadedAt = loadedAt;
+    }
+
+    public static FxRateSnapshot empty(String baseCurrency) {
+        return new FxRateSnapshot(baseCurrency, Map.of(), Instant.EPOCH);
+    }
+
+    public double convert(double amount, String fromCurrency, String toCurrency) {
+        if (fromCurrency != null && fromCurrency.equals(toCurrency)) {
+            return amount;
+        }
+        return round(amount * rateToBase(fromCurrency) / rateToBase(toCurrency));
+    }
+
+    public boolean supports(String currency) {
+        if (currency == null) {
+            return false;
+        }
+        if (currency.equals(baseCurrency)) {
+            return true;
+        }
+        Double rate = ratesToBase.get(currency);
+        return rate != null && rate > 0;
+    }
+
+    public double rateToBase(String currency) {
+        if (currency != null && currency.equals(baseCurrency)) {
+            return 1.0;
+        }
+        Double rate = currency == null ? null : ratesToBase.get(currency);
+        if (rate == null || rate <= 0) {
+            throw new IllegalArgumentException("No FX rate for currency: " + currency);
+        }
+        return rate;
+    }
+
+    public String getBaseCurrency() {
+        return baseCurrency;
+    }
+
+    public Map<String, Double> getRatesToBase() {
+        return ratesToBase;
+    }
+
+    public Instant getLoadedAt() {
+        return loadedAt;
+    }
+
+    private static double round(double amount) {
+        return Math.round(amount * 100.0) / 100.0;
+    }
+
+    @Override
+    public String toString() {
+        return "FxRateSnapshot{" +
+                "baseCurrency='" + baseCurrency + '\'' +
+                ", rates=" + ratesToBase.size() +
+                ", loadedAt=" + loadedAt +
+                '}';
+    }
+}
@@ -0,0 +1,174 @@
+package org.example.index;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+final class FrontCodedDictionary {
+
+    static final FrontCodedDictionary EMPTY = build(new TreeMap<>());
+
+    private static final int BLOCK_SIZE = 16;
+
+    private final byte[] terms;
+    private final int[] blockOffsets;
+    private final int[] postingOffsets;
+    private final int[] postings;
+    private final int size;
+
+    private FrontCodedDictionary(byte[] terms, int[] blockOffsets, int[] postingOffsets, int[] postings, int size) {
+        this.terms = terms;
+        this.blockOffsets = blockOffsets;
+        this.postingOffsets = postingOffsets;
+        this.postings = postings;
+        this.size = size;
+    }
+
+    interface PostingVisitor {
+        boolean visit(String term, int posting);
+    }
+
+    static FrontCodedDictionary build(SortedMap<String, int[]> sortedTerms) {
+        int size = sortedTerms.size();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size * 8);
+        int[] blockOffsets = new int[(size + BLOCK_SIZE - 1) / BLOCK_SIZE];
+        int[] postingOffsets = new int[size + 1];
+        int postingCount = 0;
+        for (int[] termPostings : sortedTerms.values()) {
+            postingCount += termPostings.length;
+        }
+        int[] postings = new int[postingCount];
+
+        byte[] previous = new byte[0];
+        int index = 0;
+        int posting = 0;
+        for (Map.Entry<String, int[]> entry : sortedTerms.entrySet()) {
+            byte[] term = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            if (index % BLOCK_SIZE == 0) {
+                blockOffsets[index / BLOCK_SIZE] = out.size();
+                writeVarInt(out, term.length);
+                out.write(term, 0, term.length);
+            } else {
+                int shared = Arrays.mismatch(previous, term);
+                shared = shared < 0 ? term.length : shared;
+                writeVarInt(out, shared);
+                writeVarInt(out, term.length - shared);
+                out.write(term, shared, term.length - shared);
+            }
+            previous = term;
+
+            postingOffsets[index] = posting;
+            System.arraycopy(entry.getValue(), 0, postings, posting, entry.getValue().length);
+            posting += entry.getValue().length;
+            index++;
+        }
+        postingOffsets[size] = posting;
+        return new FrontCodedDictionary(out.toByteArray(), blockOffsets, postingOffsets, postings, size);
+    }
+
+    int size() {
+        return size;
+    }
+
+    long sizeInBytes() {
+        return terms.length + 4L * (blockOffsets.length + postingOffsets.length + postings.length);
+    }
+
+    void forEachWithPrefix(String prefix, PostingVisitor visitor) {
+        if (size == 0) {
+            return;
+        }
+        byte[] target = prefix.getBytes(StandardCharsets.UTF_8);
+        int block = findBlock(target);
+
+        byte[] term = new byte[64];
+        int termLength = 0;
+        int position = blockOffsets[block];
+        for (int index = block * BLOCK_SIZE; index < size; index++) {
+            int shared = 0;
+            if (index % BLOCK_SIZE != 0) {
+                shared = readVarInt(position);
+                position += varIntLength(shared);
+            }
+            int suffix = readVarInt(position);
+            position += varIntLength(suffix);
+            termLength = shared + suffix;
+            if (term.length < termLength) {
+                term = Arrays.copyOf(term, Math.max(termLength, term.length * 2));
+            }
+            System.arraycopy(terms, position, term, shared, suffix);
+            position += suffix;
+
+            int comparison = comparePrefix(term, termLength, target);
+            if (comparison < 0) {
+                continue;
+            }
+            if (comparison > 0) {
+                return;
+            }
+            String decoded = new String(term, 0, termLength, StandardCharsets.UTF_8);
+            for (int p = postingOffsets[index]; p < postingOffsets[index + 1]; p++) {
+                if (!visitor.visit(decoded, postings[p])) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private int findBlock(byte[] target) {
+        int low = 0;
+        int high = blockOffsets.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            int position = blockOffsets[mid];
+            int length = readVarInt(position);
+            position += varIntLength(length);
+            if (Arrays.compareUnsigned(terms, position, position + length, target, 0, target.length) < 0) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private static int comparePrefix(byte[] term, int termLength, byte[] prefix) {
+        int length = Math.min(termLength, prefix.length);
+        int mismatch = Arrays.mismatch(term, 0, length, prefix, 0, length);
+        if (mismatch >= 0) {
+            return Integer.compare(term[mismatch] & 0xFF, prefix[mismatch] & 0xFF);
+        }
+        return termLength < prefix.length ? -1 : 0;
+    }
+
+    private int readVarInt(int position) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = terms[position++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    private static int varIntLength(int value) {
+        int length = 1;
+        while ((value >>>= 7) != 0) {
+            length++;
+        }
+        return length;
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+}
@@ -0,0 +1,39 @@
+package org.example.index;
+
+import java.util.List;
+
+public class HolderMatch {
+
+    private final String name;
+    private final String surname;
+    private final List<String> iins;
+    private final List<String> pans;
+
+    public HolderMatch(String name, String surname, List<String> iins, List<String> pans) {
+        this.name = name;
+        this.surname = surname;
+        this.iins = iins;
+        this.pans = pans;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSurname() {
+        return surname;
+    }
+
+    public List<String> getIins() {
+        return iins;
+    }
+
+    public List<String> getPans() {
+        return pans;
+    }
+
+    @Override
+    public String toString() {
+        return name + " " + surname + " iins=" + iins + " pans=" + pans;
+    }
+}
@@ -0,0 +1,325 @@
+package org.example.index;
+
+import org.example.model.Card;
+import org.example.model.CardUser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+public class HolderSearchIndex {
+
+    private static final int MIN_COMPACTION_THRESHOLD = 1024;
+    private static final int COMPACTION_RATIO = 8;
+    private static final char KEY_SEPARATOR = '\u0000';
+    private static final long OBJECT_BYTES = 16;
+    private static final long REFERENCE_BYTES = 8;
+    private static final long MAP_ENTRY_BYTES = 48;
+
+    private final Map<String, Holder> holders = new ConcurrentHashMap<>();
+    private final Map<String, String> keysByIin = new ConcurrentHashMap<>();
+    private final Map<String, String> keysByPan = new ConcurrentHashMap<>();
+
+    private volatile Snapshot snapshot = new Snapshot(FrontCodedDictionary.EMPTY, new String[0]);
+    private int deltaTerms;
+
+    public synchronized void putHolder(CardUser cardUser) {
+        String key = keyOf(cardUser.getName(), cardUser.getSurname());
+        String previous = keysByIin.put(cardUser.getIin(), key);
+        if (previous != null && !previous.equals(key)) {
+            detach(previous, cardUser.getIin(), null);
+        }
+        attach(key, cardUser.getName(), cardUser.getSurname(), cardUser.getIin(), null);
+    }
+
+    public synchronized void removeHolder(String iin) {
+        String key = keysByIin.remove(iin);
+        if (key != null) {
+            detach(key, iin, null);
+        }
+    }
+
+    public synchronized void putCard(Card card) {
+        String key = keyOf(card.getName(), card.getSurname());
+        String previous = keysByPan.put(card.getPan(), key);
+        if (previous != null && !previous.equals(key)) {
+            detach(previous, null, card.getPan());
+        }
+        attach(key, card.getName(), card.getSurname(), null, card.getPan());
+    }
+
+    public synchronized void removeCard(String pan) {
+        String key = keysByPan.remove(pan);
+        if (key != null) {
+            detach(key, null, pan);
+        }
+    }
+
+    public synchronized void clear() {
+        holders.clear();
+        keysByIin.clear();
+        keysByPan.clear();
+        snapshot = new Snapshot(FrontCodedDictionary.EMPTY, new String[0]);
+        deltaTerms = 0;
+    }
+
+    public synchronized void compact() {
+        TreeMap<String, List<Integer>> terms = new TreeMap<>();
+        String[] keys = holders.keySet().toArray(new String[0]);
+        for (int i = 0; i < keys.length; i++) {
+            Holder holder = holders.get(keys[i]);
+            for (String term : holder.terms) {
+                terms.computeIfAbsent(term, t -> new ArrayList<>(1)).add(i);
+            }
+        }
+
+        TreeMap<String, int[]> postings = new TreeMap<>();
+        for (Map.Entry<String, List<Integer>> entry : terms.entrySet()) {
+            postings.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+        snapshot = new Snapshot(FrontCodedDictionary.build(postings), keys);
+        deltaTerms = 0;
+    }
+
+    public List<HolderMatch> search(String query, int limit) {
+        String[] tokens = tokenize(query);
+        if (tokens.length == 0 || limit <= 0) {
+            return List.of();
+        }
+        Snapshot current = snapshot;
+
+        List<Candidate> fromDictionary = new ArrayList<>(limit);
+        Set<String> seen = new HashSet<>();
+        current.dictionary.forEachWithPrefix(tokens[0], (term, posting) -> {
+            String key = current.keys[posting];
+            if (seen.add(key) && matches(holders.get(key), tokens)) {
+                fromDictionary.add(new Candidate(term, key));
+            }
+            return fromDictionary.size() < limit;
+        });
+
+        List<Candidate> fromDelta = new ArrayList<>(limit);
+        for (Map.Entry<String, Set<String>> entry
+                : current.delta.subMap(tokens[0], true, tokens[0] + Character.MAX_VALUE, false).entrySet()) {
+            for (String key : entry.getValue()) {
+                if (seen.add(key) && matches(holders.get(key), tokens)) {
+                    fromDelta.add(new Candidate(entry.getKey(), key));
+                }
+            }
+            if (fromDelta.size() >= limit) {
+                break;
+            }
+        }
+
+        List<HolderMatch> matches = new ArrayList<>(limit);
+        Set<String> returned = new HashSet<>();
+        int d = 0;
+        int m = 0;
+        while (matches.size() < limit && (d < fromDictionary.size() || m < fromDelta.size())) {
+            Candidate next;
+            if (m >= fromDelta.size()
+                    || (d < fromDictionary.size() && fromDictionary.get(d).term.compareTo(fromDelta.get(m).term) <= 0)) {
+                next = fromDictionary.get(d++);
+            } else {
+                next = fromDelta.get(m++);
+            }
+            Holder holder = holders.get(next.key);
+            if (holder != null && returned.add(next.key)) {
+                matches.add(holder.toMatch());
+            }
+        }
+        return matches;
+    }
+
+    public int size() {
+        return holders.size();
+    }
+
+    public int getDictionaryTerms() {
+        return snapshot.dictionary.size();
+    }
+
+    public int getPendingTerms() {
+        return snapshot.delta.size();
+    }
+
+    public long sizeInBytes() {
+        Snapshot current = snapshot;
+        long bytes = current.dictionary.sizeInBytes() + REFERENCE_BYTES * current.keys.length;
+        for (String term : current.delta.keySet()) {
+            bytes += MAP_ENTRY_BYTES + stringBytes(term);
+        }
+        for (Map.Entry<String, Holder> entry : holders.entrySet()) {
+            bytes += MAP_ENTRY_BYTES + stringBytes(entry.getKey()) + entry.getValue().sizeInBytes();
+        }
+        bytes += MAP_ENTRY_BYTES * (keysByIin.size() + keysByPan.size());
+        return bytes;
+    }
+
+    public double bytesPerHolder() {
+        int count = holders.size();
+        return count == 0 ? 0 : (double) sizeInBytes() / count;
+    }
+
+    private void attach(String key, String name, String surname, String iin, String pan) {
+        Holder holder = holders.get(key);
+        if (holder == null) {
+            holder = new Holder(name, surname);
+            Snapshot current = snapshot;
+            for (String term : holder.terms) {
+                current.delta.computeIfAbsent(term, t -> ConcurrentHashMap.newKeySet()).add(key);
+                deltaTerms++;
+            }
+        }
+        holders.put(key, holder.with(iin, pan));
+
+        if (deltaTerms > Math.max(MIN_COMPACTION_THRESHOLD, holders.size() / COMPACTION_RATIO)) {
+            compact();
+        }
+    }
+
+    private void detach(String key, String iin, String pan) {
+        Holder holder = holders.get(key);
+        if (holder == null) {
+            return;
+        }
+        Holder remaining = holder.without(iin, pan);
+        if (remaining.iins.length == 0 && remaining.pans.length == 0) {
+            holders.remove(key);
+        } else {
+            holders.put(key, remaining);
+        }
+    }
+
+    private static boolean matches(Holder holder, String[] tokens) {
+        if (holder == null) {
+            return false;
+        }
+        for (String token : tokens) {
+            boolean found = false;
+            for (String term : holder.terms) {
+                if (term.startsWith(token)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String keyOf(String name, String surname) {
+        return name + KEY_SEPARATOR + surname;
+    }
+
+    private static String[] tokenize(String text) {
+        if (text == null) {
+            return new String[0];
+        }
+        String normalized = text.trim().toLowerCase(Locale.ROOT);
+        return normalized.isEmpty() ? new String[0] : normalized.split("\\s+");
+    }
+
+    private static long stringBytes(String value) {
+        return value == null ? 0 : 40 + 2L * value.length();
+    }
+
+    private static final class Snapshot {
+        private final FrontCodedDictionary dictionary;
+        private final String[] keys;
+        private final ConcurrentSkipListMap<String, Set<String>> delta = new ConcurrentSkipListMap<>();
+
+        private Snapshot(FrontCodedDictionary dictionary, String[] keys) {
+            this.dictionary = dictionary;
+            this.keys = keys;
+        }
+    }
+
+    private static final class Candidate {
+        private final String term;
+        private final String key;
+
+        private Candidate(String term, String key) {
+            this.term = term;
+            this.key = key;
+        }
+    }
+
+    private static final class Holder {
+        private final String name;
+        private final String surname;
+        private final String[] terms;
+        private final String[] iins;
+        private final String[] pans;
+
+        private Holder(String name, String surname) {
+            this(name, surname, termsOf(name, surname), new String[0], new String[0]);
+        }
+
+        private Holder(String name, String surname, String[] terms, String[] iins, String[] pans) {
+            this.name = name;
+            this.surname = surname;
+            this.terms = terms;
+            this.iins = iins;
+            this.pans = pans;
+        }
+
+        private static String[] termsOf(String name, String surname) {
+            Set<String> terms = new HashSet<>(Arrays.asList(tokenize(name)));
+            terms.addAll(Arrays.asList(tokenize(surname)));
+            return terms.toArray(new String[0]);
+        }
+
+        private Holder with(String iin, String pan) {
+            return new Holder(name, surname, terms, add(iins, iin), add(pans, pan));
+        }
+
+        private Holder without(String iin, String pan) {
+            return new Holder(name, surname, terms, remove(iins, iin), remove(pans, pan));
+        }
+
+        private HolderMatch toMatch() {
+            return new HolderMatch(name, surname, List.of(iins), List.of(pans));
+        }
+
+        private long sizeInBytes() {
+            long bytes = OBJECT_BYTES + 5 * REFERENCE_BYTES + stringBytes(name) + stringBytes(surname);
+            bytes += 3 * OBJECT_BYTES + REFERENCE_BYTES * (terms.length + iins.length + pans.length);
+            for (String term : terms) {
+                bytes += stringBytes(term);
+            }
+            for (String iin : iins) {
+                bytes += stringBytes(iin);
+            }
+            for (String pan : pans) {
+                bytes += stringBytes(pan);
+            }
+            return bytes;
+        }
+
+        private static String[] add(String[] values, String value) {
+            if (value == null || Arrays.asList(values).contains(value)) {
+                return values;
+            }
+            String[] added = Arrays.copyOf(values, values.length + 1);
+            added[values.length] = value;
+            return added;
+        }
+
+        private static String[] remove(String[] values, String value) {
+            if (value == null) {
+                return values;
+            }
+            return Arrays.stream(values).filter(v -> !v.equals(value)).toArray(String[]::new);
+        }
+    }
+}
@@ -0,0 +1,767 @@
+package org.example.index;
+
+import org.example.model.Card;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+public class OffHeapCardIndex {
+
+    private static final int SLOT_BYTES = 32;
+    private static final int SLOT_SHIFT = 5;
+    private static final int MAX_CHUNK_SLOTS = 1 << 20;
+    private static final double MAX_LOAD_FACTOR = 0.75;
+
+    private static final int OFFSET_KEY = 0;
+    private static final int OFFSET_BALANCE = 8;
+    private static final int OFFSET_CARD_ID = 16;
+    private static final int OFFSET_HOLDER = 20;
+    private static final int OFFSET_CURRENCY = 24;
+    private static final int OFFSET_EXPIRY = 28;
+    private static final int OFFSET_CVV = 30;
+
+    private static final long EMPTY_KEY = 0L;
+    private static final short COLD_CVV = 0;
+    private static final int NULL_CARD_ID = Integer.MIN_VALUE;
+    private static final int HOLDER_FIELDS = 3;
+
+    private static final int SNAPSHOT_MAGIC = 0x43494458;
+    private static final int SNAPSHOT_VERSION = 3;
+    private static final int SNAPSHOT_HEADER_BYTES = 64;
+    private static final int LITTLE_ENDIAN = 1;
+    private static final int BIG_ENDIAN = 2;
+
+    private final StampedLock lock = new StampedLock();
+    private final Map<String, Integer> holderIds = new HashMap<>();
+
+    private volatile Table table;
+    private volatile String[] holders = new String[64];
+    private int holderCount;
+    private int size;
+    private volatile long restoredServableUntil = Long.MIN_VALUE;
+
+    public OffHeapCardIndex(int expectedCards) {
+        this.table = new Table(capacityFor(expectedCards));
+    }
+
+    public boolean put(Card card) {
+        long key = keyOf(card.getPan());
+        short expiry = packExpiry(card.getDateOfExpire());
+        short cvv = packCvv(card.getCvv());
+        int currency = packCurrency(card.getCurrency());
+        if (key == EMPTY_KEY || expiry < 0 || cvv < 0 || currency < 0) {
+            remove(card.getPan());
+            return false;
+        }
+
+        long stamp = lock.writeLock();
+        try {
+            int holder = internHolder(card.getName(), card.getSurname(), card.getIin());
+            Table t = table;
+            int slot = t.findSlot(key);
+            if (t.key(slot) == EMPTY_KEY) {
+                if (size + 1 > t.threshold) {
+                    t = resize(t);
+                    slot = t.findSlot(key);
+                }
+                size++;
+            }
+            t.write(slot, key, card.getBalance() != null ? card.getBalance() : Double.NaN,
+                    card.getCardId() != null ? card.getCardId() : NULL_CARD_ID,
+                    holder, currency, expiry, cvv);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public Card get(String pan) {
+        long key = keyOf(pan);
+        if (key == EMPTY_KEY) {
+            return null;
+        }
+
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            Card card = read(key);
+            if (lock.validate(stamp)) {
+                return card;
+            }
+        }
+
+        stamp = lock.readLock();
+        try {
+            return read(key);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public boolean contains(String pan) {
+        long key = keyOf(pan);
+        if (key == EMPTY_KEY) {
+            return false;
+        }
+
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            boolean found = table.isServable(key, restoredServableUntil);
+            if (lock.validate(stamp)) {
+                return found;
+            }
+        }
+
+        stamp = lock.readLock();
+        try {
+            return table.isServable(key, restoredServableUntil);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public boolean remove(String pan) {
+        long key = keyOf(pan);
+        if (key == EMPTY_KEY) {
+            return false;
+        }
+
+        long stamp = lock.writeLock();
+        try {
+            Table t = table;
+            int slot = t.probe(key);
+            if (slot < 0) {
+                return false;
+            }
+            t.delete(slot);
+            size--;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            table = new Table(table.capacity);
+            size = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int reload(Consumer<Consumer<Card>> source) {
+        KeySet seen = new KeySet(size());
+        source.accept(card -> {
+            if (put(card)) {
+                seen.add(keyOf(card.getPan()));
+            }
+        });
+        seen.sort();
+
+        long stamp = lock.writeLock();
+        try {
+            Table t = table;
+            int removed = 0;
+            int slot = 0;
+            while (slot < t.capacity) {
+                long key = t.key(slot);
+                if (key != EMPTY_KEY && !seen.contains(key)) {
+                    t.delete(slot);
+                    size--;
+                    removed++;
+                } else {
+                    slot++;
+                }
+            }
+            return removed;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void writeSnapshot(Path path, int marker) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.deleteIfExists(temp);
+        try (FileChannel channel = FileChannel.open(temp, EnumSet.of(StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.WRITE), ownerOnly(temp))) {
+            Table t;
+            int count;
+            do {
+                t = table;
+                count = writeSlots(channel, t);
+            } while (count < 0);
+
+            int holderTotal;
+            String[] names;
+            long stamp = lock.readLock();
+            try {
+                holderTotal = holderCount;
+                names = holders;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(SNAPSHOT_HEADER_BYTES);
+            header.putInt(SNAPSHOT_MAGIC)
+                  .putInt(SNAPSHOT_VERSION)
+                  .putInt(ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN ? LITTLE_ENDIAN : BIG_ENDIAN)
+                  .putInt(SLOT_BYTES)
+                  .putInt(t.capacity)
+                  .putInt(count)
+                  .putInt(holderTotal)
+                  .putInt(marker)
+                  .putLong(System.currentTimeMillis());
+            header.clear();
+
+            long end = writeFully(channel, encodeHolders(names, holderTotal),
+                    SNAPSHOT_HEADER_BYTES + (long) t.capacity * SLOT_BYTES);
+            channel.truncate(end);
+            writeFully(channel, header, 0);
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public int restore(Path path, Duration maxStaleness) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < SNAPSHOT_HEADER_BYTES) {
+                throw new IOException("Card index snapshot is truncated: " + path);
+            }
+            ByteBuffer header = readFully(channel, ByteBuffer.allocate(SNAPSHOT_HEADER_BYTES), 0, path);
+            int magic = header.getInt();
+            int version = header.getInt();
+            int order = header.getInt();
+            int slotBytes = header.getInt();
+            int capacity = header.getInt();
+            int count = header.getInt();
+            int holderTotal = header.getInt();
+            int marker = header.getInt();
+            long writtenAt = header.getLong();
+
+            int nativeOrder = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN ? LITTLE_ENDIAN : BIG_ENDIAN;
+            if (magic != SNAPSHOT_MAGIC || version != SNAPSHOT_VERSION) {
+                throw new IOException("Not a card index snapshot: " + path);
+            }
+            if (order != nativeOrder || slotBytes != SLOT_BYTES) {
+                throw new IOException("Card index snapshot was written on an incompatible platform: " + path);
+            }
+            if (capacity < 16 || Integer.bitCount(capacity) != 1 || capacity > (1 << 30)
+                    || count < 0 || count > capacity * MAX_LOAD_FACTOR || holderTotal < 0) {
+                throw new IOException("Card index snapshot header is corrupt: " + path);
+            }
+            long holdersOffset = SNAPSHOT_HEADER_BYTES + (long) capacity * SLOT_BYTES;
+            if (length < holdersOffset) {
+                throw new IOException("Card index snapshot is truncated: " + path);
+            }
+
+            Table restored = new Table(capacity);
+            int restoredCount = 0;
+            ByteBuffer buffer = ByteBuffer.allocateDirect(Math.min(capacity, MAX_CHUNK_SLOTS) * SLOT_BYTES)
+                    .order(ByteOrder.nativeOrder());
+            for (long position = SNAPSHOT_HEADER_BYTES; position < holdersOffset; position += buffer.capacity()) {
+                readFully(channel, buffer.clear(), position, path);
+                for (int base = 0; base < buffer.limit(); base += SLOT_BYTES) {
+                    long key = buffer.getLong(base + OFFSET_KEY);
+                    if (key == EMPTY_KEY) {
+                        continue;
+                    }
+                    int slot = restored.findSlot(key);
+                    if (restored.key(slot) != EMPTY_KEY) {
+                        continue;
+                    }
+                    if (++restoredCount > restored.threshold) {
+                        throw new IOException("Card index snapshot is corrupt: " + path);
+                    }
+                    restored.write(slot, key, buffer.getDouble(base + OFFSET_BALANCE),
+                            buffer.getInt(base + OFFSET_CARD_ID), buffer.getInt(base + OFFSET_HOLDER),
+                            buffer.getInt(base + OFFSET_CURRENCY), buffer.getShort(base + OFFSET_EXPIRY), COLD_CVV);
+                }
+            }
+            String[] names = decodeHolders(
+                    channel.map(FileChannel.MapMode.READ_ONLY, holdersOffset, length - holdersOffset), holderTotal, path);
+            Map<String, Integer> ids = new HashMap<>(holderTotal * 2);
+            for (int id = 0; id < holderTotal; id++) {
+                int nameIndex = id * HOLDER_FIELDS;
+                ids.put(holderKey(names[nameIndex], names[nameIndex + 1], names[nameIndex + 2]), id);
+            }
+
+            long stamp = lock.writeLock();
+            try {
+                table = restored;
+                holders = names;
+                holderIds.clear();
+                holderIds.putAll(ids);
+                holderCount = holderTotal;
+                size = restoredCount;
+                restoredServableUntil = Math.min(writtenAt, System.currentTimeMillis()) + maxStaleness.toMillis();
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            return marker;
+        }
+    }
+
+    public long offHeapBytes() {
+        return (long) table.capacity * SLOT_BYTES;
+    }
+
+    public static boolean isIndexable(String pan) {
+        return keyOf(pan) != EMPTY_KEY;
+    }
+
+    private int writeSlots(FileChannel channel, Table t) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(t.chunks[0].capacity()).order(ByteOrder.nativeOrder());
+        long position = SNAPSHOT_HEADER_BYTES;
+        int count = 0;
+        for (ByteBuffer chunk : t.chunks) {
+            long stamp = lock.readLock();
+            try {
+                if (table != t) {
+                    return -1;
+                }
+                buffer.clear().put(chunk.duplicate().clear()).flip();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+            for (int base = 0; base < buffer.limit(); base += SLOT_BYTES) {
+                if (buffer.getLong(base + OFFSET_KEY) != EMPTY_KEY) {
+                    count++;
+                }
+                buffer.putShort(base + OFFSET_CVV, COLD_CVV);
+            }
+            position = writeFully(channel, buffer, position);
+        }
+        return count;
+    }
+
+    private Card read(long key) {
+        Table t = table;
+        int slot = t.probe(key);
+        if (slot < 0) {
+            return null;
+        }
+        ByteBuffer chunk = t.chunk(slot);
+        int base = t.offset(slot);
+        if (chunk.getLong(base + OFFSET_KEY) != key) {
+            return null;
+        }
+
+        double balance = chunk.getDouble(base + OFFSET_BALANCE);
+        int cardId = chunk.getInt(base + OFFSET_CARD_ID);
+        int holder = chunk.getInt(base + OFFSET_HOLDER);
+        int currency = chunk.getInt(base + OFFSET_CURRENCY);
+        short expiry = chunk.getShort(base + OFFSET_EXPIRY);
+        short cvv = chunk.getShort(base + OFFSET_CVV);
+        if (cvv == COLD_CVV && System.currentTimeMillis() > restoredServableUntil) {
+            return null;
+        }
+
+        String[] names = holders;
+        int nameIndex = holder * HOLDER_FIELDS;
+        if (nameIndex < 0 || nameIndex + 2 >= names.length) {
+            return null;
+        }
+
+        return new Card(
+            cardId == NULL_CARD_ID ? null : cardId,
+            unpackPan(key),
+            cvv == COLD_CVV ? null : unpackCvv(cvv),
+            unpackExpiry(expiry),
+            names[nameIndex],
+            names[nameIndex + 1],
+            names[nameIndex + 2],
+            unpackCurrency(currency),
+            Double.isNaN(balance) ? null : balance
+        );
+    }
+
+    private int internHolder(String name, String surname, String iin) {
+        String holderKey = holderKey(name, surname, iin);
+        Integer existing = holderIds.get(holderKey);
+        if (existing != null) {
+            return existing;
+        }
+
+        int id = holderCount++;
+        String[] names = holders;
+        if (id * HOLDER_FIELDS + 2 >= names.length) {
+            String[] grown = new String[names.length * 2];
+            System.arraycopy(names, 0, grown, 0, names.length);
+            names = grown;
+        }
+        names[id * HOLDER_FIELDS] = name;
+        names[id * HOLDER_FIELDS + 1] = surname;
+        names[id * HOLDER_FIELDS + 2] = iin;
+        holders = names;
+        holderIds.put(holderKey, id);
+        return id;
+    }
+
+    private static String holderKey(String name, String surname, String iin) {
+        return name + '\u0000' + surname + '\u0000' + iin;
+    }
+
+    private Table resize(Table old) {
+        Table grown = new Table(old.capacity * 2);
+        for (int slot = 0; slot < old.capacity; slot++) {
+            long key = old.key(slot);
+            if (key != EMPTY_KEY) {
+                grown.copyFrom(old, slot, grown.findSlot(key));
+            }
+        }
+        table = grown;
+        return grown;
+    }
+
+    private static FileAttribute<?>[] ownerOnly(Path path) {
+        if (!path.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            return new FileAttribute<?>[0];
+        }
+        return new FileAttribute<?>[] {PosixFilePermissions.asFileAttribute(
+            EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE))};
+    }
+
+    private static long writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        return position;
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, ByteBuffer buffer, long position, Path path)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Card index snapshot is truncated: " + path);
+            }
+            position += read;
+        }
+        return buffer.flip();
+    }
+
+    private static ByteBuffer encodeHolders(String[] names, int count) {
+        byte[][] encoded = new byte[count * HOLDER_FIELDS][];
+        int bytes = 0;
+        for (int i = 0; i < encoded.length; i++) {
+            encoded[i] = names[i] != null ? names[i].getBytes(StandardCharsets.UTF_8) : null;
+            bytes += 4 + (encoded[i] != null ? encoded[i].length : 0);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(bytes);
+        for (byte[] name : encoded) {
+            if (name == null) {
+                buffer.putInt(-1);
+            } else {
+                buffer.putInt(name.length).put(name);
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static String[] decodeHolders(ByteBuffer buffer, int count, Path path) throws IOException {
+        String[] names = new String[Math.max(64, (count + 1) * HOLDER_FIELDS)];
+        for (int i = 0; i < count * HOLDER_FIELDS; i++) {
+            if (buffer.remaining() < 4) {
+                throw new IOException("Card index snapshot is truncated: " + path);
+            }
+            int length = buffer.getInt();
+            if (length < 0) {
+                continue;
+            }
+            if (buffer.remaining() < length) {
+                throw new IOException("Card index snapshot is truncated: " + path);
+            }
+            byte[] name = new byte[length];
+            buffer.get(name);
+            names[i] = new String(name, StandardCharsets.UTF_8);
+        }
+        return names;
+    }
+
+    private static int capacityFor(int expectedCards) {
+        long needed = (long) Math.ceil(Math.max(expectedCards, 16) / MAX_LOAD_FACTOR);
+        long capacity = Long.highestOneBit(needed - 1) << 1;
+        if (capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Too many cards for index: " + expectedCards);
+        }
+        return (int) capacity;
+    }
+
+    private static long keyOf(String pan) {
+        if (pan == null || pan.length() != 16) {
+            return EMPTY_KEY;
+        }
+        long value = 0;
+        for (int i = 0; i < pan.length(); i++) {
+            char c = pan.charAt(i);
+            if (c < '0' || c > '9') {
+                return EMPTY_KEY;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value + 1;
+    }
+
+    private static String unpackPan(long key) {
+        String digits = Long.toString(key - 1);
+        return "0".repeat(16 - digits.length()) + digits;
+    }
+
+    private static short packExpiry(String dateOfExpire) {
+        if (dateOfExpire == null || dateOfExpire.length() != 5 || dateOfExpire.charAt(2) != '/') {
+            return -1;
+        }
+        int yy = parseDigits(dateOfExpire, 0, 2);
+        int mm = parseDigits(dateOfExpire, 3, 5);
+        if (yy < 0 || mm < 0) {
+            return -1;
+        }
+        return (short) (yy * 100 + mm);
+    }
+
+    private static String unpackExpiry(short expiry) {
+        return String.format("%02d/%02d", expiry / 100, expiry % 100);
+    }
+
+    private static short packCvv(String cvv) {
+        if (cvv == null || cvv.isEmpty() || cvv.length() > 3) {
+            return -1;
+        }
+        int value = parseDigits(cvv, 0, cvv.length());
+        if (value < 0) {
+            return -1;
+        }
+        return (short) (cvv.length() * 1000 + value);
+    }
+
+    private static String unpackCvv(short cvv) {
+        int length = cvv / 1000;
+        String digits = Integer.toString(cvv % 1000);
+        return "0".repeat(Math.max(0, length - digits.length())) + digits;
+    }
+
+    private static int packCurrency(String currency) {
+        if (currency == null) {
+            return 0;
+        }
+        if (currency.isEmpty() || currency.length() > 4) {
+            return -1;
+        }
+        int packed = 0;
+        for (int i = 0; i < currency.length(); i++) {
+            char c = currency.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                return -1;
+            }
+            packed = (packed << 7) | c;
+        }
+        return packed;
+    }
+
+    private static String unpackCurrency(int packed) {
+        if (packed == 0) {
+            return null;
+        }
+        StringBuilder currency = new StringBuilder(4);
+        while (packed != 0) {
+            currency.insert(0, (char) (packed & 0x7F));
+            packed >>>= 7;
+        }
+        return currency.toString();
+    }
+
+    private static int parseDigits(String value, int from, int to) {
+        int result = 0;
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    private static int mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    private static final class Table {
+        private final int capacity;
+        private final int mask;
+        private final int threshold;
+        private final int chunkShift;
+        private final int chunkMask;
+        private final ByteBuffer[] chunks;
+
+        private Table(int capacity) {
+            this(capacity, allocateChunks(capacity));
+        }
+
+        private Table(int capacity, ByteBuffer[] chunks) {
+            this.capacity = capacity;
+            this.mask = capacity - 1;
+            this.threshold = (int) (capacity * MAX_LOAD_FACTOR);
+            int chunkSlots = Math.min(capacity, MAX_CHUNK_SLOTS);
+            this.chunkShift = Integer.numberOfTrailingZeros(chunkSlots);
+            this.chunkMask = chunkSlots - 1;
+            this.chunks = chunks;
+        }
+
+        private static ByteBuffer[] allocateChunks(int capacity) {
+            int chunkSlots = Math.min(capacity, MAX_CHUNK_SLOTS);
+            ByteBuffer[] chunks = new ByteBuffer[capacity / chunkSlots];
+            for (int i = 0; i < chunks.length; i++) {
+                chunks[i] = ByteBuffer.allocateDirect(chunkSlots * SLOT_BYTES).order(ByteOrder.nativeOrder());
+            }
+            return chunks;
+        }
+
+        private ByteBuffer chunk(int slot) {
+            return chunks[slot >>> chunkShift];
+        }
+
+        private int offset(int slot) {
+            return (slot & chunkMask) << SLOT_SHIFT;
+        }
+
+        private long key(int slot) {
+            return chunk(slot).getLong(offset(slot) + OFFSET_KEY);
+        }
+
+        private int home(long key) {
+            return mix(key) & mask;
+        }
+
+        private int probe(long key) {
+            int slot = home(key);
+            for (int i = 0; i < capacity; i++) {
+                long current = key(slot);
+                if (current == key) {
+                    return slot;
+                }
+                if (current == EMPTY_KEY) {
+                    return -1;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private boolean isServable(long key, long restoredServableUntil) {
+            int slot = probe(key);
+            return slot >= 0 && (chunk(slot).getShort(offset(slot) + OFFSET_CVV) != COLD_CVV
+                    || System.currentTimeMillis() <= restoredServableUntil);
+        }
+
+        private int findSlot(long key) {
+            int slot = home(key);
+            while (true) {
+                long current = key(slot);
+                if (current == key || current == EMPTY_KEY) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        private void write(int slot, long key, double balance, int cardId,
+                           int holder, int currency, short expiry, short cvv) {
+            ByteBuffer chunk = chunk(slot);
+            int base = offset(slot);
+            chunk.putDouble(base + OFFSET_BALANCE, balance);
+            chunk.putInt(base + OFFSET_CARD_ID, cardId);
+            chunk.putInt(base + OFFSET_HOLDER, holder);
+            chunk.putInt(base + OFFSET_CURRENCY, currency);
+            chunk.putShort(base + OFFSET_EXPIRY, expiry);
+            chunk.putShort(base + OFFSET_CVV, cvv);
+            chunk.putLong(base + OFFSET_KEY, key);
+        }
+
+        private void copyFrom(Table source, int sourceSlot, int targetSlot) {
+            ByteBuffer from = source.chunk(sourceSlot);
+            ByteBuffer to = chunk(targetSlot);
+            int fromBase = source.offset(sourceSlot);
+            int toBase = offset(targetSlot);
+            to.put(toBase, from, fromBase, SLOT_BYTES);
+        }
+
+        private void delete(int slot) {
+            int hole = slot;
+            int next = (hole + 1) & mask;
+            while (true) {
+                long key = key(next);
+                if (key == EMPTY_KEY) {
+                    break;
+                }
+                int home = home(key);
+                boolean movable = hole <= next
+                        ? (home <= hole || home > next)
+                        : (home <= hole && home > next);
+                if (movable) {
+                    copyFrom(this, next, hole);
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+            chunk(hole).putLong(offset(hole) + OFFSET_KEY, EMPTY_KEY);
+        }
+    }
+
+    private static final class KeySet {
+        private long[] keys;
+        private int size;
+
+        private KeySet(int expected) {
+            this.keys = new long[Math.max(expected, 16)];
+        }
+
+        private synchronized void add(long key) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, keys.length * 2);
+            }
+            keys[size++] = key;
+        }
+
+        private void sort() {
+            Arrays.sort(keys, 0, size);
+        }
+
+        private boolean contains(long key) {
+            return Arrays.binarySearch(keys, 0, size, key) >= 0;
+        }
+    }
+}
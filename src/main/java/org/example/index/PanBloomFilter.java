@@ -0,0 +1,95 @@
+package org.example.index;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class PanBloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final LongAdder insertions = new LongAdder();
+
+    public PanBloomFilter(long expectedPans, double falsePositiveRate) {
+        if (expectedPans <= 0) {
+            expectedPans = 1;
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be in (0, 1): " + falsePositiveRate);
+        }
+
+        long optimalBits = (long) Math.ceil(-expectedPans * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, (optimalBits + 63) / 64);
+        this.bits = new AtomicLongArray(Math.max(words, 1));
+        this.bitCount = (long) bits.length() * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedPans * Math.log(2)));
+    }
+
+    public void put(String pan) {
+        if (pan == null) {
+            return;
+        }
+        long h1 = hash(pan, 0x9E3779B97F4A7C15L);
+        long h2 = hash(pan, 0xC2B2AE3D27D4EB4FL) | 1L;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            setBit(bit);
+        }
+        insertions.increment();
+    }
+
+    public boolean mightContain(String pan) {
+        if (pan == null) {
+            return false;
+        }
+        long h1 = hash(pan, 0x9E3779B97F4A7C15L);
+        long h2 = hash(pan, 0xC2B2AE3D27D4EB4FL) | 1L;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getInsertions() {
+        return insertions.sum();
+    }
+
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    private void setBit(long bit) {
+        int word = (int) (bit >>> 6);
+        long mask = 1L << bit;
+        long current = bits.get(word);
+        while ((current & mask) == 0) {
+            long witness = bits.compareAndExchange(word, current, current | mask);
+            if (witness == current) {
+                return;
+            }
+            current = witness;
+        }
+    }
+
+    private static long hash(String pan, long seed) {
+        long h = seed ^ pan.length();
+        for (int i = 0; i < pan.length(); i++) {
+            h ^= pan.charAt(i);
+            h *= 0x100000001B3L;
+            h ^= h >>> 29;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
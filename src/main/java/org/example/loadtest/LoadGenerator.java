@@ -0,0 +1,210 @@
+package org.example.loadtest;
+
+import org.example.dao.CardDao;
+import org.example.dao.CardUserDao;
+import org.example.dao.PanSequenceDao;
+import org.example.model.Card;
+import org.example.model.CardUser;
+import org.example.service.CardIssuanceException;
+import org.example.service.CardIssuanceService;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+public class LoadGenerator {
+
+    private final CardUserDao cardUserDao;
+    private final CardDao cardDao;
+    private final CardIssuanceService issuanceService;
+    private final LoadTestConfig config;
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    private final OperationStats total = new OperationStats(null);
+    private final LongAdder scheduled = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+
+    private CardUser[] users;
+    private Card[] cards;
+    private ZipfianGenerator panChooser;
+    private long measuredNanos;
+
+    public LoadGenerator(CardUserDao cardUserDao, CardDao cardDao, PanSequenceDao panSequenceDao,
+                         LoadTestConfig config) {
+        this.cardUserDao = cardUserDao;
+        this.cardDao = cardDao;
+        this.issuanceService = new CardIssuanceService(cardDao, panSequenceDao, config.getBin());
+        this.config = config;
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats(operation));
+        }
+    }
+
+    public void seed() {
+        long runPrefix = (System.currentTimeMillis() / 1000) % 1_000_000;
+        List<CardUser> created = new ArrayList<>(config.getUsers());
+        for (int i = 0; i < config.getUsers(); i++) {
+            String iin = String.format("%06d%06d", runPrefix, i);
+            CardUser user = cardUserDao.create(new CardUser("Load", "User" + i, iin));
+            if (user != null) {
+                created.add(user);
+            }
+        }
+        List<Card> issued;
+        try {
+            issued = issuanceService.issue(created, config.getCurrency(), config.getInitialBalance());
+        } catch (CardIssuanceException e) {
+            System.err.println("Error seeding cards: " + e.getMessage());
+            issued = e.getIssued();
+        }
+        if (issued.size() < 2) {
+            throw new IllegalStateException("Seeding produced " + issued.size() + " cards, need at least 2");
+        }
+
+        this.users = created.toArray(new CardUser[0]);
+        this.cards = issued.toArray(new Card[0]);
+        this.panChooser = new ZipfianGenerator(cards.length, config.getZipfTheta());
+        System.out.println("Seeded " + users.length + " users and " + cards.length + " cards");
+    }
+
+    public void run() throws InterruptedException {
+        if (cards == null) {
+            throw new IllegalStateException("seed() must run before run()");
+        }
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / config.getTargetRate());
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(config.getWarmupSeconds());
+        long end = start + TimeUnit.SECONDS.toNanos(config.getDurationSeconds());
+
+        ExecutorService executor = config.usesVirtualThreads()
+            ? Executors.newVirtualThreadPerTaskExecutor()
+            : Executors.newFixedThreadPool(config.getThreads());
+        try {
+            for (long i = 0; ; i++) {
+                long intended = start + i * intervalNanos;
+                if (intended >= end) {
+                    break;
+                }
+                long now = System.nanoTime();
+                if (now < intended) {
+                    LockSupport.parkNanos(intended - now);
+                }
+                boolean measured = intended >= measureFrom;
+                scheduled.increment();
+                executor.execute(() -> execute(intended, measured));
+            }
+        } catch (RejectedExecutionException e) {
+            System.err.println("Error scheduling load: " + e.getMessage());
+        } finally {
+            executor.shutdown();
+            if (!executor.awaitTermination(config.getDrainSeconds(), TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        }
+        measuredNanos = end - measureFrom;
+    }
+
+    public void report(PrintStream out) {
+        double seconds = measuredNanos / 1e9;
+        out.println("Config: " + config);
+        out.printf("Scheduled %d, completed %d, unfinished %d%n",
+                   scheduled.sum(), completed.sum(), scheduled.sum() - completed.sum());
+        out.printf("Measured window %.1fs, target %.1f ops/s, achieved %.1f ops/s%n",
+                   seconds, config.getTargetRate(), total.getCount() / seconds);
+        out.println("Latencies in ms; response time is measured from the intended start (corrected for coordinated omission)");
+        out.printf("%-9s %9s %9s %8s %8s %8s %8s %8s %10s %8s %8s%n",
+                   "op", "count", "ops/s", "p50", "p90", "p99", "p99.9", "max", "svc p99", "reject%", "error%");
+        for (OperationStats operationStats : stats.values()) {
+            if (operationStats.getCount() > 0) {
+                printRow(out, operationStats.getOperation().getKey(), operationStats, seconds);
+            }
+        }
+        printRow(out, "all", total, seconds);
+    }
+
+    private void printRow(PrintStream out, String label, OperationStats row, double seconds) {
+        LatencyHistogram response = row.getResponseTimes();
+        long count = row.getCount();
+        out.printf("%-9s %9d %9.1f %8.2f %8.2f %8.2f %8.2f %8.2f %10.2f %8.2f %8.2f%n",
+                   label, count, count / seconds,
+                   millis(response.percentileNanos(50)),
+                   millis(response.percentileNanos(90)),
+                   millis(response.percentileNanos(99)),
+                   millis(response.percentileNanos(99.9)),
+                   millis(response.getMaxNanos()),
+                   millis(row.getServiceTimes().percentileNanos(99)),
+                   percent(row.getRejected(), count),
+                   percent(row.getErrors(), count));
+    }
+
+    private void execute(long intendedStart, boolean measured) {
+        Random random = ThreadLocalRandom.current();
+        Operation operation = config.getMix().next(random);
+        long actualStart = System.nanoTime();
+        try {
+            boolean succeeded = perform(operation, random);
+            long endNanos = System.nanoTime();
+            if (measured) {
+                stats.get(operation).record(intendedStart, actualStart, endNanos, succeeded);
+                total.record(intendedStart, actualStart, endNanos, succeeded);
+            }
+        } catch (RuntimeException e) {
+            long endNanos = System.nanoTime();
+            if (measured) {
+                stats.get(operation).recordError(intendedStart, actualStart, endNanos);
+                total.recordError(intendedStart, actualStart, endNanos);
+            }
+        } finally {
+            completed.increment();
+        }
+    }
+
+    private boolean perform(Operation operation, Random random) {
+        switch (operation) {
+            case FIND_BY_PAN:
+                return cardDao.findByPan(pickCard(random).getPan()).isPresent();
+            case DEPOSIT:
+                return cardDao.depositMoney(pickCard(random).getPan(), amount(random, 100));
+            case WITHDRAW:
+                Card card = pickCard(random);
+                return cardDao.withdrawMoney(card.getPan(), card.getCvv(), amount(random, 50));
+            case TRANSFER:
+                int from = panChooser.next(random);
+                int to = panChooser.next(random);
+                if (from == to) {
+                    to = (to + 1) % cards.length;
+                }
+                return cardDao.transferMoney(cards[from].getPan(), cards[to].getPan(), amount(random, 50));
+            case ISSUE:
+                CardUser holder = users[random.nextInt(users.length)];
+                return issuanceService.issue(holder, config.getCurrency(), 0.0) != null;
+            default:
+                throw new IllegalArgumentException("Unsupported operation: " + operation);
+        }
+    }
+
+    private Card pickCard(Random random) {
+        return cards[panChooser.next(random)];
+    }
+
+    private static double amount(Random random, int max) {
+        return 1 + random.nextInt(max);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static double percent(long part, long whole) {
+        return whole == 0 ? 0 : part * 100.0 / whole;
+    }
+}
@@ -0,0 +1,136 @@
+package org.example.loadtest;
+
+import org.example.backend.BackendOptions;
+
+public class LoadTestConfig {
+
+    private String backend = "postgres";
+    private int users = 10_000;
+    private double initialBalance = 10_000.0;
+    private String currency = "KZT";
+    private String bin = "440044";
+    private double targetRate = 1_000.0;
+    private int durationSeconds = 60;
+    private int warmupSeconds = 10;
+    private int drainSeconds = 30;
+    private int threads = 0;
+    private double zipfTheta = 0.99;
+    private OperationMix mix = OperationMix.parse(OperationMix.DEFAULT);
+    private final BackendOptions backendOptions = new BackendOptions();
+
+    public static LoadTestConfig fromArgs(String[] args) {
+        LoadTestConfig config = new LoadTestConfig();
+        for (String arg : args) {
+            String option = arg.startsWith("--") ? arg.substring(2) : arg;
+            int separator = option.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected key=value but got: " + arg);
+            }
+            String key = option.substring(0, separator);
+            String value = option.substring(separator + 1);
+            switch (key) {
+                case "backend" -> config.backend = value;
+                case "users" -> config.users = Integer.parseInt(value);
+                case "balance" -> config.initialBalance = Double.parseDouble(value);
+                case "currency" -> config.currency = value;
+                case "bin" -> config.bin = value;
+                case "rate" -> config.targetRate = Double.parseDouble(value);
+                case "duration" -> config.durationSeconds = Integer.parseInt(value);
+                case "warmup" -> config.warmupSeconds = Integer.parseInt(value);
+                case "drain" -> config.drainSeconds = Integer.parseInt(value);
+                case "threads" -> config.threads = "virtual".equalsIgnoreCase(value) ? 0 : Integer.parseInt(value);
+                case "skew" -> config.zipfTheta = Double.parseDouble(value);
+                case "mix" -> config.mix = OperationMix.parse(value);
+                default -> config.backendOptions.set(key, value);
+            }
+        }
+        config.validate();
+        return config;
+    }
+
+    private void validate() {
+        if (users <= 0 || users > 1_000_000) {
+            throw new IllegalArgumentException("users must be between 1 and 1000000: " + users);
+        }
+        if (targetRate <= 0) {
+            throw new IllegalArgumentException("rate must be positive: " + targetRate);
+        }
+        if (durationSeconds <= 0 || warmupSeconds < 0 || warmupSeconds >= durationSeconds) {
+            throw new IllegalArgumentException("warmup must be shorter than duration");
+        }
+        if (threads < 0) {
+            throw new IllegalArgumentException("threads must be positive or 'virtual': " + threads);
+        }
+    }
+
+    public String getBackend() {
+        return backend;
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    public double getInitialBalance() {
+        return initialBalance;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public String getBin() {
+        return bin;
+    }
+
+    public double getTargetRate() {
+        return targetRate;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public int getWarmupSeconds() {
+        return warmupSeconds;
+    }
+
+    public int getDrainSeconds() {
+        return drainSeconds;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public boolean usesVirtualThreads() {
+        return threads == 0;
+    }
+
+    public double getZipfTheta() {
+        return zipfTheta;
+    }
+
+    public OperationMix getMix() {
+        return mix;
+    }
+
+    public BackendOptions getBackendOptions() {
+        return backendOptions;
+    }
+
+    @Override
+    public String toString() {
+        return "LoadTestConfig{" +
+                "backend='" + backend + '\'' +
+                ", users=" + users +
+                ", rate=" + targetRate +
+                ", duration=" + durationSeconds + "s" +
+                ", warmup=" + warmupSeconds + "s" +
+                ", threads=" + (usesVirtualThreads() ? "virtual" : String.valueOf(threads)) +
+                ", skew=" + zipfTheta +
+                ", mix=" + mix +
+                ", " + backendOptions +
+                '}';
+    }
+}
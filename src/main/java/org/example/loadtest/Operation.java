@@ -0,0 +1,28 @@
+package org.example.loadtest;
+
+public enum Operation {
+    FIND_BY_PAN("find"),
+    DEPOSIT("deposit"),
+    WITHDRAW("withdraw"),
+    TRANSFER("transfer"),
+    ISSUE("issue");
+
+    private final String key;
+
+    Operation(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public static Operation fromKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equalsIgnoreCase(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation: " + key);
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+public class OperationMix {
+
+    public static final String DEFAULT = "find:70,deposit:10,withdraw:10,transfer:8,issue:2";
+
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final int totalWeight;
+
+    public OperationMix(Map<Operation, Integer> weights) {
+        this.operations = new Operation[weights.size()];
+        this.cumulativeWeights = new int[weights.size()];
+
+        int total = 0;
+        int i = 0;
+        for (Map.Entry<Operation, Integer> entry : weights.entrySet()) {
+            if (entry.getValue() < 0) {
+                throw new IllegalArgumentException("Weight must not be negative: " + entry);
+            }
+            total += entry.getValue();
+            operations[i] = entry.getKey();
+            cumulativeWeights[i] = total;
+            i++;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("Operation mix must have a positive total weight");
+        }
+        this.totalWeight = total;
+    }
+
+    public static OperationMix parse(String spec) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : spec.split(",")) {
+            String[] pair = part.trim().split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Expected operation:weight but got: " + part);
+            }
+            weights.merge(Operation.fromKey(pair[0].trim()), Integer.parseInt(pair[1].trim()), Integer::sum);
+        }
+        return new OperationMix(weights);
+    }
+
+    public Operation next(Random random) {
+        int roll = random.nextInt(totalWeight);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (roll < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        int previous = 0;
+        for (int i = 0; i < operations.length; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(operations[i].getKey()).append(':').append(cumulativeWeights[i] - previous);
+            previous = cumulativeWeights[i];
+        }
+        return builder.toString();
+    }
+}
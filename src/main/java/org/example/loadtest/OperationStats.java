@@ -0,0 +1,54 @@
+package org.example.loadtest;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class OperationStats {
+
+    private final Operation operation;
+    private final LatencyHistogram responseTimes = new LatencyHistogram();
+    private final LatencyHistogram serviceTimes = new LatencyHistogram();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    public OperationStats(Operation operation) {
+        this.operation = operation;
+    }
+
+    public void record(long intendedStartNanos, long actualStartNanos, long endNanos, boolean succeeded) {
+        responseTimes.record(endNanos - intendedStartNanos);
+        serviceTimes.record(endNanos - actualStartNanos);
+        if (!succeeded) {
+            rejected.increment();
+        }
+    }
+
+    public void recordError(long intendedStartNanos, long actualStartNanos, long endNanos) {
+        responseTimes.record(endNanos - intendedStartNanos);
+        serviceTimes.record(endNanos - actualStartNanos);
+        errors.increment();
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public LatencyHistogram getResponseTimes() {
+        return responseTimes;
+    }
+
+    public LatencyHistogram getServiceTimes() {
+        return serviceTimes;
+    }
+
+    public long getCount() {
+        return responseTimes.getCount();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.loadtest;
+
+import java.util.Random;
+
+public class ZipfianGenerator {
+
+    private final int items;
+    private final double theta;
+    private final double alpha;
+    private final double zetaN;
+    private final double eta;
+    private final double halfPowTheta;
+
+    public ZipfianGenerator(int items, double theta) {
+        if (items <= 0) {
+            throw new IllegalArgumentException("Item count must be positive: " + items);
+        }
+        if (theta < 0 || theta >= 1) {
+            throw new IllegalArgumentException("Zipfian theta must be in [0, 1): " + theta);
+        }
+        this.items = items;
+        this.theta = theta;
+        this.alpha = 1.0 / (1.0 - theta);
+        this.zetaN = zeta(items, theta);
+        this.halfPowTheta = 1.0 + Math.pow(0.5, theta);
+        double zeta2 = zeta(Math.min(items, 2), theta);
+        this.eta = items < 2 ? 1.0 : (1 - Math.pow(2.0 / items, 1 - theta)) / (1 - zeta2 / zetaN);
+    }
+
+    public int next(Random random) {
+        if (theta == 0) {
+            return random.nextInt(items);
+        }
+        double u = random.nextDouble();
+        double uz = u * zetaN;
+        if (uz < 1.0) {
+            return 0;
+        }
+        if (uz < halfPowTheta) {
+            return Math.min(1, items - 1);
+        }
+        int rank = (int) (items * Math.pow(eta * u - eta + 1, alpha));
+        return Math.min(rank, items - 1);
+    }
+
+    public int getItems() {
+        return items;
+    }
+
+    public double getTheta() {
+        return theta;
+    }
+
+    private static double zeta(int n, double theta) {
+        double sum = 0;
+        for (int i = 1; i <= n; i++) {
+            sum += 1.0 / Math.pow(i, theta);
+        }
+        return sum;
+    }
+}
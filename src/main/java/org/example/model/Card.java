@@ -1,15 +1,19 @@
 package org.example.model;
 
+import java.security.SecureRandom;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 
 public class Card {
+    private static final ThreadLocal<SecureRandom> RANDOM = ThreadLocal.withInitial(SecureRandom::new);
+
     private Integer cardId;
     private String pan;
     private String cvv;
     private String dateOfExpire;
     private String name;
     private String surname;
+    private String iin;
     private String currency;
     private Double balance;
 
@@ -18,12 +22,18 @@ public class Card {
 
     public Card(Integer cardId, String pan, String cvv, String dateOfExpire,
                 String name, String surname, String currency, Double balance) {
+        this(cardId, pan, cvv, dateOfExpire, name, surname, null, currency, balance);
+    }
+
+    public Card(Integer cardId, String pan, String cvv, String dateOfExpire,
+                String name, String surname, String iin, String currency, Double balance) {
         this.cardId = cardId;
         this.pan = pan;
         this.cvv = cvv;
         this.dateOfExpire = dateOfExpire;
         this.name = name;
         this.surname = surname;
+        this.iin = iin;
         this.currency = currency;
         this.balance = balance;
     }
@@ -35,7 +45,7 @@ public class Card {
     }
 
     public static String generateCVV() {
-        int cvv = (int) (Math.random() * 900) + 100;
+        int cvv = RANDOM.get().nextInt(900) + 100;
         return String.valueOf(cvv);
     }
 
@@ -87,6 +97,14 @@ public class Card {
         this.surname = surname;
     }
 
+    public String getIin() {
+        return iin;
+    }
+
+    public void setIin(String iin) {
+        this.iin = iin;
+    }
+
     public String getFullName() {
         return name + " " + surname;
     }
@@ -116,6 +134,7 @@ public class Card {
                 ", dateOfExpire='" + dateOfExpire + '\'' +
                 ", name='" + name + '\'' +
                 ", surname='" + surname + '\'' +
+                ", iin='" + iin + '\'' +
                 ", currency='" + currency + '\'' +
                 ", balance=" + balance +
                 '}';
@@ -0,0 +1,127 @@
+package org.example.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CardEvent {
+
+    public enum Type {
+        DEBIT,
+        CREDIT
+    }
+
+    public enum Operation {
+        TRANSFER,
+        WITHDRAWAL,
+        DEPOSIT,
+        DISBURSEMENT,
+        REFUND,
+        INTEREST
+    }
+
+    private String eventId;
+    private String pan;
+    private Type type;
+    private Double amount;
+    private Operation operation;
+    private long createdAt;
+
+    public CardEvent() {
+    }
+
+    public CardEvent(String eventId, String pan, Type type, Double amount, Operation operation, long createdAt) {
+        this.eventId = eventId;
+        this.pan = pan;
+        this.type = type;
+        this.amount = amount;
+        this.operation = operation;
+        this.createdAt = createdAt;
+    }
+
+    public static CardEvent debit(String pan, double amount, Operation operation) {
+        return new CardEvent(null, pan, Type.DEBIT, amount, operation, System.currentTimeMillis());
+    }
+
+    public static CardEvent credit(String pan, double amount, Operation operation) {
+        return new CardEvent(null, pan, Type.CREDIT, amount, operation, System.currentTimeMillis());
+    }
+
+    public static List<CardEvent> ofDisbursement(DisbursementResult result, double total, double refund) {
+        List<CardEvent> events = new ArrayList<>();
+        events.add(debit(result.getSourcePan(), total, Operation.DISBURSEMENT));
+        for (DisbursementResult.Entry entry : result.getEntries()) {
+            if (entry.getStatus() == DisbursementResult.Status.CREDITED) {
+                events.add(credit(entry.getDisbursement().getDestinationPan(),
+                                  entry.getDisbursement().getAmount(), Operation.DISBURSEMENT));
+            }
+        }
+        if (refund > 0) {
+            events.add(credit(result.getSourcePan(), refund, Operation.REFUND));
+        }
+        return events;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
+    public String getPan() {
+        return pan;
+    }
+
+    public void setPan(String pan) {
+        this.pan = pan;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public Double getAmount() {
+        return amount;
+    }
+
+    public void setAmount(Double amount) {
+        this.amount = amount;
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public void setOperation(Operation operation) {
+        this.operation = operation;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public double getBalanceDelta() {
+        return type == Type.DEBIT ? -amount : amount;
+    }
+
+    @Override
+    public String toString() {
+        return "CardEvent{" +
+                "eventId='" + eventId + '\'' +
+                ", pan='" + pan + '\'' +
+                ", type=" + type +
+                ", amount=" + amount +
+                ", operation=" + operation +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
@@ -0,0 +1,38 @@
+package org.example.model;
+
+public class Disbursement {
+    private String destinationPan;
+    private Double amount;
+
+    public Disbursement() {
+    }
+
+    public Disbursement(String destinationPan, Double amount) {
+        this.destinationPan = destinationPan;
+        this.amount = amount;
+    }
+
+    public String getDestinationPan() {
+        return destinationPan;
+    }
+
+    public void setDestinationPan(String destinationPan) {
+        this.destinationPan = destinationPan;
+    }
+
+    public Double getAmount() {
+        return amount;
+    }
+
+    public void setAmount(Double amount) {
+        this.amount = amount;
+    }
+
+    @Override
+    public String toString() {
+        return "Disbursement{" +
+                "destinationPan='" + destinationPan + '\'' +
+                ", amount=" + amount +
+                '}';
+    }
+}
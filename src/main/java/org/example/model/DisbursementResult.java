@@ -0,0 +1,138 @@
+package org.example.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class DisbursementResult {
+
+    public enum Status {
+        PENDING,
+        CREDITED,
+        INVALID_AMOUNT,
+        DESTINATION_NOT_FOUND,
+        INSUFFICIENT_FUNDS,
+        FAILED,
+        ROLLED_BACK
+    }
+
+    public static class Entry {
+        private final Disbursement disbursement;
+        private Status status;
+
+        public Entry(Disbursement disbursement, Status status) {
+            this.disbursement = disbursement;
+            this.status = status;
+        }
+
+        public Disbursement getDisbursement() {
+            return disbursement;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public void setStatus(Status status) {
+            this.status = status;
+        }
+
+        @Override
+        public String toString() {
+            return disbursement.getDestinationPan() + "=" + status;
+        }
+    }
+
+    private final String sourcePan;
+    private final List<Entry> entries;
+
+    public DisbursementResult(String sourcePan, List<Disbursement> disbursements) {
+        this.sourcePan = sourcePan;
+        this.entries = new ArrayList<>(disbursements.size());
+        for (Disbursement disbursement : disbursements) {
+            entries.add(new Entry(disbursement, isValidAmount(disbursement.getAmount())
+                ? Status.PENDING
+                : Status.INVALID_AMOUNT));
+        }
+    }
+
+    private static boolean isValidAmount(Double amount) {
+        return amount != null && amount > 0 && !amount.isInfinite();
+    }
+
+    public String getSourcePan() {
+        return sourcePan;
+    }
+
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    public Entry getEntry(int index) {
+        return entries.get(index);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void markPending(Status status) {
+        for (Entry entry : entries) {
+            if (entry.getStatus() == Status.PENDING) {
+                entry.setStatus(status);
+            }
+        }
+    }
+
+    public void markUnsettled(Status status) {
+        for (Entry entry : entries) {
+            if (entry.getStatus() == Status.PENDING || entry.getStatus() == Status.CREDITED) {
+                entry.setStatus(status);
+            }
+        }
+    }
+
+    public double getPendingAmount() {
+        double total = 0;
+        for (Entry entry : entries) {
+            if (entry.getStatus() == Status.PENDING) {
+                total += entry.getDisbursement().getAmount();
+            }
+        }
+        return total;
+    }
+
+    public boolean isFullySuccessful() {
+        return countWithStatus(Status.CREDITED) == entries.size();
+    }
+
+    public int countWithStatus(Status status) {
+        int count = 0;
+        for (Entry entry : entries) {
+            if (entry.getStatus() == status) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public double getCreditedAmount() {
+        double total = 0;
+        for (Entry entry : entries) {
+            if (entry.getStatus() == Status.CREDITED) {
+                total += entry.getDisbursement().getAmount();
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return "DisbursementResult{" +
+                "sourcePan='" + sourcePan + '\'' +
+                ", credited=" + countWithStatus(Status.CREDITED) +
+                ", total=" + entries.size() +
+                ", creditedAmount=" + getCreditedAmount() +
+                '}';
+    }
+}
@@ -0,0 +1,29 @@
+package org.example.model;
+
+import java.util.List;
+
+public class HolderWithCards {
+    private final CardUser holder;
+    private final List<Card> cards;
+
+    public HolderWithCards(CardUser holder, List<Card> cards) {
+        this.holder = holder;
+        this.cards = cards;
+    }
+
+    public CardUser getHolder() {
+        return holder;
+    }
+
+    public List<Card> getCards() {
+        return cards;
+    }
+
+    @Override
+    public String toString() {
+        return "HolderWithCards{" +
+                "holder=" + holder +
+                ", cards=" + cards +
+                '}';
+    }
+}
@@ -0,0 +1,9 @@
+package org.example.outbox;
+
+import org.example.model.CardEvent;
+
+import java.util.List;
+
+public interface CardEventSink {
+    void publish(List<CardEvent> events) throws Exception;
+}
@@ -0,0 +1,50 @@
+package org.example.outbox;
+
+import org.example.model.CardEvent;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+public class FileCardEventSink implements CardEventSink, AutoCloseable {
+
+    private final FileChannel channel;
+
+    public FileCardEventSink(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                        StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public synchronized void publish(List<CardEvent> events) throws IOException {
+        StringBuilder lines = new StringBuilder(events.size() * 128);
+        for (CardEvent event : events) {
+            lines.append("{\"eventId\":\"").append(event.getEventId())
+                 .append("\",\"pan\":\"").append(event.getPan())
+                 .append("\",\"type\":\"").append(event.getType())
+                 .append("\",\"amount\":").append(event.getAmount())
+                 .append(",\"operation\":\"").append(event.getOperation())
+                 .append("\",\"createdAt\":").append(event.getCreatedAt())
+                 .append("}\n");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,43 @@
+package org.example.outbox;
+
+import org.example.model.CardEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class InMemoryCardEventSink implements CardEventSink {
+
+    private final BlockingQueue<CardEvent> queue;
+
+    public InMemoryCardEventSink() {
+        this(Integer.MAX_VALUE);
+    }
+
+    public InMemoryCardEventSink(int capacity) {
+        this.queue = new LinkedBlockingQueue<>(capacity);
+    }
+
+    @Override
+    public void publish(List<CardEvent> events) throws InterruptedException {
+        for (CardEvent event : events) {
+            queue.put(event);
+        }
+    }
+
+    public CardEvent poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return queue.poll(timeout, unit);
+    }
+
+    public List<CardEvent> drain() {
+        List<CardEvent> events = new ArrayList<>(queue.size());
+        queue.drainTo(events);
+        return events;
+    }
+
+    public int size() {
+        return queue.size();
+    }
+}
@@ -0,0 +1,93 @@
+package org.example.outbox;
+
+import org.example.dao.CardEventOutbox;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class OutboxPublisher implements AutoCloseable {
+
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    private final CardEventOutbox outbox;
+    private final CardEventSink sink;
+    private final int batchSize;
+    private final long pollIntervalMillis;
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public OutboxPublisher(CardEventOutbox outbox, CardEventSink sink, int batchSize, Duration pollInterval) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        this.outbox = outbox;
+        this.sink = sink;
+        this.batchSize = batchSize;
+        this.pollIntervalMillis = pollInterval.toMillis();
+    }
+
+    public synchronized void start() {
+        if (worker != null) {
+            return;
+        }
+        running = true;
+        worker = Thread.ofPlatform().name("outbox-publisher").daemon(true).start(this::run);
+    }
+
+    public int drainOnce() throws Exception {
+        int total = 0;
+        int drained;
+        do {
+            drained = outbox.drain(batchSize, sink);
+            published.addAndGet(drained);
+            total += drained;
+        } while (drained == batchSize);
+        return total;
+    }
+
+    public long getPublished() {
+        return published.get();
+    }
+
+    public long getFailures() {
+        return failures.get();
+    }
+
+    @Override
+    public synchronized void close() throws InterruptedException {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            worker.join();
+            worker = null;
+        }
+    }
+
+    static long nextBackoff(long backoff) {
+        return Math.min(Math.max(backoff, 1) * 2, MAX_BACKOFF_MILLIS);
+    }
+
+    private void run() {
+        long backoff = pollIntervalMillis;
+        while (running) {
+            try {
+                drainOnce();
+                backoff = pollIntervalMillis;
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                failures.incrementAndGet();
+                System.err.println("Error publishing card events: " + e.getMessage());
+                backoff = nextBackoff(backoff);
+            }
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+}
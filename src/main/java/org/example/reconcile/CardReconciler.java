@@ -0,0 +1,137 @@
+package org.example.reconcile;
+
+import org.example.dao.CardDao;
+import org.example.model.Card;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+public class CardReconciler {
+
+    private static final int DEFAULT_LEAF_PREFIX_LENGTH = 10;
+
+    private final CardDao source;
+    private final CardDao target;
+    private final int leafPrefixLength;
+
+    public CardReconciler(CardDao source, CardDao target) {
+        this(source, target, DEFAULT_LEAF_PREFIX_LENGTH);
+    }
+
+    public CardReconciler(CardDao source, CardDao target, int leafPrefixLength) {
+        this.source = source;
+        this.target = target;
+        this.leafPrefixLength = leafPrefixLength;
+    }
+
+    public ReconciliationReport reconcile(boolean repair) {
+        long start = System.currentTimeMillis();
+        ReconciliationReport report = new ReconciliationReport();
+
+        PanBucketTree sourceTree = new PanBucketTree(leafPrefixLength);
+        PanBucketTree targetTree = new PanBucketTree(leafPrefixLength);
+        source.forEachCard(sourceTree::add);
+        target.forEachCard(targetTree::add);
+        report.setCardCounts(sourceTree.getCardCount(), targetTree.getCardCount());
+
+        List<String> mismatchedLeaves = new ArrayList<>();
+        collectMismatchedLeaves(sourceTree, targetTree, 0, "", mismatchedLeaves, report);
+
+        for (String prefix : mismatchedLeaves) {
+            diffRange(prefix, repair, report);
+        }
+
+        report.setElapsedMillis(System.currentTimeMillis() - start);
+        return report;
+    }
+
+    private void collectMismatchedLeaves(PanBucketTree sourceTree, PanBucketTree targetTree, int length,
+                                         String prefix, List<String> mismatchedLeaves,
+                                         ReconciliationReport report) {
+        PanBucketTree.Bucket sourceBucket = sourceTree.bucket(length, prefix);
+        PanBucketTree.Bucket targetBucket = targetTree.bucket(length, prefix);
+        if (sourceBucket == null && targetBucket == null) {
+            return;
+        }
+        if (length == leafPrefixLength) {
+            report.leafCompared();
+        }
+        if (sourceBucket != null && sourceBucket.matches(targetBucket)) {
+            return;
+        }
+        if (length == leafPrefixLength) {
+            mismatchedLeaves.add(prefix);
+            return;
+        }
+
+        TreeSet<String> children = new TreeSet<>(sourceTree.children(length, prefix).keySet());
+        children.addAll(targetTree.children(length, prefix).keySet());
+        for (String child : children) {
+            if (child.length() == length) {
+                mismatchedLeaves.add(child);
+                continue;
+            }
+            collectMismatchedLeaves(sourceTree, targetTree, length + 1, child, mismatchedLeaves, report);
+        }
+    }
+
+    private void diffRange(String prefix, boolean repair, ReconciliationReport report) {
+        report.leafDiffed();
+        Map<String, Card> sourceCards = fetch(source, prefix);
+        Map<String, Card> targetCards = fetch(target, prefix);
+
+        for (Card sourceCard : sourceCards.values()) {
+            Card targetCard = targetCards.remove(sourceCard.getPan());
+            if (targetCard == null) {
+                report.recordMissingInTarget(sourceCard.getPan());
+                if (repair) {
+                    report.recordRepair(target.create(copyOf(sourceCard, null)) != null);
+                }
+            } else if (!sameContent(sourceCard, targetCard)) {
+                report.recordMismatched(sourceCard.getPan());
+                if (repair) {
+                    report.recordRepair(target.update(copyOf(sourceCard, targetCard.getCardId())));
+                }
+            }
+        }
+        for (Card extra : targetCards.values()) {
+            report.recordMissingInSource(extra.getPan());
+            if (repair) {
+                report.recordRepair(target.deleteByPan(extra.getPan()));
+            }
+        }
+    }
+
+    private Map<String, Card> fetch(CardDao dao, String prefix) {
+        Map<String, Card> cards = new TreeMap<>();
+        dao.forEachCardInPanRange(prefix, PanBucketTree.nextPrefix(prefix), card -> {
+            if (PanBucketTree.leafKey(card.getPan(), leafPrefixLength).equals(prefix)) {
+                cards.put(card.getPan(), card);
+            }
+        });
+        return cards;
+    }
+
+    private static boolean sameContent(Card a, Card b) {
+        return Objects.equals(a.getCvv(), b.getCvv())
+            && Objects.equals(a.getDateOfExpire(), b.getDateOfExpire())
+            && Objects.equals(a.getName(), b.getName())
+            && Objects.equals(a.getSurname(), b.getSurname())
+            && Objects.equals(a.getIin(), b.getIin())
+            && Objects.equals(a.getCurrency(), b.getCurrency())
+            && Objects.equals(cents(a.getBalance()), cents(b.getBalance()));
+    }
+
+    private static Long cents(Double balance) {
+        return balance == null ? null : Math.round(balance * 100);
+    }
+
+    private static Card copyOf(Card card, Integer cardId) {
+        return new Card(cardId, card.getPan(), card.getCvv(), card.getDateOfExpire(),
+                        card.getName(), card.getSurname(), card.getIin(), card.getCurrency(), card.getBalance());
+    }
+}
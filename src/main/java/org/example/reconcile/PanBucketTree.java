@@ -0,0 +1,125 @@
+package org.example.reconcile;
+
+import org.example.model.Card;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+public class PanBucketTree {
+
+    private final int leafPrefixLength;
+    private final List<TreeMap<String, Bucket>> levels;
+    private long cards;
+
+    public PanBucketTree(int leafPrefixLength) {
+        if (leafPrefixLength <= 0) {
+            throw new IllegalArgumentException("Leaf prefix length must be positive: " + leafPrefixLength);
+        }
+        this.leafPrefixLength = leafPrefixLength;
+        this.levels = new ArrayList<>(leafPrefixLength + 1);
+        for (int i = 0; i <= leafPrefixLength; i++) {
+            levels.add(new TreeMap<>());
+        }
+    }
+
+    public void add(Card card) {
+        String pan = card.getPan();
+        long hash = hash(card);
+        for (int length = 0; length <= leafPrefixLength; length++) {
+            String prefix = leafKey(pan, length);
+            levels.get(length).computeIfAbsent(prefix, key -> new Bucket()).add(hash);
+        }
+        cards++;
+    }
+
+    public int getLeafPrefixLength() {
+        return leafPrefixLength;
+    }
+
+    public long getCardCount() {
+        return cards;
+    }
+
+    public int getLeafCount() {
+        return levels.get(leafPrefixLength).size();
+    }
+
+    Bucket bucket(int length, String prefix) {
+        return levels.get(length).get(prefix);
+    }
+
+    NavigableMap<String, Bucket> children(int length, String prefix) {
+        return levels.get(length + 1).subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    static String leafKey(String pan, int prefixLength) {
+        return pan.substring(0, Math.min(prefixLength, pan.length()));
+    }
+
+    static String nextPrefix(String prefix) {
+        char[] chars = prefix.toCharArray();
+        for (int i = chars.length - 1; i >= 0; i--) {
+            if (chars[i] < '9') {
+                chars[i]++;
+                return new String(chars, 0, i + 1);
+            }
+        }
+        return null;
+    }
+
+    static long hash(Card card) {
+        long h = 0xcbf29ce484222325L;
+        h = mix(h, card.getPan());
+        h = mix(h, card.getCvv());
+        h = mix(h, card.getDateOfExpire());
+        h = mix(h, card.getName());
+        h = mix(h, card.getSurname());
+        h = mix(h, card.getIin());
+        h = mix(h, card.getCurrency());
+        h = mix(h, card.getBalance() == null ? Long.MIN_VALUE : Math.round(card.getBalance() * 100));
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static long mix(long h, String value) {
+        if (value == null) {
+            return mix(h, 0x9E3779B97F4A7C15L);
+        }
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        return mix(h, value.length());
+    }
+
+    private static long mix(long h, long value) {
+        h ^= value;
+        h *= 0x100000001B3L;
+        h ^= h >>> 29;
+        return h;
+    }
+
+    static final class Bucket {
+        private long count;
+        private long sum;
+
+        private void add(long hash) {
+            count++;
+            sum += hash;
+        }
+
+        boolean matches(Bucket other) {
+            return other != null && count == other.count && sum == other.sum;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package org.example.reconcile;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class ReconciliationReport {
+
+    private static final int MAX_SAMPLE = 100;
+
+    private final List<String> missingInTarget = new ArrayList<>();
+    private final List<String> missingInSource = new ArrayList<>();
+    private final List<String> mismatched = new ArrayList<>();
+    private long missingInTargetCount;
+    private long missingInSourceCount;
+    private long mismatchedCount;
+    private long sourceCards;
+    private long targetCards;
+    private long leavesCompared;
+    private long leavesDiffed;
+    private long repaired;
+    private long repairFailures;
+    private long elapsedMillis;
+
+    void recordMissingInTarget(String pan) {
+        missingInTargetCount++;
+        sample(missingInTarget, pan);
+    }
+
+    void recordMissingInSource(String pan) {
+        missingInSourceCount++;
+        sample(missingInSource, pan);
+    }
+
+    void recordMismatched(String pan) {
+        mismatchedCount++;
+        sample(mismatched, pan);
+    }
+
+    void recordRepair(boolean succeeded) {
+        if (succeeded) {
+            repaired++;
+        } else {
+            repairFailures++;
+        }
+    }
+
+    void setCardCounts(long sourceCards, long targetCards) {
+        this.sourceCards = sourceCards;
+        this.targetCards = targetCards;
+    }
+
+    void leafCompared() {
+        leavesCompared++;
+    }
+
+    void leafDiffed() {
+        leavesDiffed++;
+    }
+
+    void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    private static void sample(List<String> pans, String pan) {
+        if (pans.size() < MAX_SAMPLE) {
+            pans.add(pan);
+        }
+    }
+
+    public boolean isConsistent() {
+        return missingInTargetCount == 0 && missingInSourceCount == 0 && mismatchedCount == 0;
+    }
+
+    public List<String> getMissingInTarget() {
+        return Collections.unmodifiableList(missingInTarget);
+    }
+
+    public List<String> getMissingInSource() {
+        return Collections.unmodifiableList(missingInSource);
+    }
+
+    public List<String> getMismatched() {
+        return Collections.unmodifiableList(mismatched);
+    }
+
+    public long getMissingInTargetCount() {
+        return missingInTargetCount;
+    }
+
+    public long getMissingInSourceCount() {
+        return missingInSourceCount;
+    }
+
+    public long getMismatchedCount() {
+        return mismatchedCount;
+    }
+
+    public long getSourceCards() {
+        return sourceCards;
+    }
+
+    public long getTargetCards() {
+        return targetCards;
+    }
+
+    public long getLeavesCompared() {
+        return leavesCompared;
+    }
+
+    public long getLeavesDiffed() {
+        return leavesDiffed;
+    }
+
+    public long getRepaired() {
+        return repaired;
+    }
+
+    public long getRepairFailures() {
+        return repairFailures;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "ReconciliationReport{" +
+                "sourceCards=" + sourceCards +
+                ", targetCards=" + targetCards +
+                ", leavesCompared=" + leavesCompared +
+                ", leavesDiffed=" + leavesDiffed +
+                ", missingInTarget=" + missingInTargetCount +
+                ", missingInSource=" + missingInSourceCount +
+                ", mismatched=" + mismatchedCount +
+                ", repaired=" + repaired +
+                ", repairFailures=" + repairFailures +
+                ", elapsedMillis=" + elapsedMillis +
+                '}';
+    }
+}
@@ -0,0 +1,25 @@
+package org.example.service;
+
+import org.example.model.Card;
+
+import java.util.List;
+
+public class CardIssuanceException extends RuntimeException {
+
+    private final List<Card> issued;
+    private final List<Card> failed;
+
+    public CardIssuanceException(List<Card> issued, List<Card> failed) {
+        super(failed.size() + " of " + (issued.size() + failed.size()) + " cards were not stored");
+        this.issued = List.copyOf(issued);
+        this.failed = List.copyOf(failed);
+    }
+
+    public List<Card> getIssued() {
+        return issued;
+    }
+
+    public List<Card> getFailed() {
+        return failed;
+    }
+}
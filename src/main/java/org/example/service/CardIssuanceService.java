@@ -0,0 +1,142 @@
+package org.example.service;
+
+import org.example.dao.CardDao;
+import org.example.dao.PanSequenceDao;
+import org.example.model.Card;
+import org.example.model.CardUser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CardIssuanceService {
+
+    private static final int PAN_LENGTH = 16;
+    private static final int DEFAULT_BLOCK_SIZE = 10_000;
+    private static final int DEFAULT_BATCH_SIZE = 1_000;
+
+    private final CardDao cardDao;
+    private final PanSequenceDao panSequenceDao;
+    private final String bin;
+    private final int blockSize;
+    private final int batchSize;
+    private final long maxAccountNumber;
+    private final int accountDigits;
+
+    private volatile PanBlock currentBlock = PanBlock.EXHAUSTED;
+
+    public CardIssuanceService(CardDao cardDao, PanSequenceDao panSequenceDao, String bin) {
+        this(cardDao, panSequenceDao, bin, DEFAULT_BLOCK_SIZE, DEFAULT_BATCH_SIZE);
+    }
+
+    public CardIssuanceService(CardDao cardDao, PanSequenceDao panSequenceDao, String bin,
+                               int blockSize, int batchSize) {
+        if (bin == null || bin.length() < 6 || bin.length() > 8 || !bin.chars().allMatch(Character::isDigit)) {
+            throw new IllegalArgumentException("BIN must be 6 to 8 digits: " + bin);
+        }
+        this.cardDao = cardDao;
+        this.panSequenceDao = panSequenceDao;
+        this.bin = bin;
+        this.blockSize = blockSize;
+        this.batchSize = batchSize;
+
+        this.accountDigits = PAN_LENGTH - bin.length() - 1;
+        this.maxAccountNumber = (long) Math.pow(10, accountDigits) - 1;
+    }
+
+    public Card issue(CardUser holder, String currency, Double initialBalance) {
+        Card card = newCard(holder, currency, initialBalance, Card.generateExpireDate());
+        return cardDao.create(card);
+    }
+
+    public List<Card> issue(List<CardUser> holders, String currency, Double initialBalance) {
+        String dateOfExpire = Card.generateExpireDate();
+        List<Card> issued = new ArrayList<>(holders.size());
+        List<Card> failed = new ArrayList<>();
+        List<Card> batch = new ArrayList<>(Math.min(batchSize, holders.size()));
+
+        for (CardUser holder : holders) {
+            batch.add(newCard(holder, currency, initialBalance, dateOfExpire));
+            if (batch.size() == batchSize) {
+                flush(batch, issued, failed);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            flush(batch, issued, failed);
+        }
+        if (!failed.isEmpty()) {
+            throw new CardIssuanceException(issued, failed);
+        }
+        return issued;
+    }
+
+    public String nextPan() {
+        while (true) {
+            PanBlock block = currentBlock;
+            long account = block.cursor.getAndIncrement();
+            if (account < block.end) {
+                return toPan(account);
+            }
+            refill(block);
+        }
+    }
+
+    private synchronized void refill(PanBlock exhausted) {
+        if (currentBlock != exhausted) {
+            return;
+        }
+        long start = panSequenceDao.reserveBlock(bin, blockSize);
+        if (start < 0) {
+            throw new IllegalStateException("Could not reserve PAN block for BIN " + bin);
+        }
+        if (start > maxAccountNumber) {
+            throw new IllegalStateException("PAN range exhausted for BIN " + bin);
+        }
+        currentBlock = new PanBlock(start, Math.min(start + blockSize, maxAccountNumber + 1));
+    }
+
+    private String toPan(long account) {
+        StringBuilder pan = new StringBuilder(PAN_LENGTH);
+        String digits = Long.toString(account);
+        pan.append(bin);
+        for (int i = digits.length(); i < accountDigits; i++) {
+            pan.append('0');
+        }
+        pan.append(digits);
+        pan.append(Luhn.checkDigit(pan));
+        return pan.toString();
+    }
+
+    private Card newCard(CardUser holder, String currency, Double initialBalance, String dateOfExpire) {
+        return new Card(null, nextPan(), Card.generateCVV(), dateOfExpire,
+                        holder.getName(), holder.getSurname(), holder.getIin(), currency, initialBalance);
+    }
+
+    private void flush(List<Card> batch, List<Card> issued, List<Card> failed) {
+        int created = cardDao.createBatch(batch);
+        if (created == batch.size()) {
+            issued.addAll(batch);
+            return;
+        }
+        for (Card card : batch) {
+            if (cardDao.existsByPan(card.getPan())) {
+                issued.add(card);
+            } else {
+                failed.add(card);
+            }
+        }
+    }
+
+    private static final class PanBlock {
+        private static final PanBlock EXHAUSTED = new PanBlock(0, 0);
+
+        private final AtomicLong cursor;
+        private final long end;
+
+        private PanBlock(long start, long end) {
+            this.cursor = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.example.service;
+
+public final class Luhn {
+
+    private Luhn() {
+    }
+
+    public static int checkDigit(CharSequence payload) {
+        int sum = 0;
+        boolean doubleDigit = true;
+        for (int i = payload.length() - 1; i >= 0; i--) {
+            int digit = payload.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("Not a digit string: " + payload);
+            }
+            if (doubleDigit) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            doubleDigit = !doubleDigit;
+        }
+        return (10 - sum % 10) % 10;
+    }
+
+    public static boolean isValid(String pan) {
+        if (pan == null || pan.length() < 2) {
+            return false;
+        }
+        for (int i = 0; i < pan.length(); i++) {
+            char c = pan.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return checkDigit(pan.subSequence(0, pan.length() - 1)) == pan.charAt(pan.length() - 1) - '0';
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.backend;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BackendOptionsTest {
+
+    @Test
+    void decoratorsAreOffByDefault() {
+        BackendOptions options = BackendOptions.fromArgs(new String[0]);
+
+        assertEquals(0, options.getPanIndexCards());
+        assertEquals(0L, options.getBloomFilterPans());
+        assertFalse(options.hasHolderSearch());
+        assertEquals(0, options.getBulkheadConcurrency());
+    }
+
+    @Test
+    void parsesEveryOption() {
+        BackendOptions options = BackendOptions.fromArgs(new String[] {
+            "--pan-index=1000", "bloom=2000", "search=true", "bulkhead=8", "bulkhead-queue=16", "bulkhead-wait=250"});
+
+        assertEquals(1000, options.getPanIndexCards());
+        assertEquals(2000L, options.getBloomFilterPans());
+        assertTrue(options.hasHolderSearch());
+        assertEquals(8, options.getBulkheadConcurrency());
+        assertEquals(16, options.getBulkheadQueue());
+        assertEquals(Duration.ofMillis(250), options.getBulkheadWait());
+    }
+
+    @Test
+    void rejectsUnknownAndMalformedOptions() {
+        assertThrows(IllegalArgumentException.class, () -> BackendOptions.fromArgs(new String[] {"cache=1"}));
+        assertThrows(IllegalArgumentException.class, () -> BackendOptions.fromArgs(new String[] {"pan-index=-1"}));
+        assertThrows(IllegalArgumentException.class, () -> BackendOptions.fromArgs(new String[] {"bloom=-1"}));
+        assertThrows(IllegalArgumentException.class, () -> BackendOptions.fromArgs(new String[] {"bulkhead-queue=-1"}));
+        assertThrows(IllegalArgumentException.class, () -> BackendOptions.fromArgs(new String[] {"search"}));
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.backend;
+
+import org.example.dao.InMemoryCardDao;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BackendRegistryTest {
+
+    private Backend postgres;
+    private Backend mongo;
+    private BackendRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        postgres = backend(Backend.POSTGRES);
+        mongo = backend(Backend.MONGO);
+        registry = new BackendRegistry(postgres);
+        registry.register(mongo);
+    }
+
+    @Test
+    void leasesCountAsInFlightUntilClosed() {
+        BackendLease lease = registry.acquire();
+        assertSame(postgres, lease.getBackend());
+        assertEquals(1, postgres.getInFlight());
+
+        lease.close();
+        lease.close();
+        assertEquals(0, postgres.getInFlight());
+    }
+
+    @Test
+    void switchDefaultWaitsForInFlightLeases() throws Exception {
+        BackendLease lease = registry.acquire();
+        CompletableFuture<Boolean> switched = CompletableFuture.supplyAsync(
+            () -> registry.switchDefault(Backend.MONGO, Duration.ofSeconds(10)));
+
+        Thread.sleep(50);
+        assertFalse(switched.isDone());
+        try (BackendLease next = registry.acquire()) {
+            assertSame(mongo, next.getBackend());
+        }
+
+        lease.close();
+        assertTrue(switched.get(10, TimeUnit.SECONDS));
+        assertSame(mongo, registry.getDefaultBackend());
+    }
+
+    @Test
+    void switchDefaultTimesOutWhileLeaseIsHeld() {
+        try (BackendLease lease = registry.acquire()) {
+            assertFalse(registry.switchDefault(Backend.MONGO, Duration.ofMillis(20)));
+        }
+        assertSame(mongo, registry.getDefaultBackend());
+    }
+
+    @Test
+    void switchingAwayFromStillRoutedBackendDoesNotDrain() {
+        registry.routeTenant("acme", Backend.POSTGRES, Duration.ZERO);
+        try (BackendLease lease = registry.acquire()) {
+            assertTrue(registry.switchDefault(Backend.MONGO, Duration.ZERO));
+        }
+        try (BackendLease lease = registry.acquire("acme")) {
+            assertSame(postgres, lease.getBackend());
+        }
+    }
+
+    @Test
+    void tenantRoutesResolveThroughAcquire() {
+        assertTrue(registry.routeTenant("acme", Backend.MONGO, Duration.ZERO));
+        try (BackendLease lease = registry.acquire("acme")) {
+            assertSame(mongo, lease.getBackend());
+        }
+        try (BackendLease lease = registry.acquire("globex")) {
+            assertSame(postgres, lease.getBackend());
+        }
+
+        assertTrue(registry.clearTenantRoute("acme", Duration.ZERO));
+        try (BackendLease lease = registry.acquire("acme")) {
+            assertSame(postgres, lease.getBackend());
+        }
+    }
+
+    private static Backend backend(String name) {
+        return new Backend(name, name, null, new InMemoryCardDao(), null, null, null);
+    }
+}
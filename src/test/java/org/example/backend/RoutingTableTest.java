@@ -0,0 +1,52 @@
+package org.example.backend;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoutingTableTest {
+
+    @Test
+    void resolvesTenantsToTheirRouteOrTheDefault() {
+        RoutingTable table = new RoutingTable("postgres", Map.of("acme", "mongo"));
+
+        assertEquals("postgres", table.resolve(null));
+        assertEquals("postgres", table.resolve("globex"));
+        assertEquals("mongo", table.resolve("acme"));
+    }
+
+    @Test
+    void changesReturnNewTables() {
+        RoutingTable table = new RoutingTable("postgres", Map.of());
+        RoutingTable routed = table.withTenant("acme", "mongo");
+        RoutingTable switched = routed.withDefault("mongo");
+
+        assertEquals("postgres", table.resolve("acme"));
+        assertEquals("mongo", routed.resolve("acme"));
+        assertEquals("postgres", routed.resolve(null));
+        assertEquals("mongo", switched.resolve(null));
+        assertEquals(Map.of("acme", "mongo"), switched.getTenantRoutes());
+    }
+
+    @Test
+    void clearingARouteFallsBackToTheDefault() {
+        RoutingTable table = new RoutingTable("postgres", Map.of("acme", "mongo")).withTenant("acme", null);
+
+        assertEquals("postgres", table.resolve("acme"));
+        assertTrue(table.getTenantRoutes().isEmpty());
+    }
+
+    @Test
+    void routesToCoversDefaultAndTenantRoutes() {
+        RoutingTable table = new RoutingTable("postgres", Map.of("acme", "mongo"));
+
+        assertTrue(table.routesTo("postgres"));
+        assertTrue(table.routesTo("mongo"));
+        assertFalse(table.routesTo("mongo-reactive"));
+        assertFalse(table.withTenant("acme", null).routesTo("mongo"));
+    }
+}
@@ -0,0 +1,97 @@
+package org.example.batch;
+
+import org.example.dao.InMemoryCardDao;
+import org.example.model.Card;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.example.dao.InMemoryCardDao.card;
+import static org.example.dao.InMemoryCardDao.pan;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchJobRunnerTest {
+
+    @TempDir
+    Path checkpoints;
+
+    @Test
+    void accruesInterestOncePerPeriod() {
+        InMemoryCardDao cards = cards(25);
+        BatchJobRunner runner = new BatchJobRunner(cards, 10, 2, checkpoints);
+
+        BatchJobResult first = runner.run(new InterestAccrualJob("2026-09", 0.12));
+        BatchJobResult second = runner.run(new InterestAccrualJob("2026-09", 0.12));
+
+        assertTrue(first.isComplete());
+        assertEquals(25, first.getCardsUpdated());
+        assertEquals(0, second.getCardsUpdated());
+        assertEquals(101.0, cards.get(pan(1)).getBalance());
+    }
+
+    @Test
+    void failedChunksAreRetriedFromTheCheckpoint() {
+        InMemoryCardDao cards = cards(25);
+        cards.failNext("accrueInterest");
+        BatchJobRunner runner = new BatchJobRunner(cards, 10, 1, checkpoints);
+
+        BatchJobResult first = runner.run(new InterestAccrualJob("2026-09", 0.12));
+        assertFalse(first.isComplete());
+        assertEquals(1, first.getFailedChunks());
+        assertTrue(Files.exists(checkpoints.resolve("interest-2026-09.checkpoint")));
+
+        BatchJobResult resumed = runner.run(new InterestAccrualJob("2026-09", 0.12));
+        assertTrue(resumed.isComplete());
+        assertEquals(2, resumed.getResumedChunks());
+        assertEquals(25, first.getCardsUpdated() + resumed.getCardsUpdated());
+        assertFalse(Files.exists(checkpoints.resolve("interest-2026-09.checkpoint")));
+    }
+
+    @Test
+    void sweepRenewsOnlyExpiredCards() {
+        InMemoryCardDao cards = cards(4);
+        Card expired = cards.get(pan(2));
+        expired.setDateOfExpire("26/08");
+        cards.put(expired);
+        BatchJobRunner runner = new BatchJobRunner(cards, 10, 1, checkpoints);
+
+        BatchJobResult result = runner.run(new ExpiredCardSweepJob(YearMonth.of(2026, 9)));
+
+        assertEquals(1, result.getCardsUpdated());
+        assertEquals(1, cards.getCalls("renewCards"));
+        assertNotEquals("26/08", cards.get(pan(2)).getDateOfExpire());
+        assertEquals("30/01", cards.get(pan(1)).getDateOfExpire());
+        assertEquals(100.0, cards.get(pan(2)).getBalance());
+    }
+
+    @Test
+    void interestIsRoundedToCentsAndSkipsEmptyCards() {
+        List<Card> batch = List.of(card(1, "a", 1000.0), card(2, "b", 0.0), card(3, "c", 0.01), card(4, "d", null));
+        InMemoryCardDao cards = new InMemoryCardDao().with(batch.toArray(new Card[0]));
+
+        int count = new InterestAccrualJob("2026-09", 0.05).process(cards, batch);
+
+        assertEquals(1, count);
+        assertEquals(1004.17, cards.get("a").getBalance(), 1e-9);
+        assertEquals(0.01, cards.get("c").getBalance());
+        assertNull(cards.get("d").getBalance());
+    }
+
+    private static InMemoryCardDao cards(int count) {
+        InMemoryCardDao cards = new InMemoryCardDao();
+        for (int cardId = 1; cardId <= count; cardId++) {
+            Card card = card(cardId, pan(cardId), 100.0);
+            card.setDateOfExpire("30/01");
+            cards.put(card);
+        }
+        return cards;
+    }
+}
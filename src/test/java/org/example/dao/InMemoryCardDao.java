@@ -0,0 +1,386 @@
+package org.example.dao;
+
+import org.example.fx.FxRateSnapshot;
+import org.example.model.Card;
+import org.example.model.Disbursement;
+import org.example.model.DisbursementResult;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+public class InMemoryCardDao implements CardDao {
+
+    private final TreeMap<String, Card> cards = new TreeMap<>();
+    private final Map<String, String> accruedPeriods = new HashMap<>();
+    private final Map<String, Integer> calls = new ConcurrentHashMap<>();
+    private final Map<String, Runnable> beforeHooks = new ConcurrentHashMap<>();
+    private final Map<String, Runnable> afterHooks = new ConcurrentHashMap<>();
+    private final Set<String> failing = ConcurrentHashMap.newKeySet();
+    private int nextCardId = 1;
+    private int batchLimit = Integer.MAX_VALUE;
+
+    public static Card card(int cardId, String pan, Double balance) {
+        return new Card(cardId, pan, "123", "28/12", "Ada", "Lovelace", "123456789012", "KZT", balance);
+    }
+
+    public static String pan(int id) {
+        return String.format("4400430000%06d", id);
+    }
+
+    public InMemoryCardDao with(Card... added) {
+        for (Card card : added) {
+            put(card);
+        }
+        return this;
+    }
+
+    public synchronized void put(Card card) {
+        Card copy = copy(card);
+        if (copy.getCardId() == null) {
+            copy.setCardId(nextCardId);
+        }
+        nextCardId = Math.max(nextCardId, copy.getCardId() + 1);
+        cards.values().removeIf(existing -> existing.getCardId().equals(copy.getCardId()));
+        cards.put(copy.getPan(), copy);
+    }
+
+    public synchronized Card get(String pan) {
+        Card card = cards.get(pan);
+        return card != null ? copy(card) : null;
+    }
+
+    public synchronized int size() {
+        return cards.size();
+    }
+
+    public int getCalls(String method) {
+        return calls.getOrDefault(method, 0);
+    }
+
+    public void failNext(String method) {
+        failing.add(method);
+    }
+
+    public void beforeNext(String method, Runnable hook) {
+        beforeHooks.put(method, hook);
+    }
+
+    public void afterNext(String method, Runnable hook) {
+        afterHooks.put(method, hook);
+    }
+
+    public synchronized void setBatchLimit(int batchLimit) {
+        this.batchLimit = batchLimit;
+    }
+
+    @Override
+    public Card create(Card card) {
+        return call("create", null, () -> {
+            if (cards.containsKey(card.getPan())) {
+                return null;
+            }
+            put(card);
+            return get(card.getPan());
+        });
+    }
+
+    @Override
+    public int createBatch(List<Card> batch) {
+        return call("createBatch", 0, () -> {
+            int created = 0;
+            for (Card card : batch) {
+                if (created == batchLimit || cards.containsKey(card.getPan())) {
+                    break;
+                }
+                put(card);
+                created++;
+            }
+            return created;
+        });
+    }
+
+    @Override
+    public Optional<Card> findById(Integer cardId) {
+        return call("findById", Optional.empty(), () -> cards.values().stream()
+            .filter(card -> card.getCardId().equals(cardId))
+            .findFirst()
+            .map(InMemoryCardDao::copy));
+    }
+
+    @Override
+    public Optional<Card> findByPan(String pan) {
+        return call("findByPan", Optional.empty(), () -> Optional.ofNullable(get(pan)));
+    }
+
+    @Override
+    public List<Card> findByNameAndSurname(String name, String surname) {
+        return call("findByNameAndSurname", List.of(), () -> cards.values().stream()
+            .filter(card -> Objects.equals(card.getName(), name) && Objects.equals(card.getSurname(), surname))
+            .map(InMemoryCardDao::copy)
+            .toList());
+    }
+
+    @Override
+    public List<Card> findAll() {
+        return call("findAll", List.of(), () -> cards.values().stream().map(InMemoryCardDao::copy).toList());
+    }
+
+    @Override
+    public void forEachCard(Consumer<Card> action) {
+        call("forEachCard", List.<Card>of(), this::findAll).forEach(action);
+    }
+
+    @Override
+    public void forEachCardInPanRange(String fromPan, String toPan, Consumer<Card> action) {
+        call("forEachCardInPanRange", List.<Card>of(), () ->
+            (toPan == null ? cards.tailMap(fromPan, true) : cards.subMap(fromPan, toPan)).values().stream()
+                .map(InMemoryCardDao::copy)
+                .toList()
+        ).forEach(action);
+    }
+
+    @Override
+    public List<Card> findByIdRange(int fromCardId, int toCardId) {
+        return call("findByIdRange", List.of(), () -> cards.values().stream()
+            .filter(card -> card.getCardId() >= fromCardId && card.getCardId() < toCardId)
+            .sorted((a, b) -> Integer.compare(a.getCardId(), b.getCardId()))
+            .map(InMemoryCardDao::copy)
+            .toList());
+    }
+
+    @Override
+    public int findMaxCardId() {
+        return call("findMaxCardId", 0, () -> cards.values().stream()
+            .mapToInt(Card::getCardId)
+            .max()
+            .orElse(0));
+    }
+
+    @Override
+    public boolean update(Card card) {
+        return call("update", false, () -> replace(card));
+    }
+
+    @Override
+    public int updateBatch(List<Card> batch) {
+        return call("updateBatch", 0, () -> {
+            int updated = 0;
+            for (Card card : batch) {
+                if (updated == batchLimit || !replace(card)) {
+                    break;
+                }
+                updated++;
+            }
+            return updated;
+        });
+    }
+
+    @Override
+    public int accrueInterest(Map<String, Double> interestByPan, String period) {
+        return call("accrueInterest", -1, () -> {
+            int credited = 0;
+            for (Map.Entry<String, Double> entry : interestByPan.entrySet()) {
+                Card card = cards.get(entry.getKey());
+                if (card != null && !period.equals(accruedPeriods.put(entry.getKey(), period))) {
+                    card.setBalance(balanceOf(card) + entry.getValue());
+                    credited++;
+                }
+            }
+            return credited;
+        });
+    }
+
+    @Override
+    public int renewCards(List<Card> batch) {
+        return call("renewCards", -1, () -> {
+            int renewed = 0;
+            for (Card card : batch) {
+                Card stored = cards.get(card.getPan());
+                if (stored != null) {
+                    stored.setCvv(card.getCvv());
+                    stored.setDateOfExpire(card.getDateOfExpire());
+                    renewed++;
+                }
+            }
+            return renewed;
+        });
+    }
+
+    @Override
+    public boolean deleteById(Integer cardId) {
+        return call("deleteById", false, () -> cards.values().removeIf(card -> card.getCardId().equals(cardId)));
+    }
+
+    @Override
+    public boolean deleteByPan(String pan) {
+        return call("deleteByPan", false, () -> cards.remove(pan) != null);
+    }
+
+    @Override
+    public boolean existsByPan(String pan) {
+        return call("existsByPan", false, () -> cards.containsKey(pan));
+    }
+
+    @Override
+    public boolean transferMoney(String fromPan, String toPan, Double amount) {
+        return call("transferMoney", false, () -> move(fromPan, toPan, amount, amount));
+    }
+
+    @Override
+    public boolean transferMoneyWithConversion(String fromPan, String toPan, Double amount, FxRateSnapshot rates) {
+        return call("transferMoneyWithConversion", false, () -> {
+            Card from = cards.get(fromPan);
+            Card to = cards.get(toPan);
+            if (from == null || to == null || amount == null
+                    || !rates.supports(from.getCurrency()) || !rates.supports(to.getCurrency())) {
+                return false;
+            }
+            return move(fromPan, toPan, amount, rates.convert(amount, from.getCurrency(), to.getCurrency()));
+        });
+    }
+
+    @Override
+    public boolean transferMoneyByName(String fromName, String fromSurname,
+                                       String toName, String toSurname, Double amount) {
+        List<Card> from = findByNameAndSurname(fromName, fromSurname);
+        List<Card> to = findByNameAndSurname(toName, toSurname);
+        return !from.isEmpty() && !to.isEmpty() && transferMoney(from.get(0).getPan(), to.get(0).getPan(), amount);
+    }
+
+    @Override
+    public DisbursementResult disburse(String sourcePan, List<Disbursement> disbursements, boolean allOrNothing) {
+        return call("disburse", new DisbursementResult(sourcePan, disbursements), () -> {
+            DisbursementResult result = new DisbursementResult(sourcePan, disbursements);
+            Card source = cards.get(sourcePan);
+            for (DisbursementResult.Entry entry : result.getEntries()) {
+                if (entry.getStatus() == DisbursementResult.Status.PENDING
+                        && !cards.containsKey(entry.getDisbursement().getDestinationPan())) {
+                    entry.setStatus(DisbursementResult.Status.DESTINATION_NOT_FOUND);
+                }
+            }
+            if (source == null || balanceOf(source) < result.getPendingAmount()) {
+                result.markPending(DisbursementResult.Status.INSUFFICIENT_FUNDS);
+                return result;
+            }
+            if (allOrNothing && result.countWithStatus(DisbursementResult.Status.PENDING) < result.size()) {
+                result.markPending(DisbursementResult.Status.ROLLED_BACK);
+                return result;
+            }
+            source.setBalance(balanceOf(source) - result.getPendingAmount());
+            for (DisbursementResult.Entry entry : result.getEntries()) {
+                if (entry.getStatus() == DisbursementResult.Status.PENDING) {
+                    Card destination = cards.get(entry.getDisbursement().getDestinationPan());
+                    destination.setBalance(balanceOf(destination) + entry.getDisbursement().getAmount());
+                    entry.setStatus(DisbursementResult.Status.CREDITED);
+                }
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public boolean withdrawMoney(String pan, String cvv, Double amount) {
+        return call("withdrawMoney", false, () -> {
+            Card card = cards.get(pan);
+            if (card == null || !Objects.equals(card.getCvv(), cvv) || amount == null || amount <= 0
+                    || balanceOf(card) < amount) {
+                return false;
+            }
+            card.setBalance(balanceOf(card) - amount);
+            return true;
+        });
+    }
+
+    @Override
+    public boolean depositMoney(String pan, Double amount) {
+        return call("depositMoney", false, () -> {
+            Card card = cards.get(pan);
+            if (card == null || amount == null || amount <= 0) {
+                return false;
+            }
+            card.setBalance(balanceOf(card) + amount);
+            return true;
+        });
+    }
+
+    @Override
+    public boolean depositMoneyByName(String name, String surname, Double amount) {
+        List<Card> matches = findByNameAndSurname(name, surname);
+        return !matches.isEmpty() && depositMoney(matches.get(0).getPan(), amount);
+    }
+
+    @Override
+    public boolean enableBalanceSharding(String pan, int shards) {
+        return call("enableBalanceSharding", false, () -> cards.containsKey(pan));
+    }
+
+    @Override
+    public boolean disableBalanceSharding(String pan) {
+        return call("disableBalanceSharding", false, () -> cards.containsKey(pan));
+    }
+
+    private <T> T call(String method, T failure, Supplier<T> body) {
+        calls.merge(method, 1, Integer::sum);
+        Runnable before = beforeHooks.remove(method);
+        if (before != null) {
+            before.run();
+        }
+        if (failing.remove(method)) {
+            return failure;
+        }
+        T result;
+        synchronized (this) {
+            result = body.get();
+        }
+        Runnable after = afterHooks.remove(method);
+        if (after != null) {
+            after.run();
+        }
+        return result;
+    }
+
+    private boolean replace(Card card) {
+        Card stored = card.getCardId() != null
+            ? cards.values().stream().filter(c -> c.getCardId().equals(card.getCardId())).findFirst().orElse(null)
+            : cards.get(card.getPan());
+        if (stored == null) {
+            return false;
+        }
+        cards.remove(stored.getPan());
+        Card copy = copy(card);
+        copy.setCardId(stored.getCardId());
+        if (copy.getBalance() == null) {
+            copy.setBalance(stored.getBalance());
+        }
+        cards.put(copy.getPan(), copy);
+        return true;
+    }
+
+    private boolean move(String fromPan, String toPan, Double debit, double credit) {
+        Card from = cards.get(fromPan);
+        Card to = cards.get(toPan);
+        if (from == null || to == null || debit == null || debit <= 0 || balanceOf(from) < debit) {
+            return false;
+        }
+        from.setBalance(balanceOf(from) - debit);
+        to.setBalance(balanceOf(to) + credit);
+        return true;
+    }
+
+    private static double balanceOf(Card card) {
+        return card.getBalance() != null ? card.getBalance() : 0.0;
+    }
+
+    private static Card copy(Card card) {
+        return new Card(card.getCardId(), card.getPan(), card.getCvv(), card.getDateOfExpire(),
+                        card.getName(), card.getSurname(), card.getIin(), card.getCurrency(), card.getBalance());
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.dao.bloom;
+
+import org.example.dao.InMemoryCardDao;
+import org.example.model.Card;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.example.dao.InMemoryCardDao.card;
+import static org.example.dao.InMemoryCardDao.pan;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterCardDaoTest {
+
+    private final InMemoryCardDao delegate = new InMemoryCardDao();
+
+    @Test
+    void partiallyCreatedBatchesAreStillRemembered() {
+        BloomFilterCardDao bloom = new BloomFilterCardDao(delegate, 1000);
+        bloom.rebuild();
+        delegate.setBatchLimit(1);
+
+        assertEquals(1, bloom.createBatch(List.of(card(1, pan(1), 1.0), card(2, pan(2), 1.0))));
+
+        assertTrue(bloom.existsByPan(pan(1)));
+        delegate.put(card(2, pan(2), 1.0));
+        assertTrue(bloom.existsByPan(pan(2)));
+    }
+
+    @Test
+    void moneyOperationsAreNotRejectedByTheFilter() {
+        BloomFilterCardDao bloom = new BloomFilterCardDao(delegate, 1000);
+        bloom.rebuild();
+        delegate.put(card(9, pan(9), 0.0));
+
+        assertTrue(bloom.depositMoney(pan(9), 10.0));
+        assertEquals(0, bloom.getDefiniteNegatives());
+    }
+
+    @Test
+    void lookupsOfPansInsertedElsewhereFallThroughToTheDelegate() {
+        BloomFilterCardDao bloom = new BloomFilterCardDao(delegate, 1000);
+        bloom.rebuild();
+        delegate.put(card(5, pan(5), 1.0));
+
+        assertTrue(bloom.findByPan(pan(5)).isPresent());
+    }
+
+    @Test
+    void createsInFlightDuringARebuildSurviveTheSwap() throws Exception {
+        CountDownLatch createStarted = new CountDownLatch(1);
+        CountDownLatch createMayCommit = new CountDownLatch(1);
+        delegate.beforeNext("create", () -> {
+            createStarted.countDown();
+            try {
+                createMayCommit.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        BloomFilterCardDao bloom = new BloomFilterCardDao(delegate, 1000);
+        bloom.rebuild();
+        CompletableFuture<Card> create = CompletableFuture.supplyAsync(() -> bloom.create(card(3, pan(3), 1.0)));
+        createStarted.await();
+
+        bloom.rebuild();
+        createMayCommit.countDown();
+        create.get(10, TimeUnit.SECONDS);
+
+        assertTrue(bloom.existsByPan(pan(3)));
+    }
+
+    @Test
+    void onlyPanChangesAndDeletesCountAsStale() {
+        delegate.with(card(1, pan(1), 1.0), card(2, pan(2), 1.0));
+        BloomFilterCardDao bloom = new BloomFilterCardDao(delegate, 1000);
+        bloom.rebuild();
+
+        bloom.update(new Card(1, pan(1), "321", "29/01", "Ada", "Lovelace", "123456789012", "USD", 5.0));
+        bloom.updateBatch(List.of(card(1, pan(1), 1.0), card(2, pan(2), 1.0)));
+        assertEquals(0, bloom.getStaleEntries());
+
+        bloom.update(card(1, pan(11), 1.0));
+        bloom.updateBatch(List.of(card(1, pan(11), 1.0), card(2, pan(12), 1.0)));
+        assertEquals(2, bloom.getStaleEntries());
+        assertFalse(bloom.existsByPan(pan(1)));
+
+        bloom.deleteByPan(pan(11));
+        assertEquals(3, bloom.getStaleEntries());
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.dao.indexed;
+
+import org.example.dao.InMemoryCardDao;
+import org.example.index.OffHeapCardIndex;
+import org.junit.jupiter.api.Test;
+
+import static org.example.dao.InMemoryCardDao.card;
+import static org.example.dao.InMemoryCardDao.pan;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class IndexedCardDaoTest {
+
+    private static final String PAN = pan(1);
+
+    @Test
+    void readRacingAWriteDoesNotCacheTheStaleCard() {
+        InMemoryCardDao delegate = new InMemoryCardDao().with(card(1, PAN, 100.0));
+        OffHeapCardIndex index = new OffHeapCardIndex(16);
+        IndexedCardDao indexed = new IndexedCardDao(delegate, index);
+        delegate.afterNext("findByPan", () -> indexed.depositMoney(PAN, 50.0));
+
+        assertEquals(100.0, indexed.findByPan(PAN).get().getBalance());
+        assertFalse(index.contains(PAN));
+        assertEquals(150.0, indexed.findByPan(PAN).get().getBalance());
+        assertEquals(150.0, index.get(PAN).getBalance());
+    }
+
+    @Test
+    void writesEvictInsteadOfRereading() {
+        InMemoryCardDao delegate = new InMemoryCardDao().with(card(1, PAN, 10.0));
+        OffHeapCardIndex index = new OffHeapCardIndex(16);
+        IndexedCardDao indexed = new IndexedCardDao(delegate, index);
+
+        indexed.findByPan(PAN);
+        indexed.withdrawMoney(PAN, "123", 5.0);
+
+        assertEquals(1, delegate.getCalls("findByPan"));
+        assertFalse(index.contains(PAN));
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.fx;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FxRateSnapshotTest {
+
+    private final FxRateSnapshot rates = new FxRateSnapshot(
+        "USD", Map.of("EUR", 1.10, "GBP", 1.25, "XXX", 0.0), Instant.now());
+
+    @Test
+    void supportsBaseAndQuotedCurrencies() {
+        assertTrue(rates.supports("USD"));
+        assertTrue(rates.supports("EUR"));
+        assertFalse(rates.supports("JPY"));
+    }
+
+    @Test
+    void nullCurrencyIsUnsupported() {
+        assertFalse(rates.supports(null));
+        assertThrows(IllegalArgumentException.class, () -> rates.rateToBase(null));
+        assertThrows(IllegalArgumentException.class, () -> rates.convert(10.0, null, "EUR"));
+        assertThrows(IllegalArgumentException.class, () -> rates.convert(10.0, "EUR", null));
+    }
+
+    @Test
+    void nonPositiveRateIsUnsupported() {
+        assertFalse(rates.supports("XXX"));
+        assertThrows(IllegalArgumentException.class, () -> rates.rateToBase("XXX"));
+    }
+
+    @Test
+    void convertsThroughBaseCurrency() {
+        assertEquals(110.0, rates.convert(100.0, "EUR", "USD"));
+        assertEquals(100.0, rates.convert(110.0, "USD", "EUR"));
+        assertEquals(88.0, rates.convert(100.0, "EUR", "GBP"));
+        assertEquals(42.0, rates.convert(42.0, "GBP", "GBP"));
+    }
+
+    @Test
+    void emptySnapshotOnlySupportsBase() {
+        FxRateSnapshot empty = FxRateSnapshot.empty("USD");
+        assertTrue(empty.supports("USD"));
+        assertFalse(empty.supports("EUR"));
+    }
+}
@@ -0,0 +1,103 @@
+package org.example.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FrontCodedDictionaryTest {
+
+    @Test
+    void emptyDictionaryMatchesNothing() {
+        assertEquals(0, FrontCodedDictionary.EMPTY.size());
+        assertEquals(List.of(), termsWithPrefix(FrontCodedDictionary.EMPTY, ""));
+        assertEquals(List.of(), termsWithPrefix(FrontCodedDictionary.build(new TreeMap<>()), "a"));
+    }
+
+    @Test
+    void singleTermDictionaryMatchesOnlyItsPrefixes() {
+        TreeMap<String, int[]> terms = new TreeMap<>();
+        terms.put("ada", new int[] {7});
+        FrontCodedDictionary dictionary = FrontCodedDictionary.build(terms);
+
+        assertEquals(1, dictionary.size());
+        assertEquals(List.of("ada:7"), visit(dictionary, ""));
+        assertEquals(List.of("ada:7"), visit(dictionary, "a"));
+        assertEquals(List.of("ada:7"), visit(dictionary, "ada"));
+        assertEquals(List.of(), visit(dictionary, "adam"));
+        assertEquals(List.of(), visit(dictionary, "b"));
+        assertEquals(List.of(), visit(dictionary, "0"));
+    }
+
+    @Test
+    void prefixQueriesCrossBlockBoundaries() {
+        FrontCodedDictionary dictionary = FrontCodedDictionary.build(numberedTerms(100));
+
+        assertEquals(100, dictionary.size());
+        assertEquals(List.of("t010", "t011", "t012", "t013", "t014", "t015", "t016", "t017", "t018", "t019"),
+            termsWithPrefix(dictionary, "t01"));
+        assertEquals(List.of("t016"), termsWithPrefix(dictionary, "t016"));
+        assertEquals(List.of("t015"), termsWithPrefix(dictionary, "t015"));
+        assertEquals(List.of("t099"), termsWithPrefix(dictionary, "t099"));
+        assertEquals(100, termsWithPrefix(dictionary, "t").size());
+        assertEquals(List.of(), termsWithPrefix(dictionary, "t1"));
+        assertEquals(List.of(), termsWithPrefix(dictionary, "u"));
+        assertEquals(List.of(), termsWithPrefix(dictionary, "s"));
+    }
+
+    @Test
+    void everyPrefixOfEveryTermFindsIt() {
+        TreeMap<String, int[]> terms = numberedTerms(100);
+        FrontCodedDictionary dictionary = FrontCodedDictionary.build(terms);
+
+        for (String term : terms.keySet()) {
+            for (int length = 0; length <= term.length(); length++) {
+                String prefix = term.substring(0, length);
+                List<String> expected = new ArrayList<>(terms.subMap(prefix, prefix + Character.MAX_VALUE).keySet());
+                assertEquals(expected, termsWithPrefix(dictionary, prefix));
+            }
+        }
+    }
+
+    @Test
+    void visitsEveryPostingAndStopsWhenTheVisitorSaysSo() {
+        TreeMap<String, int[]> terms = new TreeMap<>();
+        terms.put("lovelace", new int[] {1, 4});
+        terms.put("lovell", new int[] {2});
+        terms.put("émile", new int[] {3});
+        FrontCodedDictionary dictionary = FrontCodedDictionary.build(terms);
+
+        assertEquals(List.of("lovelace:1", "lovelace:4", "lovell:2"), visit(dictionary, "love"));
+        assertEquals(List.of("émile:3"), visit(dictionary, "é"));
+
+        List<Integer> visited = new ArrayList<>();
+        dictionary.forEachWithPrefix("lov", (term, posting) -> {
+            visited.add(posting);
+            return visited.size() < 2;
+        });
+        assertEquals(List.of(1, 4), visited);
+    }
+
+    private static TreeMap<String, int[]> numberedTerms(int count) {
+        TreeMap<String, int[]> terms = new TreeMap<>();
+        for (int i = 0; i < count; i++) {
+            terms.put(String.format("t%03d", i), new int[] {i});
+        }
+        return terms;
+    }
+
+    private static List<String> termsWithPrefix(FrontCodedDictionary dictionary, String prefix) {
+        List<String> terms = new ArrayList<>();
+        dictionary.forEachWithPrefix(prefix, (term, posting) -> terms.add(term));
+        return terms;
+    }
+
+    private static List<String> visit(FrontCodedDictionary dictionary, String prefix) {
+        List<String> visited = new ArrayList<>();
+        dictionary.forEachWithPrefix(prefix, (term, posting) -> visited.add(term + ":" + posting));
+        return visited;
+    }
+}
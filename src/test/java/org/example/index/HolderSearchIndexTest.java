@@ -0,0 +1,99 @@
+package org.example.index;
+
+import org.example.model.Card;
+import org.example.model.CardUser;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HolderSearchIndexTest {
+
+    private final HolderSearchIndex index = new HolderSearchIndex();
+
+    @Test
+    void emptyIndexAndBlankQueriesReturnNothing() {
+        assertEquals(List.of(), surnames(index.search("ada", 10)));
+
+        index.putHolder(new CardUser("Ada", "Lovelace", "000000000001"));
+        assertEquals(List.of(), surnames(index.search("  ", 10)));
+        assertEquals(List.of(), surnames(index.search(null, 10)));
+        assertEquals(List.of(), surnames(index.search("ada", 0)));
+    }
+
+    @Test
+    void findsHoldersInTheDeltaBeforeAnyCompaction() {
+        index.putHolder(new CardUser("Ada", "Lovelace", "000000000001"));
+        index.putHolder(new CardUser("Alan", "Turing", "000000000002"));
+
+        assertEquals(0, index.getDictionaryTerms());
+        assertTrue(index.getPendingTerms() > 0);
+        assertEquals(List.of("Lovelace"), surnames(index.search("lov", 10)));
+        assertEquals(List.of("Lovelace", "Turing"), surnames(index.search("a", 10)));
+    }
+
+    @Test
+    void compactionKeepsResultsAndEmptiesTheDelta() {
+        index.putHolder(new CardUser("Ada", "Lovelace", "000000000001"));
+        index.putHolder(new CardUser("Alan", "Turing", "000000000002"));
+        List<String> before = surnames(index.search("a", 10));
+
+        index.compact();
+
+        assertEquals(4, index.getDictionaryTerms());
+        assertEquals(0, index.getPendingTerms());
+        assertEquals(before, surnames(index.search("a", 10)));
+    }
+
+    @Test
+    void mergesDictionaryAndPendingDeltaTermsInTermOrder() {
+        index.putHolder(new CardUser("Zoe", "Adams", "000000000001"));
+        index.putHolder(new CardUser("Zak", "Adler", "000000000002"));
+        index.compact();
+        index.putHolder(new CardUser("Zed", "Adkins", "000000000003"));
+        index.putHolder(new CardUser("Zia", "Acton", "000000000004"));
+
+        assertEquals(4, index.getPendingTerms());
+        assertEquals(List.of("Adams", "Adkins", "Adler"), surnames(index.search("ad", 10)));
+        assertEquals(List.of("Acton", "Adams", "Adkins", "Adler"), surnames(index.search("a", 10)));
+        assertEquals(List.of("Acton", "Adams"), surnames(index.search("a", 2)));
+        assertEquals(List.of("Adkins"), surnames(index.search("zed ad", 10)));
+    }
+
+    @Test
+    void removedHoldersDisappearFromBothDictionaryAndDelta() {
+        index.putHolder(new CardUser("Ada", "Lovelace", "000000000001"));
+        index.compact();
+        index.putHolder(new CardUser("Ada", "Byron", "000000000002"));
+
+        index.removeHolder("000000000001");
+        index.removeHolder("000000000002");
+
+        assertEquals(List.of(), surnames(index.search("ada", 10)));
+        assertEquals(0, index.size());
+
+        index.putHolder(new CardUser("Ada", "Lovelace", "000000000003"));
+        assertEquals(List.of("Lovelace"), surnames(index.search("ada", 10)));
+        assertEquals(List.of("000000000003"), index.search("ada", 10).get(0).getIins());
+    }
+
+    @Test
+    void cardsAndHoldersWithTheSameNameShareOneMatch() {
+        index.putHolder(new CardUser("Ada", "Lovelace", "000000000001"));
+        index.compact();
+        index.putCard(new Card(1, "4400430000000017", "123", "28/12", "Ada", "Lovelace",
+            "000000000001", "KZT", 10.0));
+
+        List<HolderMatch> matches = index.search("lovelace ada", 10);
+
+        assertEquals(1, matches.size());
+        assertEquals(List.of("000000000001"), matches.get(0).getIins());
+        assertEquals(List.of("4400430000000017"), matches.get(0).getPans());
+    }
+
+    private static List<String> surnames(List<HolderMatch> matches) {
+        return matches.stream().map(HolderMatch::getSurname).toList();
+    }
+}
@@ -0,0 +1,181 @@
+package org.example.index;
+
+import org.example.model.Card;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.time.Duration;
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OffHeapCardIndexTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void putGetAndRemove() {
+        OffHeapCardIndex index = new OffHeapCardIndex(16);
+        Card card = card(7, pan(7), 125.5);
+
+        assertTrue(index.put(card));
+        Card cached = index.get(card.getPan());
+        assertEquals(7, cached.getCardId());
+        assertEquals("007", cached.getCvv());
+        assertEquals("28/12", cached.getDateOfExpire());
+        assertEquals("Ada", cached.getName());
+        assertEquals("USD", cached.getCurrency());
+        assertEquals(125.5, cached.getBalance());
+
+        assertTrue(index.remove(card.getPan()));
+        assertFalse(index.contains(card.getPan()));
+        assertNull(index.get(card.getPan()));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void rejectsCardsItCannotPack() {
+        OffHeapCardIndex index = new OffHeapCardIndex(16);
+        Card card = card(1, "4000-0000", 1.0);
+
+        assertFalse(index.put(card));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void growsPastInitialCapacityAndSurvivesDeletes() {
+        OffHeapCardIndex index = new OffHeapCardIndex(16);
+        for (int id = 1; id <= 5000; id++) {
+            index.put(card(id, pan(id), id));
+        }
+        for (int id = 1; id <= 5000; id += 2) {
+            index.remove(pan(id));
+        }
+
+        assertEquals(2500, index.size());
+        for (int id = 1; id <= 5000; id++) {
+            Card cached = index.get(pan(id));
+            if (id % 2 == 0) {
+                assertEquals((double) id, cached.getBalance());
+            } else {
+                assertNull(cached);
+            }
+        }
+    }
+
+    @Test
+    void reloadDropsCardsMissingFromTheSource() {
+        OffHeapCardIndex index = new OffHeapCardIndex(16);
+        index.put(card(1, pan(1), 1.0));
+        index.put(card(2, pan(2), 2.0));
+
+        int removed = index.reload(sink -> sink.accept(card(2, pan(2), 20.0)));
+
+        assertEquals(1, removed);
+        assertFalse(index.contains(pan(1)));
+        assertEquals(20.0, index.get(pan(2)).getBalance());
+    }
+
+    @Test
+    void snapshotRoundTripServesRestoredEntriesWithoutCvvWithinWindow() throws IOException {
+        OffHeapCardIndex index = new OffHeapCardIndex(16);
+        for (int id = 1; id <= 100; id++) {
+            index.put(card(id, pan(id), id));
+        }
+        Path snapshot = dir.resolve("cards.snapshot");
+        index.writeSnapshot(snapshot, 100);
+
+        OffHeapCardIndex restored = new OffHeapCardIndex(16);
+        assertEquals(100, restored.restore(snapshot, Duration.ofMinutes(5)));
+        assertEquals(100, restored.size());
+        assertTrue(restored.contains(pan(42)));
+        assertEquals(42.0, restored.get(pan(42)).getBalance());
+        assertEquals(42, restored.get(pan(42)).getCardId());
+        assertEquals("Lovelace", restored.get(pan(42)).getSurname());
+        assertNull(restored.get(pan(42)).getCvv());
+
+        restored.put(card(42, pan(42), 420.0));
+        assertEquals(420.0, restored.get(pan(42)).getBalance());
+        assertEquals("042", restored.get(pan(42)).getCvv());
+
+        int removed = restored.reload(sink -> {
+            for (int id = 1; id <= 50; id++) {
+                sink.accept(card(id, pan(id), id));
+            }
+        });
+        assertEquals(50, removed);
+        assertEquals(7.0, restored.get(pan(7)).getBalance());
+        assertNull(restored.get(pan(77)));
+    }
+
+    @Test
+    void restoredEntriesBecomeMissesOnceTheWindowCloses() throws IOException {
+        OffHeapCardIndex index = new OffHeapCardIndex(16);
+        index.put(card(1, pan(1), 1.0));
+        index.put(card(2, pan(2), 2.0));
+        Path snapshot = dir.resolve("cards.snapshot");
+        index.writeSnapshot(snapshot, 2);
+
+        OffHeapCardIndex restored = new OffHeapCardIndex(16);
+        restored.restore(snapshot, Duration.ofMillis(-1));
+        assertEquals(2, restored.size());
+        assertNull(restored.get(pan(1)));
+        assertFalse(restored.contains(pan(1)));
+
+        restored.put(card(1, pan(1), 10.0));
+        assertEquals(10.0, restored.get(pan(1)).getBalance());
+        assertTrue(restored.contains(pan(1)));
+        assertFalse(restored.contains(pan(2)));
+    }
+
+    @Test
+    void snapshotOfGrowingIndexRestoresEveryEntry() throws IOException {
+        OffHeapCardIndex index = new OffHeapCardIndex(16);
+        for (int id = 1; id <= 5000; id++) {
+            index.put(card(id, pan(id), id));
+        }
+        for (int id = 1; id <= 5000; id += 2) {
+            index.remove(pan(id));
+        }
+        Path snapshot = dir.resolve("cards.snapshot");
+        index.writeSnapshot(snapshot, 5000);
+        index.writeSnapshot(snapshot, 5000);
+
+        OffHeapCardIndex restored = new OffHeapCardIndex(16);
+        restored.restore(snapshot, Duration.ofMinutes(5));
+        assertEquals(2500, restored.size());
+        for (int id = 1; id <= 5000; id++) {
+            assertEquals(id % 2 == 0, restored.contains(pan(id)));
+        }
+    }
+
+    @Test
+    void snapshotIsReadableByOwnerOnly() throws IOException {
+        OffHeapCardIndex index = new OffHeapCardIndex(16);
+        index.put(card(1, pan(1), 1.0));
+        Path snapshot = dir.resolve("cards.snapshot");
+        index.writeSnapshot(snapshot, 1);
+
+        if (snapshot.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            assertEquals(EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE),
+                Files.getPosixFilePermissions(snapshot));
+        }
+    }
+
+    static Card card(int id, String pan, double balance) {
+        return new Card(id, pan, String.format("%03d", id % 1000), "28/12",
+            "Ada", "Lovelace", "123456789012", "USD", balance);
+    }
+
+    static String pan(int id) {
+        return String.format("4000%012d", id);
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DisbursementResultTest {
+
+    @Test
+    void rejectsMissingAndNonPositiveAmountsUpFront() {
+        DisbursementResult result = new DisbursementResult("src", List.of(
+            new Disbursement("a", 10.0),
+            new Disbursement("b", null),
+            new Disbursement("c", -5.0),
+            new Disbursement("d", 0.0),
+            new Disbursement("e", Double.NaN),
+            new Disbursement("f", Double.POSITIVE_INFINITY)
+        ));
+
+        assertEquals(DisbursementResult.Status.PENDING, result.getEntry(0).getStatus());
+        assertEquals(5, result.countWithStatus(DisbursementResult.Status.INVALID_AMOUNT));
+        assertEquals(10.0, result.getPendingAmount());
+    }
+
+    @Test
+    void markPendingLeavesSettledEntriesAlone() {
+        DisbursementResult result = new DisbursementResult("src", List.of(
+            new Disbursement("a", 10.0),
+            new Disbursement("b", 20.0),
+            new Disbursement("c", -1.0)
+        ));
+        result.getEntry(0).setStatus(DisbursementResult.Status.CREDITED);
+
+        result.markPending(DisbursementResult.Status.INSUFFICIENT_FUNDS);
+
+        assertEquals(DisbursementResult.Status.CREDITED, result.getEntry(0).getStatus());
+        assertEquals(DisbursementResult.Status.INSUFFICIENT_FUNDS, result.getEntry(1).getStatus());
+        assertEquals(DisbursementResult.Status.INVALID_AMOUNT, result.getEntry(2).getStatus());
+    }
+
+    @Test
+    void markUnsettledRevertsCreditedEntries() {
+        DisbursementResult result = new DisbursementResult("src", List.of(
+            new Disbursement("a", 10.0),
+            new Disbursement("b", 20.0)
+        ));
+        result.getEntry(0).setStatus(DisbursementResult.Status.CREDITED);
+        result.getEntry(1).setStatus(DisbursementResult.Status.DESTINATION_NOT_FOUND);
+
+        result.markUnsettled(DisbursementResult.Status.ROLLED_BACK);
+
+        assertEquals(DisbursementResult.Status.ROLLED_BACK, result.getEntry(0).getStatus());
+        assertEquals(DisbursementResult.Status.DESTINATION_NOT_FOUND, result.getEntry(1).getStatus());
+        assertEquals(0.0, result.getCreditedAmount());
+    }
+
+    @Test
+    void creditedAmountAndSuccess() {
+        DisbursementResult result = new DisbursementResult("src", List.of(
+            new Disbursement("a", 10.0),
+            new Disbursement("b", 2.5)
+        ));
+        assertFalse(result.isFullySuccessful());
+
+        result.getEntry(0).setStatus(DisbursementResult.Status.CREDITED);
+        result.getEntry(1).setStatus(DisbursementResult.Status.CREDITED);
+
+        assertTrue(result.isFullySuccessful());
+        assertEquals(12.5, result.getCreditedAmount());
+        assertEquals(0.0, result.getPendingAmount());
+    }
+
+    @Test
+    void disbursementEventsBalance() {
+        DisbursementResult result = new DisbursementResult("src", List.of(
+            new Disbursement("a", 10.0),
+            new Disbursement("b", 5.0),
+            new Disbursement("c", -3.0)
+        ));
+        double total = result.getPendingAmount();
+        result.getEntry(0).setStatus(DisbursementResult.Status.CREDITED);
+        result.getEntry(1).setStatus(DisbursementResult.Status.DESTINATION_NOT_FOUND);
+        double refund = total - result.getCreditedAmount();
+
+        List<CardEvent> events = CardEvent.ofDisbursement(result, total, refund);
+
+        assertEquals(3, events.size());
+        double net = 0;
+        for (CardEvent event : events) {
+            net += event.getType() == CardEvent.Type.CREDIT ? event.getAmount() : -event.getAmount();
+        }
+        assertEquals(0.0, net);
+        assertEquals(CardEvent.Operation.REFUND, events.get(2).getOperation());
+        assertEquals(5.0, events.get(2).getAmount());
+    }
+}
@@ -0,0 +1,49 @@
+package org.example.outbox;
+
+import org.example.model.CardEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class InMemoryCardEventSinkTest {
+
+    private final CardEvent debit = CardEvent.debit("4400430000000001", 10, CardEvent.Operation.TRANSFER);
+    private final CardEvent credit = CardEvent.credit("4400430000000002", 10, CardEvent.Operation.TRANSFER);
+
+    @Test
+    void keepsEventsInPublishOrder() throws Exception {
+        InMemoryCardEventSink sink = new InMemoryCardEventSink();
+        sink.publish(List.of(debit, credit));
+
+        assertEquals(2, sink.size());
+        assertSame(debit, sink.poll(1, TimeUnit.SECONDS));
+        assertEquals(List.of(credit), sink.drain());
+        assertNull(sink.poll(10, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void boundedSinkBlocksPublishUntilEventsAreTaken() throws Exception {
+        InMemoryCardEventSink sink = new InMemoryCardEventSink(1);
+        CompletableFuture<Void> publish = CompletableFuture.runAsync(() -> {
+            try {
+                sink.publish(List.of(debit, credit));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        Thread.sleep(50);
+        assertFalse(publish.isDone());
+        assertEquals(1, sink.size());
+        assertSame(debit, sink.poll(1, TimeUnit.SECONDS));
+        assertSame(credit, sink.poll(1, TimeUnit.SECONDS));
+        publish.get(1, TimeUnit.SECONDS);
+    }
+}
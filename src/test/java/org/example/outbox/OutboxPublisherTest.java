@@ -0,0 +1,145 @@
+package org.example.outbox;
+
+import org.example.dao.CardEventOutbox;
+import org.example.model.CardEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OutboxPublisherTest {
+
+    @Test
+    void drainOnceStopsAfterTheFirstShortBatch() throws Exception {
+        FakeOutbox outbox = new FakeOutbox(events(7));
+        InMemoryCardEventSink sink = new InMemoryCardEventSink();
+        OutboxPublisher publisher = new OutboxPublisher(outbox, sink, 3, Duration.ofMillis(10));
+
+        assertEquals(7, publisher.drainOnce());
+
+        assertEquals(List.of(3, 3, 1), outbox.batches);
+        assertEquals(7, publisher.getPublished());
+        assertEquals(0, outbox.pending());
+        List<CardEvent> delivered = sink.drain();
+        assertEquals(7, delivered.size());
+        assertEquals("4400430000000000", delivered.get(0).getPan());
+        assertEquals("4400430000000006", delivered.get(6).getPan());
+    }
+
+    @Test
+    void drainOnceAsksForOneMoreBatchWhenTheLastOneIsFull() throws Exception {
+        FakeOutbox outbox = new FakeOutbox(events(6));
+        OutboxPublisher publisher = new OutboxPublisher(outbox, new InMemoryCardEventSink(), 3, Duration.ofMillis(10));
+
+        assertEquals(6, publisher.drainOnce());
+        assertEquals(List.of(3, 3, 0), outbox.batches);
+        assertEquals(0, publisher.drainOnce());
+    }
+
+    @Test
+    void eventsStayInTheOutboxWhenPublishFails() throws Exception {
+        FakeOutbox outbox = new FakeOutbox(events(5));
+        OutboxPublisher publisher = new OutboxPublisher(outbox, events -> {
+            throw new IllegalStateException("sink down");
+        }, 2, Duration.ofMillis(10));
+
+        assertThrows(IllegalStateException.class, publisher::drainOnce);
+
+        assertEquals(5, outbox.pending());
+        assertEquals(0, publisher.getPublished());
+    }
+
+    @Test
+    void backgroundWorkerCountsFailuresAndDeliversOnceTheSinkRecovers() throws Exception {
+        FakeOutbox outbox = new FakeOutbox(events(4));
+        InMemoryCardEventSink delivered = new InMemoryCardEventSink();
+        AtomicInteger attempts = new AtomicInteger();
+        CardEventSink flaky = events -> {
+            if (attempts.incrementAndGet() <= 3) {
+                throw new IllegalStateException("sink down");
+            }
+            delivered.publish(events);
+        };
+
+        OutboxPublisher publisher = new OutboxPublisher(outbox, flaky, 10, Duration.ofMillis(1));
+        publisher.start();
+        try {
+            for (int i = 0; i < 4; i++) {
+                assertNotNull(delivered.poll(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            publisher.close();
+        }
+
+        assertEquals(3, publisher.getFailures());
+        assertEquals(4, publisher.getPublished());
+        assertEquals(0, outbox.pending());
+        assertTrue(attempts.get() >= 4);
+    }
+
+    @Test
+    void backoffDoublesUpToTheCap() {
+        assertEquals(2, OutboxPublisher.nextBackoff(0));
+        assertEquals(400, OutboxPublisher.nextBackoff(200));
+        assertEquals(30_000, OutboxPublisher.nextBackoff(20_000));
+        assertEquals(30_000, OutboxPublisher.nextBackoff(30_000));
+    }
+
+    @Test
+    void rejectsNonPositiveBatchSize() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new OutboxPublisher(new FakeOutbox(List.of()), new InMemoryCardEventSink(), 0, Duration.ofMillis(10)));
+    }
+
+    private static List<CardEvent> events(int count) {
+        List<CardEvent> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            events.add(CardEvent.credit(String.format("4400430000%06d", i), i + 1, CardEvent.Operation.DEPOSIT));
+        }
+        return events;
+    }
+
+    private static class FakeOutbox implements CardEventOutbox {
+        private final Deque<CardEvent> events;
+        private final List<Integer> batches = new ArrayList<>();
+
+        private FakeOutbox(List<CardEvent> events) {
+            this.events = new ArrayDeque<>(events);
+        }
+
+        @Override
+        public synchronized int drain(int batchSize, CardEventSink sink) throws Exception {
+            List<CardEvent> batch = new ArrayList<>(batchSize);
+            for (CardEvent event : events) {
+                if (batch.size() == batchSize) {
+                    break;
+                }
+                batch.add(event);
+            }
+            batches.add(batch.size());
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            sink.publish(batch);
+            for (int i = 0; i < batch.size(); i++) {
+                events.removeFirst();
+            }
+            return batch.size();
+        }
+
+        @Override
+        public synchronized long pending() {
+            return events.size();
+        }
+    }
+}
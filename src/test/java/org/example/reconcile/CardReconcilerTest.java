@@ -0,0 +1,45 @@
+package org.example.reconcile;
+
+import org.example.dao.InMemoryCardDao;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.example.reconcile.PanBucketTreeTest.card;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CardReconcilerTest {
+
+    @Test
+    void diffsOnlyMismatchedLeavesAndRepairsTheTarget() {
+        InMemoryCardDao source = new InMemoryCardDao();
+        InMemoryCardDao target = new InMemoryCardDao();
+        for (int i = 0; i < 100; i++) {
+            String pan = String.format("4400%02d%010d", i % 10, i);
+            source.put(card(pan, (double) i));
+            target.put(card(pan, (double) i));
+        }
+        String missing = "4400990000000001";
+        String extra = "4400980000000002";
+        String changed = "4400000000000000";
+        source.put(card(missing, 1.0));
+        target.put(card(extra, 2.0));
+        target.put(card(changed, 99.0));
+
+        CardReconciler reconciler = new CardReconciler(source, target, 6);
+        ReconciliationReport report = reconciler.reconcile(true);
+
+        assertEquals(List.of(missing), report.getMissingInTarget());
+        assertEquals(List.of(extra), report.getMissingInSource());
+        assertEquals(List.of(changed), report.getMismatched());
+        assertEquals(3, report.getLeavesDiffed());
+        assertEquals(3, report.getRepaired());
+        assertFalse(report.isConsistent());
+
+        ReconciliationReport second = reconciler.reconcile(false);
+        assertTrue(second.isConsistent());
+        assertEquals(0, second.getLeavesDiffed());
+    }
+}
@@ -0,0 +1,54 @@
+package org.example.reconcile;
+
+import org.example.model.Card;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PanBucketTreeTest {
+
+    @Test
+    void equalCardSetsMatchRegardlessOfInsertionOrder() {
+        PanBucketTree first = new PanBucketTree(4);
+        PanBucketTree second = new PanBucketTree(4);
+        first.add(card("4400430000000001", 10.0));
+        first.add(card("4400440000000002", 20.0));
+        second.add(card("4400440000000002", 20.0));
+        second.add(card("4400430000000001", 10.0));
+
+        assertTrue(first.bucket(0, "").matches(second.bucket(0, "")));
+        assertEquals(2, first.getCardCount());
+        assertEquals(1, first.getLeafCount());
+    }
+
+    @Test
+    void aChangedBalanceOnlyDiffersAlongItsOwnPath() {
+        PanBucketTree first = new PanBucketTree(6);
+        PanBucketTree second = new PanBucketTree(6);
+        first.add(card("4400430000000001", 10.0));
+        first.add(card("4400440000000002", 20.0));
+        second.add(card("4400430000000001", 10.0));
+        second.add(card("4400440000000002", 20.01));
+
+        assertFalse(first.bucket(0, "").matches(second.bucket(0, "")));
+        assertTrue(first.bucket(6, "440043").matches(second.bucket(6, "440043")));
+        assertFalse(first.bucket(6, "440044").matches(second.bucket(6, "440044")));
+        assertEquals(2, first.children(5, "44004").size());
+        assertNull(first.bucket(6, "440045"));
+    }
+
+    @Test
+    void prefixHelpers() {
+        assertEquals("4400", PanBucketTree.leafKey("4400430000000001", 4));
+        assertEquals("4401", PanBucketTree.nextPrefix("4400"));
+        assertEquals("45", PanBucketTree.nextPrefix("4499"));
+        assertNull(PanBucketTree.nextPrefix("999"));
+    }
+
+    static Card card(String pan, Double balance) {
+        return new Card(null, pan, "123", "28/12", "Ada", "Lovelace", "123456789012", "KZT", balance);
+    }
+}
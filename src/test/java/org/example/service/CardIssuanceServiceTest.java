@@ -0,0 +1,137 @@
+package org.example.service;
+
+import org.example.dao.InMemoryCardDao;
+import org.example.dao.PanSequenceDao;
+import org.example.model.Card;
+import org.example.model.CardUser;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CardIssuanceServiceTest {
+
+    private final InMemoryCardDao cards = new InMemoryCardDao();
+
+    @Test
+    void allocatesSequentialLuhnValidPansFromReservedBlocks() {
+        List<Integer> reservations = new ArrayList<>();
+        AtomicLong sequence = new AtomicLong();
+        PanSequenceDao panSequenceDao = (bin, blockSize) -> {
+            reservations.add(blockSize);
+            return sequence.getAndAdd(blockSize);
+        };
+        CardIssuanceService service = new CardIssuanceService(cards, panSequenceDao, "440043", 3, 10);
+
+        List<String> pans = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            pans.add(service.nextPan());
+        }
+
+        assertEquals(List.of(3, 3, 3), reservations);
+        assertEquals("4400430000000007", pans.get(0));
+        for (int i = 0; i < pans.size(); i++) {
+            String pan = pans.get(i);
+            assertEquals(16, pan.length());
+            assertTrue(pan.startsWith("440043"));
+            assertTrue(Luhn.isValid(pan));
+            assertEquals(i, Long.parseLong(pan.substring(6, 15)));
+        }
+    }
+
+    @Test
+    void concurrentCallersNeverShareAPan() throws Exception {
+        AtomicLong sequence = new AtomicLong();
+        PanSequenceDao panSequenceDao = (bin, blockSize) -> sequence.getAndAdd(blockSize);
+        CardIssuanceService service = new CardIssuanceService(cards, panSequenceDao, "44004312", 50, 10);
+
+        Set<String> pans = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        pans.add(service.nextPan());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(8000, pans.size());
+        assertEquals(8000, new HashSet<>(pans).stream().filter(Luhn::isValid).count());
+    }
+
+    @Test
+    void failsWhenTheRangeOrReservationIsExhausted() {
+        CardIssuanceService exhausted = new CardIssuanceService(cards, (bin, blockSize) -> 10_000_000L,
+            "44004312", 10, 10);
+        CardIssuanceService unavailable = new CardIssuanceService(cards, (bin, blockSize) -> -1L,
+            "440043", 10, 10);
+
+        assertThrows(IllegalStateException.class, exhausted::nextPan);
+        assertThrows(IllegalStateException.class, unavailable::nextPan);
+        assertThrows(IllegalArgumentException.class,
+            () -> new CardIssuanceService(cards, (bin, blockSize) -> 0L, "4400"));
+    }
+
+    @Test
+    void batchIssueReportsExactlyWhichCardsWereStored() {
+        AtomicLong sequence = new AtomicLong();
+        CardIssuanceService service = new CardIssuanceService(cards, (bin, blockSize) -> sequence.getAndAdd(blockSize),
+            "440043", 100, 4);
+        List<CardUser> holders = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            holders.add(new CardUser("Ada", "Lovelace" + i, String.format("%012d", i)));
+        }
+        cards.setBatchLimit(3);
+        cards.failNext("createBatch");
+
+        CardIssuanceException failure = assertThrows(CardIssuanceException.class,
+            () -> service.issue(holders, "KZT", 10.0));
+
+        assertEquals(5, failure.getIssued().size());
+        assertEquals(5, failure.getFailed().size());
+        assertEquals(5, cards.size());
+        for (Card card : failure.getIssued()) {
+            assertTrue(cards.existsByPan(card.getPan()));
+        }
+        for (Card card : failure.getFailed()) {
+            assertFalse(cards.existsByPan(card.getPan()));
+        }
+        assertEquals("Lovelace4", failure.getIssued().get(0).getSurname());
+    }
+
+    @Test
+    void batchIssueReturnsEveryCardWhenAllBatchesAreStored() {
+        AtomicLong sequence = new AtomicLong();
+        CardIssuanceService service = new CardIssuanceService(cards, (bin, blockSize) -> sequence.getAndAdd(blockSize),
+            "440043", 100, 4);
+        List<CardUser> holders = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            holders.add(new CardUser("Ada", "Lovelace" + i, String.format("%012d", i)));
+        }
+
+        List<Card> issued = service.issue(holders, "KZT", 10.0);
+
+        assertEquals(10, issued.size());
+        assertEquals(10, cards.size());
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LuhnTest {
+
+    @Test
+    void computesKnownCheckDigits() {
+        assertEquals(3, Luhn.checkDigit("7992739871"));
+        assertEquals(1, Luhn.checkDigit("411111111111111"));
+        assertEquals(0, Luhn.checkDigit(""));
+    }
+
+    @Test
+    void validatesPans() {
+        assertTrue(Luhn.isValid("4111111111111111"));
+        assertTrue(Luhn.isValid("79927398713"));
+        assertFalse(Luhn.isValid("4111111111111112"));
+        assertFalse(Luhn.isValid("4111-1111"));
+        assertFalse(Luhn.isValid("4"));
+        assertFalse(Luhn.isValid(null));
+    }
+
+    @Test
+    void rejectsNonDigitPayloads() {
+        assertThrows(IllegalArgumentException.class, () -> Luhn.checkDigit("41a1"));
+    }
+}